@@ -16,5 +16,6 @@ public enum Endpoint {
     DELETE_EPIC_BY_ID,
     GET_HISTORY,
     GET_PRIORITIZED,
+    GET_FREE_SLOT,
     UNKNOWN
 }
\ No newline at end of file
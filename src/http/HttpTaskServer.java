@@ -5,7 +5,9 @@ import com.google.gson.GsonBuilder;
 import com.sun.net.httpserver.HttpServer;
 import http.adapter.DurationAdapter;
 import http.adapter.LocalDateTimeAdapter;
+import http.adapter.TaskAdapterFactory;
 import http.handler.EpicHandler;
+import http.handler.SlotHandler;
 import http.handler.SubtaskHandler;
 import http.handler.TaskHandler;
 import http.handler.UserHandler;
@@ -30,6 +32,7 @@ public class HttpTaskServer {
         this.httpServer.createContext("/epics", new EpicHandler(taskManager));
         this.httpServer.createContext("/history", new UserHandler(taskManager));
         this.httpServer.createContext("/prioritized", new UserHandler(taskManager));
+        this.httpServer.createContext("/slots", new SlotHandler(taskManager));
     }
 
     public void start() {
@@ -44,6 +47,7 @@ public class HttpTaskServer {
         GsonBuilder gsonBuilder = new GsonBuilder();
         gsonBuilder.registerTypeAdapter(LocalDateTime.class, new LocalDateTimeAdapter());
         gsonBuilder.registerTypeAdapter(Duration.class, new DurationAdapter());
+        gsonBuilder.registerTypeAdapterFactory(new TaskAdapterFactory());
         return gsonBuilder.create();
     }
 
@@ -23,6 +23,6 @@ public class DurationAdapter extends TypeAdapter<Duration> {
         if (durationString.isBlank()) {
             return null;
         }
-        return Duration.ofMinutes(Integer.parseInt(durationString));
+        return Duration.ofMinutes(Long.parseLong(durationString));
     }
 }
\ No newline at end of file
@@ -0,0 +1,134 @@
+package http.adapter;
+
+import com.google.gson.Gson;
+import com.google.gson.TypeAdapter;
+import com.google.gson.TypeAdapterFactory;
+import com.google.gson.reflect.TypeToken;
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+// JSON собирается по геттерам: задачи хранят время в минутах от эпохи
+
+public class TaskAdapterFactory implements TypeAdapterFactory {
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> TypeAdapter<T> create(Gson gson, TypeToken<T> type) {
+        Class<? super T> rawType = type.getRawType();
+        if (rawType != Task.class && rawType != Subtask.class && rawType != Epic.class) {
+            return null;
+        }
+        return (TypeAdapter<T>) new TaskAdapter(rawType);
+    }
+
+    private static class TaskAdapter extends TypeAdapter<Task> {
+
+        private final Class<?> taskClass;
+        private final LocalDateTimeAdapter localDateTimeAdapter = new LocalDateTimeAdapter();
+        private final DurationAdapter durationAdapter = new DurationAdapter();
+
+        private TaskAdapter(Class<?> taskClass) {
+            this.taskClass = taskClass;
+        }
+
+        @Override
+        public void write(JsonWriter jsonWriter, Task task) throws IOException {
+            if (task == null) {
+                jsonWriter.nullValue();
+                return;
+            }
+            jsonWriter.beginObject();
+            if (task instanceof Subtask subtask) {
+                jsonWriter.name("epicId").value(subtask.getEpicId());
+            }
+            if (task instanceof Epic epic) {
+                jsonWriter.name("subtaskId").beginArray();
+                for (Integer subtaskId : epic.getSubtaskId()) {
+                    jsonWriter.value(subtaskId);
+                }
+                jsonWriter.endArray();
+                jsonWriter.name("endTime");
+                localDateTimeAdapter.write(jsonWriter, epic.getEndTime());
+            }
+            jsonWriter.name("title").value(task.getTitle());
+            jsonWriter.name("description").value(task.getDescription());
+            jsonWriter.name("id").value(task.getId());
+            jsonWriter.name("status").value(task.getTaskStatus() != null ? task.getTaskStatus().name() : null);
+            jsonWriter.name("startTime");
+            localDateTimeAdapter.write(jsonWriter, task.getStartTime());
+            jsonWriter.name("duration");
+            durationAdapter.write(jsonWriter, task.getDuration());
+            jsonWriter.endObject();
+        }
+
+        @Override
+        public Task read(JsonReader jsonReader) throws IOException {
+            if (jsonReader.peek() == JsonToken.NULL) {
+                jsonReader.nextNull();
+                return null;
+            }
+            String title = null;
+            String description = null;
+            int id = 0;
+            TaskStatus status = TaskStatus.NEW;
+            LocalDateTime startTime = null;
+            Duration duration = null;
+            int epicId = 0;
+            Epic epic = new Epic(null, null);
+            LocalDateTime endTime = null;
+
+            jsonReader.beginObject();
+            while (jsonReader.hasNext()) {
+                String name = jsonReader.nextName();
+                if (jsonReader.peek() == JsonToken.NULL) {
+                    jsonReader.nextNull();
+                    continue;
+                }
+                switch (name) {
+                    case "title" -> title = jsonReader.nextString();
+                    case "description" -> description = jsonReader.nextString();
+                    case "id" -> id = jsonReader.nextInt();
+                    case "status" -> status = TaskStatus.valueOf(jsonReader.nextString());
+                    case "startTime" -> startTime = localDateTimeAdapter.read(jsonReader);
+                    case "duration" -> duration = durationAdapter.read(jsonReader);
+                    case "epicId" -> epicId = jsonReader.nextInt();
+                    case "endTime" -> endTime = localDateTimeAdapter.read(jsonReader);
+                    case "subtaskId" -> {
+                        jsonReader.beginArray();
+                        while (jsonReader.hasNext()) {
+                            epic.addSubtaskId(jsonReader.nextInt());
+                        }
+                        jsonReader.endArray();
+                    }
+                    default -> jsonReader.skipValue();
+                }
+            }
+            jsonReader.endObject();
+
+            Task task;
+            if (taskClass == Epic.class) {
+                epic.setTitle(title);
+                epic.setDescription(description);
+                epic.setStartTime(startTime);
+                epic.setDuration(duration);
+                epic.setEndTime(endTime);
+                task = epic;
+            } else if (taskClass == Subtask.class) {
+                task = new Subtask(title, description, startTime, duration, epicId);
+            } else {
+                task = new Task(title, description, startTime, duration);
+            }
+            task.setId(id);
+            task.setTaskStatus(status);
+            return task;
+        }
+    }
+}
@@ -3,12 +3,31 @@ package http.handler;
 import com.sun.net.httpserver.HttpExchange;
 import com.sun.net.httpserver.HttpHandler;
 import http.Endpoint;
+import http.HttpTaskServer;
+import manager.TaskPage;
+import manager.TaskQuery;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
 import java.io.IOException;
+import java.net.URLDecoder;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 public abstract class BaseHttpHandler implements HttpHandler {
 
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final List<String> FILTER_PARAMETERS = List.of("status", "epic", "from", "to");
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yy HH:mm");
+
     protected void sendText(HttpExchange exchange, int statusCode, String text) throws IOException {
         byte[] resp = text.getBytes(StandardCharsets.UTF_8);
         exchange.getResponseHeaders().add("Content-Type", "application/json;charset=utf-8");
@@ -88,6 +107,11 @@ public abstract class BaseHttpHandler implements HttpHandler {
             case "prioritized" -> {
                 return Endpoint.GET_PRIORITIZED;
             }
+            case "slots" -> {
+                if (pathParts.length == 2 && requestMethod.equals("GET")) {
+                    return Endpoint.GET_FREE_SLOT;
+                }
+            }
         }
         return Endpoint.UNKNOWN;
     }
@@ -100,4 +124,78 @@ public abstract class BaseHttpHandler implements HttpHandler {
             return Optional.empty();
         }
     }
+
+    // Постраничная выдача: ?cursor=<nextCursor предыдущей страницы>&limit=<размер страницы>
+
+    protected boolean isPageRequested(HttpExchange exchange) {
+        Map<String, String> parameters = getQueryParameters(exchange);
+        return parameters.containsKey("cursor") || parameters.containsKey("limit");
+    }
+
+    protected void sendPage(HttpExchange exchange, BiFunction<String, Integer, TaskPage<?>> pageQuery)
+            throws IOException {
+        Map<String, String> parameters = getQueryParameters(exchange);
+        TaskPage<?> page;
+        try {
+            int limit = parameters.containsKey("limit") ? Integer.parseInt(parameters.get("limit")) : DEFAULT_PAGE_SIZE;
+            page = pageQuery.apply(parameters.get("cursor"), limit);
+        } catch (IllegalArgumentException e) {
+            sendText(exchange, 400, "Укажите положительный limit и cursor из nextCursor предыдущей страницы");
+            return;
+        }
+        sendText(exchange, 200, HttpTaskServer.getGson().toJson(page));
+    }
+
+    // Поиск по условиям: ?status=<NEW|IN_PROGRESS|DONE>&epic=<id эпика>&from=<dd.MM.yy HH:mm>&to=<dd.MM.yy HH:mm>
+
+    protected boolean isFilterRequested(HttpExchange exchange) {
+        Map<String, String> parameters = getQueryParameters(exchange);
+        return FILTER_PARAMETERS.stream().anyMatch(parameters::containsKey);
+    }
+
+    protected void sendFiltered(HttpExchange exchange, TaskType taskType, Function<TaskQuery, List<Task>> search)
+            throws IOException {
+        Map<String, String> parameters = getQueryParameters(exchange);
+        if (parameters.containsKey("cursor") || parameters.containsKey("limit")) {
+            sendText(exchange, 400, "Поиск по условиям не совмещается с постраничной выдачей");
+            return;
+        }
+        TaskQuery query = new TaskQuery();
+        query.setType(taskType);
+        try {
+            if (parameters.containsKey("status")) {
+                query.setStatus(TaskStatus.valueOf(parameters.get("status")));
+            }
+            if (parameters.containsKey("epic")) {
+                query.setEpicId(Integer.parseInt(parameters.get("epic")));
+            }
+            if (parameters.containsKey("from")) {
+                query.setFrom(LocalDateTime.parse(parameters.get("from"), DATE_TIME_FORMATTER));
+            }
+            if (parameters.containsKey("to")) {
+                query.setTo(LocalDateTime.parse(parameters.get("to"), DATE_TIME_FORMATTER));
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            sendText(exchange, 400, "Укажите статус NEW, IN_PROGRESS или DONE, идентификатор эпика "
+                    + "и время в формате dd.MM.yy HH:mm");
+            return;
+        }
+        sendText(exchange, 200, HttpTaskServer.getGson().toJson(search.apply(query)));
+    }
+
+    protected Map<String, String> getQueryParameters(HttpExchange exchange) {
+        Map<String, String> parameters = new HashMap<>();
+        String query = exchange.getRequestURI().getRawQuery();
+        if (query == null || query.isBlank()) {
+            return parameters;
+        }
+        for (String parameter : query.split("&")) {
+            int separator = parameter.indexOf('=');
+            if (separator > 0) {
+                parameters.put(URLDecoder.decode(parameter.substring(0, separator), StandardCharsets.UTF_8),
+                        URLDecoder.decode(parameter.substring(separator + 1), StandardCharsets.UTF_8));
+            }
+        }
+        return parameters;
+    }
 }
\ No newline at end of file
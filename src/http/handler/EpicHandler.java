@@ -8,6 +8,7 @@ import http.HttpTaskServer;
 import manager.TaskManager;
 import model.Epic;
 import model.Subtask;
+import model.TaskType;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
@@ -38,6 +39,14 @@ public class EpicHandler extends BaseHttpHandler {
     }
 
     private void handleGetEpics(HttpExchange exchange) throws IOException {
+        if (isFilterRequested(exchange)) {
+            sendFiltered(exchange, TaskType.EPIC, taskManager::findTasks);
+            return;
+        }
+        if (isPageRequested(exchange)) {
+            sendPage(exchange, taskManager::getEpicsPage);
+            return;
+        }
         List<Epic> listOfAllEpics = taskManager.getAllEpics();
         String response = HttpTaskServer.getGson().toJson(listOfAllEpics);
         sendText(exchange, 200, response);
@@ -90,12 +99,22 @@ public class EpicHandler extends BaseHttpHandler {
 
     void handleCreateOrUpdateEpic(HttpExchange exchange) throws IOException {
         try (InputStream inputStream = exchange.getRequestBody()) {
-            Optional<Epic> optionalEpic = parseEpic(inputStream);
+            Optional<Epic> optionalEpic;
+            try {
+                optionalEpic = parseEpic(inputStream);
+            } catch (IllegalArgumentException e) {
+                sendText(exchange, 400, e.getMessage());
+                return;
+            }
             if (optionalEpic.isEmpty()) {
                 sendText(exchange, 400, "Поля эпика не могут быть пустыми");
                 return;
             }
             Epic epic = optionalEpic.get();
+            if (epic.getId() < 0) {
+                sendText(exchange, 400, "Некорректный идентификатор");
+                return;
+            }
             try {
                 if (epic.getId() != 0) {
                     taskManager.updateEpic(epic);
@@ -0,0 +1,65 @@
+package http.handler;
+
+import com.sun.net.httpserver.HttpExchange;
+import http.Endpoint;
+import http.HttpTaskServer;
+import manager.TaskManager;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public class SlotHandler extends BaseHttpHandler {
+
+    private static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yy HH:mm");
+    private final TaskManager taskManager;
+
+    public SlotHandler(TaskManager taskManager) {
+        this.taskManager = taskManager;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        Endpoint endpoint = getEndpoint(exchange.getRequestURI().getPath(), exchange.getRequestMethod());
+
+        switch (endpoint) {
+
+            case GET_FREE_SLOT -> handleGetFreeSlot(exchange);
+            default -> sendText(exchange, 400, "К сожалению, такой команды не существует");
+        }
+    }
+
+    // GET /slots?duration=<минуты>&after=<dd.MM.yy HH:mm>: самое раннее свободное окно нужной длины
+
+    private void handleGetFreeSlot(HttpExchange exchange) throws IOException {
+        Map<String, String> parameters = getQueryParameters(exchange);
+        Duration duration;
+        LocalDateTime after;
+        try {
+            duration = Duration.ofMinutes(Long.parseLong(parameters.getOrDefault("duration", "")));
+            after = parameters.containsKey("after")
+                    ? LocalDateTime.parse(parameters.get("after"), DATE_TIME_FORMATTER)
+                    : LocalDateTime.now().truncatedTo(ChronoUnit.MINUTES);
+        } catch (NumberFormatException | DateTimeParseException e) {
+            sendText(exchange, 400, "Укажите продолжительность в минутах и время в формате dd.MM.yy HH:mm");
+            return;
+        }
+        if (duration.isNegative()) {
+            sendText(exchange, 400, "Продолжительность не может быть отрицательной");
+            return;
+        }
+        LocalDateTime startTime = taskManager.findFreeSlot(duration, after);
+        if (startTime == null) {
+            sendText(exchange, 404, "Свободного окна такой длины в пределах горизонта планирования нет");
+            return;
+        }
+        Map<String, LocalDateTime> slot = new LinkedHashMap<>();
+        slot.put("startTime", startTime);
+        slot.put("endTime", startTime.plus(duration));
+        sendText(exchange, 200, HttpTaskServer.getGson().toJson(slot));
+    }
+}
@@ -7,6 +7,7 @@ import http.Endpoint;
 import http.HttpTaskServer;
 import manager.TaskManager;
 import model.Subtask;
+import model.TaskType;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
@@ -36,6 +37,14 @@ public class SubtaskHandler extends BaseHttpHandler {
     }
 
     private void handleGetSubtasks(HttpExchange exchange) throws IOException {
+        if (isFilterRequested(exchange)) {
+            sendFiltered(exchange, TaskType.SUBTASK, taskManager::findTasks);
+            return;
+        }
+        if (isPageRequested(exchange)) {
+            sendPage(exchange, taskManager::getSubtasksPage);
+            return;
+        }
         List<Subtask> listOfAllSubtasks = taskManager.getAllSubtasks();
         String response = HttpTaskServer.getGson().toJson(listOfAllSubtasks);
         sendText(exchange, 200, response);
@@ -65,12 +74,22 @@ public class SubtaskHandler extends BaseHttpHandler {
 
     void handleCreateOrUpdateSubtask(HttpExchange exchange) throws IOException {
         try (InputStream inputStream = exchange.getRequestBody()) {
-            Optional<Subtask> optionalSubtask = parseSubtask(inputStream);
+            Optional<Subtask> optionalSubtask;
+            try {
+                optionalSubtask = parseSubtask(inputStream);
+            } catch (IllegalArgumentException e) {
+                sendText(exchange, 400, e.getMessage());
+                return;
+            }
             if (optionalSubtask.isEmpty()) {
                 sendText(exchange, 400, "Поля подзадачи не могут быть пустыми");
                 return;
             }
             Subtask subtask = optionalSubtask.get();
+            if (subtask.getId() < 0) {
+                sendText(exchange, 400, "Некорректный идентификатор");
+                return;
+            }
             try {
                 if (subtask.getId() != 0) {
                     taskManager.updateSubtask(subtask);
@@ -7,6 +7,7 @@ import http.Endpoint;
 import http.HttpTaskServer;
 import manager.TaskManager;
 import model.Task;
+import model.TaskType;
 import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
@@ -36,6 +37,14 @@ public class TaskHandler extends BaseHttpHandler {
     }
 
     private void handleGetTasks(HttpExchange exchange) throws IOException {
+        if (isFilterRequested(exchange)) {
+            sendFiltered(exchange, TaskType.TASK, taskManager::findTasks);
+            return;
+        }
+        if (isPageRequested(exchange)) {
+            sendPage(exchange, taskManager::getTasksPage);
+            return;
+        }
         List<Task> listOfAllTasks = taskManager.getAllTasks();
         String response = HttpTaskServer.getGson().toJson(listOfAllTasks);
         sendText(exchange, 200, response);
@@ -65,12 +74,22 @@ public class TaskHandler extends BaseHttpHandler {
 
     void handleCreateOrUpdateTask(HttpExchange exchange) throws IOException {
         try (InputStream inputStream = exchange.getRequestBody()) {
-            Optional<Task> optionalTask = parseTask(inputStream);
+            Optional<Task> optionalTask;
+            try {
+                optionalTask = parseTask(inputStream);
+            } catch (IllegalArgumentException e) {
+                sendText(exchange, 400, e.getMessage());
+                return;
+            }
             if (optionalTask.isEmpty()) {
                 sendText(exchange, 400, "Поля задачи не могут быть пустыми");
                 return;
             }
             Task task = optionalTask.get();
+            if (task.getId() < 0) {
+                sendText(exchange, 400, "Некорректный идентификатор");
+                return;
+            }
             try {
                 if (task.getId() != 0) {
                     taskManager.updateTask(task);
@@ -32,6 +32,10 @@ public class UserHandler extends BaseHttpHandler {
     }
 
     private void handleGetPrioritized(HttpExchange exchange) throws IOException {
+        if (isPageRequested(exchange)) {
+            sendPage(exchange, taskManager::getPrioritizedTasksPage);
+            return;
+        }
         String response = HttpTaskServer.getGson().toJson(taskManager.getPrioritizedTasks());
         sendText(exchange, 200, response);
     }
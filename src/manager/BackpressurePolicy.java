@@ -0,0 +1,7 @@
+package manager;
+
+public enum BackpressurePolicy {
+    BLOCK,
+    FAIL_FAST,
+    COALESCE
+}
@@ -0,0 +1,54 @@
+package manager;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+import storage.ColumnarTaskStore;
+import util.EpochMinutes;
+import util.IntList;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Менеджер поверх колоночного хранилища для досок с миллионами задач
+
+public class ColumnarTaskManager extends InMemoryTaskManager implements TaskManager {
+
+    private final ColumnarTaskStore store;
+
+    public ColumnarTaskManager() {
+        this(new ColumnarTaskStore());
+    }
+
+    private ColumnarTaskManager(ColumnarTaskStore store) {
+        super(store.view(TaskType.TASK, Task.class), store.view(TaskType.SUBTASK, Subtask.class),
+                store.view(TaskType.EPIC, Epic.class));
+        this.store = store;
+    }
+
+    public int countByStatus(TaskType taskType, TaskStatus status) {
+        return store.countByStatus(taskType, status);
+    }
+
+    // Задачи и подзадачи, которые начинаются в промежутке [from, to], в порядке идентификаторов:
+
+    public List<Task> getTasksStartingBetween(LocalDateTime from, LocalDateTime to) {
+        long fromMinute = EpochMinutes.of(from);
+        long toMinute = EpochMinutes.of(to);
+        IntList taskIds = store.findStartingBetween(TaskType.TASK, fromMinute, toMinute);
+        IntList subtaskIds = store.findStartingBetween(TaskType.SUBTASK, fromMinute, toMinute);
+        List<Task> result = new ArrayList<>(taskIds.size() + subtaskIds.size());
+        int i = 0;
+        int j = 0;
+        while (i < taskIds.size() || j < subtaskIds.size()) {
+            if (j == subtaskIds.size() || i < taskIds.size() && taskIds.getInt(i) < subtaskIds.getInt(j)) {
+                result.add(tasks.get(taskIds.getInt(i++)));
+            } else {
+                result.add(subtasks.get(subtaskIds.getInt(j++)));
+            }
+        }
+        return result;
+    }
+}
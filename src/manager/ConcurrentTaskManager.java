@@ -0,0 +1,459 @@
+package manager;
+
+import exceptions.NoEpicException;
+import exceptions.TimeConflictException;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+// Порядок захвата блокировок: полосы эпиков по возрастанию номера, затем индекс
+
+public class ConcurrentTaskManager extends InMemoryTaskManager implements TaskManager {
+
+    private static final int EPIC_LOCK_STRIPES = 64;
+    private final ReentrantLock[] epicLocks = new ReentrantLock[EPIC_LOCK_STRIPES];
+    private final StampedLock indexLock = new StampedLock();
+    private volatile List<Task> prioritizedView = List.of();
+
+    public ConcurrentTaskManager() {
+        super(new ConcurrentHashMap<>(), new ConcurrentHashMap<>(), new ConcurrentHashMap<>(),
+                new SynchronizedHistoryManager(Managers.getDefaultHistory()));
+        for (int i = 0; i < EPIC_LOCK_STRIPES; i++) {
+            epicLocks[i] = new ReentrantLock();
+        }
+    }
+
+    @Override
+    public void clearTasks() {
+        long stamp = indexLock.writeLock();
+        try {
+            for (Integer id : tasks.keySet()) {
+                removeFromPrioritized(id);
+                historyManager.remove(id);
+            }
+            tasks.clear();
+        } finally {
+            indexLock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void clearSubtasks() {
+        lockAllEpics();
+        try {
+            long stamp = indexLock.writeLock();
+            try {
+                removeAllSubtasks();
+                for (Epic epic : epics.values()) {
+                    clearEpicSubtasks(epic);
+                }
+            } finally {
+                indexLock.unlockWrite(stamp);
+            }
+        } finally {
+            unlockAllEpics();
+        }
+    }
+
+    @Override
+    public void clearEpics() {
+        lockAllEpics();
+        try {
+            long stamp = indexLock.writeLock();
+            try {
+                removeAllSubtasks();
+                for (Integer id : epics.keySet()) {
+                    historyManager.remove(id);
+                    removeEpicAggregate(id);
+                }
+                epics.clear();
+            } finally {
+                indexLock.unlockWrite(stamp);
+            }
+        } finally {
+            unlockAllEpics();
+        }
+    }
+
+    @Override
+    public Integer createTask(Task task) throws TimeConflictException {
+        long stamp = indexLock.writeLock();
+        try {
+            if (isTimeConflict(task)) {
+                throw timeConflict(task);
+            }
+            task.setId(nextId());
+            tasks.put(task.getId(), task);
+            addToPrioritized(task);
+        } finally {
+            indexLock.unlockWrite(stamp);
+        }
+        return task.getId();
+    }
+
+    @Override
+    public Integer createSubtask(Subtask subtask) throws NoEpicException, TimeConflictException {
+        ReentrantLock epicLock = epicLock(subtask.getEpicId());
+        epicLock.lock();
+        try {
+            Epic epic = epics.get(subtask.getEpicId());
+            if (epic == null) {
+                throw noEpic(subtask.getEpicId());
+            }
+            long stamp = indexLock.writeLock();
+            try {
+                if (isTimeConflict(subtask)) {
+                    throw timeConflict(subtask);
+                }
+                subtask.setId(nextId());
+                subtasks.put(subtask.getId(), subtask);
+                addToPrioritized(subtask);
+                addSubtaskToEpic(epic, subtask);
+            } finally {
+                indexLock.unlockWrite(stamp);
+            }
+        } finally {
+            epicLock.unlock();
+        }
+        return subtask.getId();
+    }
+
+    @Override
+    public Integer createEpic(Epic epic) {
+        long stamp = indexLock.writeLock();
+        try {
+            epic.setId(nextId());
+            epics.put(epic.getId(), epic);
+        } finally {
+            indexLock.unlockWrite(stamp);
+        }
+        return epic.getId();
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        long stamp = indexLock.writeLock();
+        try {
+            tasks.put(task.getId(), task);
+            removeFromPrioritized(task.getId());
+            addToPrioritized(task);
+        } finally {
+            indexLock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        ReentrantLock epicLock = epicLock(subtask.getEpicId());
+        epicLock.lock();
+        try {
+            long stamp = indexLock.writeLock();
+            try {
+                subtasks.put(subtask.getId(), subtask);
+                removeFromPrioritized(subtask.getId());
+                addToPrioritized(subtask);
+                Epic epic = epics.get(subtask.getEpicId());
+                if (epic != null) {
+                    updateSubtaskInEpic(epic, subtask);
+                }
+            } finally {
+                indexLock.unlockWrite(stamp);
+            }
+        } finally {
+            epicLock.unlock();
+        }
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        ReentrantLock epicLock = epicLock(epic.getId());
+        epicLock.lock();
+        try {
+            long stamp = indexLock.writeLock();
+            try {
+                epics.put(epic.getId(), epic);
+            } finally {
+                indexLock.unlockWrite(stamp);
+            }
+        } finally {
+            epicLock.unlock();
+        }
+    }
+
+    @Override
+    public void removeTaskById(int id) {
+        long stamp = indexLock.writeLock();
+        try {
+            tasks.remove(id);
+            removeFromPrioritized(id);
+        } finally {
+            indexLock.unlockWrite(stamp);
+        }
+        historyManager.remove(id);
+    }
+
+    @Override
+    public void removeSubtaskById(int id) {
+        Subtask subtask = subtasks.get(id);
+        if (subtask == null) {
+            return;
+        }
+        ReentrantLock epicLock = epicLock(subtask.getEpicId());
+        epicLock.lock();
+        try {
+            long stamp = indexLock.writeLock();
+            try {
+                if (subtasks.remove(id) == null) {
+                    return;
+                }
+                removeFromPrioritized(id);
+                Epic epic = epics.get(subtask.getEpicId());
+                if (epic != null) {
+                    removeSubtaskFromEpic(epic, id);
+                }
+            } finally {
+                indexLock.unlockWrite(stamp);
+            }
+            historyManager.remove(id);
+        } finally {
+            epicLock.unlock();
+        }
+    }
+
+    @Override
+    public void removeEpicById(int id) {
+        ReentrantLock epicLock = epicLock(id);
+        epicLock.lock();
+        try {
+            int[] subtaskIds;
+            long stamp = indexLock.writeLock();
+            try {
+                Epic epic = epics.remove(id);
+                if (epic == null) {
+                    return;
+                }
+                subtaskIds = epic.getSubtaskId().stream().mapToInt(Integer::intValue).toArray();
+                for (int subtaskId : subtaskIds) {
+                    subtasks.remove(subtaskId);
+                    removeFromPrioritized(subtaskId);
+                }
+            } finally {
+                indexLock.unlockWrite(stamp);
+            }
+            removeEpicAggregate(id);
+            for (int subtaskId : subtaskIds) {
+                historyManager.remove(subtaskId);
+            }
+            historyManager.remove(id);
+        } finally {
+            epicLock.unlock();
+        }
+    }
+
+    // Пакет может затронуть любые эпики, поэтому берёт все полосы сразу, а затем индекс:
+
+    @Override
+    public List<Integer> createTasks(Collection<Task> newTasks) throws TimeConflictException {
+        return underAllLocks(() -> super.createTasks(newTasks));
+    }
+
+    @Override
+    public List<Integer> createSubtasks(Collection<Subtask> newSubtasks) throws NoEpicException,
+            TimeConflictException {
+        return underAllLocks(() -> super.createSubtasks(newSubtasks));
+    }
+
+    @Override
+    public void updateTasks(Collection<Task> changedTasks) throws TimeConflictException {
+        underAllLocks(() -> {
+            super.updateTasks(changedTasks);
+            return null;
+        });
+    }
+
+    @Override
+    public void updateSubtasks(Collection<Subtask> changedSubtasks) throws TimeConflictException {
+        underAllLocks(() -> {
+            super.updateSubtasks(changedSubtasks);
+            return null;
+        });
+    }
+
+    @Override
+    public void removeByIds(int... ids) {
+        underAllLocks(() -> {
+            super.removeByIds(ids);
+            return null;
+        });
+    }
+
+    @Override
+    public List<Subtask> getSubtasksByEpicId(int epicId) {
+        ReentrantLock epicLock = epicLock(epicId);
+        epicLock.lock();
+        try {
+            return super.getSubtasksByEpicId(epicId);
+        } finally {
+            epicLock.unlock();
+        }
+    }
+
+    // Список приоритетов читается оптимистично из готового снимка:
+
+    @Override
+    public List<Task> getPrioritizedTasks() {
+        long stamp = indexLock.tryOptimisticRead();
+        List<Task> view = prioritizedView;
+        if (view != null && indexLock.validate(stamp)) {
+            return view;
+        }
+        stamp = indexLock.readLock();
+        try {
+            view = prioritizedView;
+            if (view == null) {
+                view = super.getPrioritizedTasks();
+                prioritizedView = view;
+            }
+            return view;
+        } finally {
+            indexLock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public List<Task> getConflictingTasks(Task task) {
+        long stamp = indexLock.readLock();
+        try {
+            return super.getConflictingTasks(task);
+        } finally {
+            indexLock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public TaskPage<Task> getPrioritizedTasksPage(String cursor, int limit) {
+        long stamp = indexLock.readLock();
+        try {
+            return super.getPrioritizedTasksPage(cursor, limit);
+        } finally {
+            indexLock.unlockRead(stamp);
+        }
+    }
+
+    // Хранилища и их индексы меняются только под блокировкой записи индекса, поэтому фильтр видит их согласованными
+
+    @Override
+    public List<Task> findTasks(TaskQuery query) {
+        long stamp = indexLock.readLock();
+        try {
+            return super.findTasks(query);
+        } finally {
+            indexLock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(Duration duration, LocalDateTime after) {
+        long stamp = indexLock.readLock();
+        try {
+            return super.findFreeSlot(duration, after);
+        } finally {
+            indexLock.unlockRead(stamp);
+        }
+    }
+
+    @Override
+    protected void updatePrioritizedTasks() {
+        long stamp = indexLock.writeLock();
+        try {
+            super.updatePrioritizedTasks();
+            prioritizedView = null;
+        } finally {
+            indexLock.unlockWrite(stamp);
+        }
+    }
+
+    // Индекс базового менеджера меняется только под блокировкой записи:
+
+    @Override
+    protected void addToPrioritized(Task task) {
+        super.addToPrioritized(task);
+        prioritizedView = null;
+    }
+
+    @Override
+    protected void removeFromPrioritized(int id) {
+        super.removeFromPrioritized(id);
+        prioritizedView = null;
+    }
+
+    private void removeAllSubtasks() {
+        for (Integer id : subtasks.keySet()) {
+            removeFromPrioritized(id);
+            historyManager.remove(id);
+        }
+        subtasks.clear();
+    }
+
+    private <T> T underAllLocks(Supplier<T> batch) {
+        lockAllEpics();
+        try {
+            long stamp = indexLock.writeLock();
+            try {
+                return batch.get();
+            } finally {
+                indexLock.unlockWrite(stamp);
+            }
+        } finally {
+            unlockAllEpics();
+        }
+    }
+
+    private ReentrantLock epicLock(int epicId) {
+        return epicLocks[Math.floorMod(epicId, EPIC_LOCK_STRIPES)];
+    }
+
+    private void lockAllEpics() {
+        for (ReentrantLock epicLock : epicLocks) {
+            epicLock.lock();
+        }
+    }
+
+    private void unlockAllEpics() {
+        for (int i = EPIC_LOCK_STRIPES - 1; i >= 0; i--) {
+            epicLocks[i].unlock();
+        }
+    }
+
+    private static class SynchronizedHistoryManager implements HistoryManager {
+
+        private final HistoryManager historyManager;
+
+        private SynchronizedHistoryManager(HistoryManager historyManager) {
+            this.historyManager = historyManager;
+        }
+
+        @Override
+        public synchronized void addToHistory(Task task) {
+            historyManager.addToHistory(task);
+        }
+
+        @Override
+        public synchronized void remove(int id) {
+            historyManager.remove(id);
+        }
+
+        @Override
+        public synchronized List<Task> getHistory() {
+            return historyManager.getHistory();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package manager;
+
+public enum DurabilityPolicy {
+    NEVER,
+    INTERVAL,
+    EVERY_COMMIT
+}
@@ -0,0 +1,102 @@
+package manager;
+
+import model.Epic;
+import model.Subtask;
+import model.TaskStatus;
+import util.EpochMinutes;
+import util.IntHashMap;
+import java.util.TreeMap;
+
+// Агрегаты эпика: счётчики статусов, суммарная продолжительность и мультимножества времён начала и окончания
+
+public class EpicAggregate {
+
+    private final int[] statusCounts = new int[TaskStatus.values().length];
+    private final TreeMap<Long, Integer> startMinutes = new TreeMap<>();
+    private final TreeMap<Long, Integer> endMinutes = new TreeMap<>();
+    private final IntHashMap<Contribution> contributions = new IntHashMap<>();
+    private int durationMinutes = 0;
+
+    public int size() {
+        return contributions.size();
+    }
+
+    public boolean contains(int subtaskId) {
+        return contributions.containsKey(subtaskId);
+    }
+
+    // Повторное добавление подзадачи заменяет её прежний вклад
+
+    public void add(Subtask subtask) {
+        remove(subtask.getId());
+        Contribution contribution = new Contribution(subtask);
+        contributions.put(subtask.getId(), contribution);
+        statusCounts[contribution.status.ordinal()]++;
+        if (contribution.startMinute != EpochMinutes.NONE) {
+            startMinutes.merge(contribution.startMinute, 1, Integer::sum);
+            endMinutes.merge(contribution.endMinute, 1, Integer::sum);
+        }
+        durationMinutes += contribution.durationMinutes;
+    }
+
+    public void remove(int subtaskId) {
+        Contribution contribution = contributions.remove(subtaskId);
+        if (contribution == null) {
+            return;
+        }
+        statusCounts[contribution.status.ordinal()]--;
+        if (contribution.startMinute != EpochMinutes.NONE) {
+            decrement(startMinutes, contribution.startMinute);
+            decrement(endMinutes, contribution.endMinute);
+        }
+        durationMinutes -= contribution.durationMinutes;
+    }
+
+    public TaskStatus getStatus() {
+        int size = contributions.size();
+        if (statusCounts[TaskStatus.NEW.ordinal()] == size) {
+            return TaskStatus.NEW;
+        } else if (statusCounts[TaskStatus.DONE.ordinal()] == size) {
+            return TaskStatus.DONE;
+        }
+        return TaskStatus.IN_PROGRESS;
+    }
+
+    public long getStartMinute() {
+        return startMinutes.isEmpty() ? EpochMinutes.NONE : startMinutes.firstKey();
+    }
+
+    public long getEndMinute() {
+        return endMinutes.isEmpty() ? EpochMinutes.NONE : endMinutes.lastKey();
+    }
+
+    public int getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public void applyTo(Epic epic) {
+        epic.setTaskStatus(getStatus());
+        epic.setStartMinute(getStartMinute());
+        epic.setEndMinute(getEndMinute());
+        epic.setDurationMinutes(durationMinutes);
+    }
+
+    private static void decrement(TreeMap<Long, Integer> minutes, long minute) {
+        minutes.computeIfPresent(minute, (key, count) -> count > 1 ? count - 1 : null);
+    }
+
+    private static class Contribution {
+
+        private final TaskStatus status;
+        private final long startMinute;
+        private final long endMinute;
+        private final int durationMinutes;
+
+        private Contribution(Subtask subtask) {
+            this.status = subtask.getTaskStatus();
+            this.startMinute = subtask.getStartMinute();
+            this.endMinute = subtask.getEndMinute();
+            this.durationMinutes = subtask.getDurationMinutes();
+        }
+    }
+}
@@ -3,268 +3,812 @@ package manager;
 import exceptions.ManagerSaveException;
 import exceptions.NoEpicException;
 import exceptions.TimeConflictException;
+import exceptions.WriteQueueFullException;
 import model.*;
+import storage.BinaryTaskCodec;
+import storage.BlockCompression;
+import storage.ChangeQueue;
+import storage.CsvRecordReader;
+import storage.CsvTaskCodec;
+import storage.GroupCommit;
+import storage.JournalReader;
+import storage.ManagerState;
+import storage.ParallelSnapshotLoader;
+import storage.TaskJournal;
+import java.io.BufferedOutputStream;
 import java.io.BufferedWriter;
 import java.io.File;
-import java.io.FileWriter;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
-import java.time.Duration;
-import java.time.LocalDateTime;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
-public class FileBackedTaskManager extends InMemoryTaskManager implements TaskManager {
+public final class FileBackedTaskManager extends InMemoryTaskManager implements TaskManager {
 
     private final File file;
-    private static final String title = "id,type,title,status,description,startTime,duration,epic";
+    private final TaskJournal journal;
+    private final int flushThreshold;
+    private final DurabilityPolicy durabilityPolicy;
+    private final GroupCommit groupCommit;
+    private final ScheduledExecutorService flusher;
+    private final ExecutorService compactor;
+    private final long compactionThresholdBytes;
+    private boolean isCompactionRequested = false;
+    private boolean isDirty = false;
+    private long changeSequence = 0;
+    private long appendedSequence = 0;
+    private final ChangeQueue changeQueue;
+    private final BackpressurePolicy backpressurePolicy;
+    private final ExecutorService writer;
+    private boolean isSlotReserved = false;
+    private long droppedJournalRecords = 0;
+    private final SnapshotFormat snapshotFormat;
+    private final Compression compression;
+    private final StringBuilder recordBuilder = new StringBuilder();
+    private boolean isFlushRequested = false;
+    private int pendingChanges = 0;
+    private static final String PUT = "PUT";
+    private static final String REMOVE = "REMOVE";
+    private static final String CLEAR = "CLEAR";
+    private static final long WRITE_RETRY_DELAY_MILLIS = 100;
 
     public FileBackedTaskManager(File file) {
-        this.file = file;
-        save();
+        this(file, new StorageSettings());
     }
 
-    @Override
-    public void clearTasks() {
-        super.clearTasks();
-        save();
+    public FileBackedTaskManager(File file, StorageSettings settings) {
+        this(file, settings, true);
     }
 
-    @Override
-    public void clearSubtasks() {
-        super.clearSubtasks();
-        save();
-    }
-
-    @Override
-    public void clearEpics() {
-        super.clearEpics();
-        save();
+    private FileBackedTaskManager(File file, StorageSettings settings, boolean isNew) {
+        this.file = file;
+        this.compression = settings.getCompression();
+        this.journal = settings.getPersistenceMode() == PersistenceMode.JOURNAL
+                ? new TaskJournal(getJournalFile(file), compression == Compression.DEFLATE) : null;
+        this.flushThreshold = settings.getFlushThreshold();
+        this.durabilityPolicy = settings.getDurabilityPolicy();
+        this.snapshotFormat = settings.getSnapshotFormat();
+        this.groupCommit = new GroupCommit(this::sync);
+        this.flusher = createFlusher(settings);
+        this.compactionThresholdBytes = settings.getCompactionThresholdBytes();
+        this.compactor = journal != null && compactionThresholdBytes > 0 ? createCompactor() : null;
+        this.backpressurePolicy = settings.getBackpressurePolicy();
+        this.changeQueue = settings.getWriteQueueCapacity() > 0 ? new ChangeQueue(settings.getWriteQueueCapacity()) : null;
+        if (isNew) {
+            checkpoint();
+        }
+        this.writer = changeQueue != null ? createWriter() : null;
     }
 
     @Override
-    public Task getTaskById(int id) {
-        save();
-        return super.getTaskById(id);
+    public void clearTasks() {
+        commit(null, () -> {
+            super.clearTasks();
+            persist(null, clearRecord(TaskType.TASK));
+        });
     }
 
     @Override
-    public Subtask getSubtaskById(int id) {
-        save();
-        return super.getSubtaskById(id);
+    public void clearSubtasks() {
+        commit(null, () -> {
+            super.clearSubtasks();
+            persist(null, clearRecord(TaskType.SUBTASK));
+        });
     }
 
     @Override
-    public Epic getEpicById(int id) {
-        save();
-        return super.getEpicById(id);
+    public void clearEpics() {
+        commit(null, () -> {
+            super.clearEpics();
+            persist(null, clearRecord(TaskType.EPIC));
+        });
     }
 
     @Override
     public Integer createTask(Task task) throws TimeConflictException {
-        int taskId = super.createTask(task);
-        save();
-        return taskId;
+        return commit(null, () -> {
+            int taskId = super.createTask(task);
+            persist(taskId, putRecord(task));
+            return taskId;
+        });
     }
 
     @Override
     public Integer createSubtask(Subtask subtask) throws NoEpicException, TimeConflictException {
-        int subtaskId = super.createSubtask(subtask);
-        save();
-        return subtaskId;
+        return commit(null, () -> {
+            int subtaskId = super.createSubtask(subtask);
+            persist(subtaskId, putRecord(subtask));
+            return subtaskId;
+        });
     }
 
     @Override
     public Integer createEpic(Epic epic) {
-        int epicId = super.createEpic(epic);
-        save();
-        return epicId;
+        return commit(null, () -> {
+            int epicId = super.createEpic(epic);
+            persist(epicId, putRecord(epic));
+            return epicId;
+        });
     }
 
     @Override
     public void updateTask(Task task) {
-        super.updateTask(task);
-        save();
+        commit(task.getId(), () -> {
+            super.updateTask(task);
+            persist(task.getId(), putRecord(task));
+        });
     }
 
     @Override
     public void updateSubtask(Subtask subtask) {
-        super.updateSubtask(subtask);
-        save();
+        commit(subtask.getId(), () -> {
+            super.updateSubtask(subtask);
+            persist(subtask.getId(), putRecord(subtask));
+        });
     }
 
     @Override
     public void updateEpic(Epic epic) {
-        super.updateEpic(epic);
-        save();
+        commit(epic.getId(), () -> {
+            super.updateEpic(epic);
+            persist(epic.getId(), putRecord(epic));
+        });
     }
 
     @Override
     public void removeTaskById(int id) {
-        super.removeTaskById(id);
-        save();
+        commit(id, () -> {
+            super.removeTaskById(id);
+            persist(id, removeRecord(id));
+        });
     }
 
     @Override
     public void removeSubtaskById(int id) {
-        super.removeSubtaskById(id);
-        save();
+        commit(id, () -> {
+            super.removeSubtaskById(id);
+            persist(id, removeRecord(id));
+        });
     }
 
     @Override
     public void removeEpicById(int id) {
-        super.removeEpicById(id);
-        save();
+        commit(id, () -> {
+            super.removeEpicById(id);
+            persist(id, removeRecord(id));
+        });
     }
 
     @Override
-    public List<Subtask> getSubtasksByEpicId(int epicId) {
-        save();
-        return super.getSubtasksByEpicId(epicId);
+    public List<Integer> createTasks(Collection<Task> tasks) throws TimeConflictException {
+        return commit(null, () -> {
+            List<Integer> taskIds = super.createTasks(tasks);
+            persistAll(taskIds, taskId -> putRecord(this.tasks.get(taskId)));
+            return taskIds;
+        });
     }
 
     @Override
-    public List<Task> getHistory() {
-        save();
-        return super.getHistory();
+    public List<Integer> createSubtasks(Collection<Subtask> subtasks) throws NoEpicException,
+            TimeConflictException {
+        return commit(null, () -> {
+            List<Integer> subtaskIds = super.createSubtasks(subtasks);
+            persistAll(subtaskIds, subtaskId -> putRecord(this.subtasks.get(subtaskId)));
+            return subtaskIds;
+        });
     }
 
     @Override
-    public List<Task> getPrioritizedTasks() {
-        return super.getPrioritizedTasks();
+    public void updateTasks(Collection<Task> tasks) throws TimeConflictException {
+        commit(null, () -> {
+            super.updateTasks(tasks);
+            persistAll(tasks.stream().map(Task::getId).toList(), taskId -> putRecord(this.tasks.get(taskId)));
+        });
     }
 
     @Override
-    public List<Task> getAllTasks() {
-        save();
-        return super.getAllTasks();
+    public void updateSubtasks(Collection<Subtask> subtasks) throws TimeConflictException {
+        commit(null, () -> {
+            super.updateSubtasks(subtasks);
+            persistAll(subtasks.stream().map(Subtask::getId).toList(),
+                    subtaskId -> putRecord(this.subtasks.get(subtaskId)));
+        });
     }
 
     @Override
-    public List<Subtask> getAllSubtasks() {
-        save();
-        return super.getAllSubtasks();
+    public void removeByIds(int... ids) {
+        commit(null, () -> {
+            super.removeByIds(ids);
+            persistAll(Arrays.stream(ids).boxed().toList(), this::removeRecord);
+        });
     }
 
-    @Override
-    public List<Epic> getAllEpics() {
-        save();
-        return super.getAllEpics();
+    // Принудительная запись всех накопленных изменений на диск:
+
+    public void flush() {
+        long sequence;
+        synchronized (this) {
+            sequence = changeSequence;
+        }
+        if (changeQueue != null) {
+            awaitWritten(sequence);
+        }
+        if (durabilityPolicy == DurabilityPolicy.NEVER) {
+            writeChanges();
+            return;
+        }
+        awaitDurability(sequence);
+    }
+
+    public synchronized boolean isDirty() {
+        return isDirty || changeQueue != null && changeQueue.getDepth() > 0;
+    }
+
+    // Метрики очереди записи; без асинхронной записи очередь всегда пуста:
+
+    // Сколько повреждённых записей журнала было отброшено при последней загрузке:
+
+    public long getDroppedJournalRecords() {
+        return droppedJournalRecords;
+    }
+
+    public int getWriteQueueDepth() {
+        return changeQueue != null ? changeQueue.getDepth() : 0;
+    }
+
+    public long getWriteLagMillis() {
+        return changeQueue != null ? changeQueue.getLagMillis() : 0;
+    }
+
+    public long getCoalescedChanges() {
+        return changeQueue != null ? changeQueue.getCoalescedChanges() : 0;
+    }
+
+    public long getRejectedChanges() {
+        return changeQueue != null ? changeQueue.getRejectedChanges() : 0;
+    }
+
+    public void close() {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        if (compactor != null) {
+            compactor.shutdown();
+            try {
+                compactor.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+        if (writer != null) {
+            changeQueue.close();
+            writer.shutdown();
+            try {
+                writer.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        synchronized (this) {
+            writeState(getManagerState(), getJournalFile(file).length());
+        }
+        if (journal == null) {
+            return;
+        }
+        try {
+            journal.close();
+        } catch (IOException e) {
+            throw new ManagerSaveException(String.format("%s\n", "Не удалось закрыть журнал"), e);
+        }
+    }
+
+    // Ожидание записи на диск идёт уже без блокировки менеджера, чтобы писатели попали в один пакет:
+
+    private <T> T commit(Integer key, Supplier<T> mutation) {
+        boolean isReserved = reserveSlot(key);
+        T result;
+        long sequence;
+        synchronized (this) {
+            isSlotReserved = isReserved;
+            try {
+                result = mutation.get();
+                sequence = changeSequence;
+            } finally {
+                if (isSlotReserved) {
+                    changeQueue.releaseReservation();
+                    isSlotReserved = false;
+                }
+            }
+        }
+        if (durabilityPolicy == DurabilityPolicy.EVERY_COMMIT) {
+            if (changeQueue != null) {
+                awaitWritten(sequence);
+            } else {
+                awaitDurability(sequence);
+            }
+        }
+        return result;
+    }
+
+    private void commit(Integer key, Runnable mutation) {
+        commit(key, () -> {
+            mutation.run();
+            return null;
+        });
+    }
+
+    // Без резерва обходится только изменение, которое сольётся с ещё не записанным:
+
+    private boolean reserveSlot(Integer key) {
+        if (changeQueue == null) {
+            return false;
+        }
+        try {
+            switch (backpressurePolicy) {
+                case FAIL_FAST -> {
+                    if (!changeQueue.tryReserve()) {
+                        throw new WriteQueueFullException("Очередь записи переполнена, изменение отклонено");
+                    }
+                }
+
+                case COALESCE -> {
+                    if (key != null && changeQueue.canCoalesce(key)) {
+                        return false;
+                    }
+                    changeQueue.reserve();
+                }
+
+                case BLOCK -> changeQueue.reserve();
+            }
+        } catch (InterruptedIOException e) {
+            throw new ManagerSaveException(String.format("%s\n", "Не удалось дождаться места в очереди записи"), e);
+        }
+        return true;
+    }
+
+    // Изменения переносит на диск фоновый поток или поток записи:
+
+    private void persist(Integer key, CharSequence record) {
+        if (enqueue(key, record)) {
+            scheduleWrite();
+        }
+    }
+
+    // Пакет изменений пишется в журнал целиком, запись на диск — одна на пакет:
+
+    private void persistAll(List<Integer> keys, Function<Integer, CharSequence> records) {
+        boolean isAppended = false;
+        for (Integer key : keys) {
+            isAppended = enqueue(key, records.apply(key));
+        }
+        if (isAppended) {
+            scheduleWrite();
+        }
+    }
+
+    private boolean enqueue(Integer key, CharSequence record) {
+        changeSequence++;
+        if (changeQueue != null) {
+            changeQueue.put(key, record.toString(), changeSequence, isSlotReserved);
+            isSlotReserved = false;
+            return false;
+        }
+        appendRecord(record);
+        appendedSequence = changeSequence;
+        return true;
     }
 
-    private void save() {
-        try (BufferedWriter fileWriter = new BufferedWriter(new FileWriter(file, StandardCharsets.UTF_8))) {
-            fileWriter.write(title);
+    private void scheduleWrite() {
+        if (durabilityPolicy == DurabilityPolicy.EVERY_COMMIT) {
+            return;
+        }
+        if (flusher == null) {
+            writeChanges();
+        } else if (pendingChanges >= flushThreshold && !isFlushRequested) {
+            isFlushRequested = true;
+            flusher.execute(this::flushInBackground);
+        }
+    }
 
-            for (Task task : tasks.values()) {
-                fileWriter.write(String.format("\n%s", toString(task)));
+    private void appendRecord(CharSequence record) {
+        if (journal != null) {
+            try {
+                journal.append(record);
+            } catch (IOException e) {
+                throw new ManagerSaveException(String.format("%s\n", "Не удалось записать изменение в журнал"), e);
             }
-            for (Epic epic : epics.values()) {
-                fileWriter.write(String.format("\n%s", toString(epic)));
+        }
+        isDirty = true;
+        pendingChanges++;
+    }
+
+    private synchronized void writeChanges() {
+        isFlushRequested = false;
+        if (!isDirty) {
+            return;
+        }
+        if (journal == null) {
+            writeSnapshot(getSnapshotEntries(), getManagerState());
+        } else {
+            try {
+                journal.flush();
+            } catch (IOException e) {
+                throw new ManagerSaveException(String.format("%s\n", "Не удалось записать изменения в журнал"), e);
             }
-            for (Subtask subtask : subtasks.values()) {
-                fileWriter.write(String.format("\n%s", toString(subtask)));
+            if (compactor != null && !compactor.isShutdown() && journal.size() >= compactionThresholdBytes
+                    && !isCompactionRequested) {
+                isCompactionRequested = true;
+                compactor.execute(this::compactInBackground);
             }
+        }
+        isDirty = false;
+        pendingChanges = 0;
+    }
+
+    private void awaitDurability(long sequence) {
+        try {
+            groupCommit.await(sequence);
         } catch (IOException e) {
-            throw new ManagerSaveException(String.format("%s\n", "Не удалось сохранить данные"), e.getCause());
+            throw new ManagerSaveException(String.format("%s\n", "Не удалось сохранить данные на диск"), e);
         }
     }
 
-    private String toString(Task currentTask) {
-        TaskType taskType = getTaskType(currentTask);
+    private void awaitWritten(long sequence) {
+        try {
+            changeQueue.awaitPersisted(sequence);
+        } catch (IOException e) {
+            throw new ManagerSaveException(String.format("%s\n", "Не удалось записать изменения из очереди"), e);
+        }
+    }
+
+    // Поток записи: ошибка записи не теряет изменений, запись повторяется
+
+    private void writeInBackground() {
+        try {
+            List<ChangeQueue.Change> batch;
+            while (!(batch = changeQueue.take()).isEmpty()) {
+                writeBatch(appendBatch(batch));
+            }
+        } catch (InterruptedIOException e) {
+            // Менеджер закрывается
+        }
+    }
+
+    private synchronized long appendBatch(List<ChangeQueue.Change> batch) {
+        long sequence = 0;
+        for (ChangeQueue.Change change : batch) {
+            appendRecord(change.getRecord());
+            sequence = Math.max(sequence, change.getSequence());
+        }
+        appendedSequence = Math.max(appendedSequence, sequence);
+        return sequence;
+    }
+
+    private void writeBatch(long sequence) throws InterruptedIOException {
+        while (true) {
+            try {
+                if (durabilityPolicy == DurabilityPolicy.EVERY_COMMIT) {
+                    awaitDurability(sequence);
+                } else {
+                    writeChanges();
+                }
+                changeQueue.markPersisted(sequence);
+                return;
+            } catch (ManagerSaveException e) {
+                changeQueue.markFailed(e.getCause() instanceof IOException cause ? cause : new IOException(e));
+                if (changeQueue.isClosed()) {
+                    return;
+                }
+            }
+            try {
+                Thread.sleep(WRITE_RETRY_DELAY_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Повтор записи был прерван");
+            }
+        }
+    }
+
+    private ExecutorService createWriter() {
+        ExecutorService executor = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-manager-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.execute(this::writeInBackground);
+        return executor;
+    }
 
-        switch (taskType) {
+    // Один write и один force на весь пакет накопленных изменений:
 
-            case TASK, EPIC -> {
-                return String.format("%d,%s,%s,%s,%s,%s,%d", currentTask.getId(), taskType, currentTask.getTitle(),
-                        currentTask.getTaskStatus(), currentTask.getDescription(),
-                        currentTask.getStartTime() != null ? currentTask.getStartTime().format(DATE_TIME_FORMATTER) : "",
-                        currentTask.getDuration().toMinutes());
+    private long sync() throws IOException {
+        long sequence;
+        synchronized (this) {
+            sequence = appendedSequence;
+            writeChanges();
+        }
+        if (journal != null) {
+            journal.force();
+        }
+        return sequence;
+    }
+
+    private void flushInBackground() {
+        try {
+            if (durabilityPolicy == DurabilityPolicy.NEVER) {
+                writeChanges();
+            } else {
+                flush();
             }
-            case SUBTASK -> {
-                Subtask subtask = (Subtask) currentTask;
-                return String.format("%d,%s,%s,%s,%s,%s,%d,%d", subtask.getId(), taskType, subtask.getTitle(),
-                        subtask.getTaskStatus(), subtask.getDescription(),
-                        subtask.getStartTime().format(DATE_TIME_FORMATTER), subtask.getDuration().toMinutes(),
-                        subtask.getEpicId());
+        } catch (ManagerSaveException e) {
+            // Изменения остаются помеченными и будут записаны при следующей попытке
+        }
+    }
+
+    private ScheduledExecutorService createFlusher(StorageSettings settings) {
+        long flushIntervalMillis = settings.getFlushIntervalMillis();
+        if (durabilityPolicy == DurabilityPolicy.INTERVAL) {
+            flushIntervalMillis = flushIntervalMillis > 0
+                    ? Math.min(flushIntervalMillis, settings.getSyncIntervalMillis())
+                    : settings.getSyncIntervalMillis();
+        }
+        if (flushIntervalMillis <= 0) {
+            return null;
+        }
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-manager-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleWithFixedDelay(this::flushInBackground, flushIntervalMillis, flushIntervalMillis,
+                TimeUnit.MILLISECONDS);
+        return executor;
+    }
+
+    private ExecutorService createCompactor() {
+        return Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "task-manager-compactor");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    // Сжатие журнала: снимок пишется без блокировки менеджера, повторное применение сегментов безопасно
+
+    private void compactInBackground() {
+        try {
+            compact();
+        } catch (ManagerSaveException e) {
+            // Журнал останется прежним, сжатие повторится при следующем превышении порога
+        }
+    }
+
+    private void compact() {
+        List<Task> entries;
+        ManagerState state;
+        synchronized (this) {
+            isCompactionRequested = false;
+            try {
+                journal.rotate(getCompactingJournalFile(file));
+            } catch (IOException e) {
+                throw new ManagerSaveException(String.format("%s\n", "Не удалось переключить сегмент журнала"), e);
             }
+            entries = getSnapshotEntries();
+            state = getManagerState();
+        }
+        writeSnapshot(entries, state);
+        try {
+            Files.deleteIfExists(getCompactingJournalFile(file).toPath());
+        } catch (IOException e) {
+            throw new ManagerSaveException(String.format("%s\n", "Не удалось удалить сжатый сегмент журнала"), e);
         }
-        throw new IllegalStateException(String.format("%s %s", "Введено неверное значение:", taskType));
     }
 
-    private static Task fromString(String value) {
-        String[] split = value.split(",");
-        int id = Integer.parseInt(split[0]);
-        TaskType taskType = TaskType.valueOf(split[1]);
-        String title = split[2];
-        TaskStatus status = TaskStatus.valueOf(split[3]);
-        String description = split[4];
-        LocalDateTime startTime = null;
-        if (!split[5].isBlank()) {
-            startTime = LocalDateTime.parse(split[5], DATE_TIME_FORMATTER);
+    private void checkpoint() {
+        writeSnapshot(getSnapshotEntries(), getManagerState());
+        if (journal != null) {
+            try {
+                Files.deleteIfExists(getCompactingJournalFile(file).toPath());
+                journal.truncate();
+            } catch (IOException e) {
+                throw new ManagerSaveException(String.format("%s\n", "Не удалось очистить журнал"), e);
+            }
         }
-        Duration duration = Duration.ofMinutes(Integer.parseInt(split[6]));
+    }
+
+    private List<Task> getSnapshotEntries() {
+        List<Task> entries = new ArrayList<>(tasks.size() + epics.size() + subtasks.size());
+        entries.addAll(tasks.values());
+        entries.addAll(epics.values());
+        entries.addAll(subtasks.values());
+        return entries;
+    }
 
-        switch (taskType) {
+    private ManagerState getManagerState() {
+        return new ManagerState(getHistory().stream().mapToInt(Task::getId).toArray(),
+                getPrioritizedTasks().stream().mapToInt(Task::getId).toArray());
+    }
 
-            case TASK -> {
-                Task task = new Task(title, description, startTime, duration);
-                task.setId(id);
-                task.setTaskStatus(status);
-                return task;
+    // Снимок пишется во временный файл и атомарно подменяет основной:
+
+    private void writeSnapshot(List<Task> entries, ManagerState state) {
+        File tmpFile = getTmpFile(file);
+        try (FileOutputStream outputStream = new FileOutputStream(tmpFile)) {
+            BlockCompression.BlockOutputStream compressedStream = compression == Compression.DEFLATE
+                    ? BlockCompression.compress(outputStream) : null;
+            OutputStream targetStream = compressedStream != null ? compressedStream : outputStream;
+            if (snapshotFormat == SnapshotFormat.BINARY) {
+                BufferedOutputStream bufferedStream = new BufferedOutputStream(targetStream);
+                BinaryTaskCodec.write(bufferedStream, entries);
+                bufferedStream.flush();
+            } else {
+                BufferedWriter fileWriter = new BufferedWriter(new OutputStreamWriter(targetStream,
+                        StandardCharsets.UTF_8));
+                CsvTaskCodec.write(fileWriter, entries);
+                fileWriter.flush();
             }
-            case EPIC -> {
-                Epic epic = new Epic(title, description);
-                epic.setId(id);
-                epic.setTaskStatus(status);
-                return epic;
+            if (compressedStream != null) {
+                compressedStream.finish();
             }
-            case SUBTASK -> {
-                int epicId = Integer.parseInt(split[7]);
-                Subtask subtask = new Subtask(title, description, startTime, duration, epicId);
-                subtask.setId(id);
-                subtask.setTaskStatus(status);
-                return subtask;
+            if (durabilityPolicy != DurabilityPolicy.NEVER) {
+                outputStream.getChannel().force(true);
             }
-            default -> throw new IllegalStateException(String.format("%s %s", "Введено неверное значение:", taskType));
+        } catch (IOException e) {
+            throw new ManagerSaveException(String.format("%s\n", "Не удалось сохранить данные"), e);
         }
+        try {
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            try {
+                Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            } catch (IOException exception) {
+                throw new ManagerSaveException(String.format("%s\n", "Не удалось сохранить данные"), exception);
+            }
+        } catch (IOException e) {
+            throw new ManagerSaveException(String.format("%s\n", "Не удалось сохранить данные"), e);
+        }
+        writeState(state, 0);
     }
 
-    private static TaskType getTaskType(Task currentType) {
-        if (currentType instanceof Subtask) {
-            return TaskType.SUBTASK;
-        } else if (currentType instanceof Epic) {
-            return TaskType.EPIC;
+    private void writeState(ManagerState state, long journalLength) {
+        try {
+            ManagerState.write(getStateFile(file), state, file, journalLength,
+                    durabilityPolicy != DurabilityPolicy.NEVER);
+        } catch (IOException e) {
+            throw new ManagerSaveException(String.format("%s\n", "Не удалось сохранить историю и порядок задач"), e);
         }
-        return TaskType.TASK;
     }
 
-    public static FileBackedTaskManager loadFromFile(File file) {
+    // Записи журнала собираются в общем буфере, который сразу же копируется в журнал под блокировкой менеджера:
 
+    private CharSequence putRecord(Task task) {
+        if (journal == null) {
+            return "";
+        }
+        recordBuilder.setLength(0);
+        recordBuilder.append(PUT).append(',');
         try {
-            String[] fileLines = Files.readString(file.toPath()).split("\n");
-            FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(file);
+            CsvTaskCodec.write(recordBuilder, task);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return recordBuilder;
+    }
 
-            for (String line : fileLines) {
-                if (line.equals(title) || line.isBlank()) {
-                    continue;
-                }
-                Task currentTask = fromString(line);
-                TaskType taskType = getTaskType(currentTask);
+    private CharSequence removeRecord(int id) {
+        if (journal == null) {
+            return "";
+        }
+        recordBuilder.setLength(0);
+        return recordBuilder.append(REMOVE).append(',').append(id);
+    }
+
+    private CharSequence clearRecord(TaskType taskType) {
+        if (journal == null) {
+            return "";
+        }
+        recordBuilder.setLength(0);
+        return recordBuilder.append(CLEAR).append(',').append(taskType.name());
+    }
 
-                switch (taskType) {
-                    case TASK -> fileBackedTaskManager.createTask(currentTask);
+    // Формат и сжатие снимка определяются по сигнатуре файла:
 
-                    case EPIC -> fileBackedTaskManager.createEpic((Epic) currentTask);
+    private void restoreSnapshot(File source, ForkJoinPool pool) throws IOException {
+        new ParallelSnapshotLoader(pool).load(source).forEach(this::putRestored);
+    }
 
-                    case SUBTASK -> fileBackedTaskManager.createSubtask((Subtask) currentTask);
+    // Недописанная запись в конце журнала отбрасывается:
 
-                    default -> throw new IllegalStateException(String.format("%s %s", "Введено неверное значение:", taskType));
+    private void replayJournal(File source) throws IOException {
+        if (!source.exists()) {
+            return;
+        }
+        JournalReader journalReader = new JournalReader(source);
+        try (CsvRecordReader reader = new CsvRecordReader(new InputStreamReader(journalReader,
+                StandardCharsets.UTF_8))) {
+            while (reader.next()) {
+                if (reader.fieldEquals(0, PUT)) {
+                    putRestored(CsvTaskCodec.read(reader, 1));
+                } else if (reader.fieldEquals(0, REMOVE)) {
+                    removeRestored(reader.getInt(1));
+                } else if (reader.fieldEquals(0, CLEAR)) {
+                    clearRestored(reader.getEnum(1, TaskType.values()));
+                } else {
+                    throw new IllegalStateException(String.format("%s %s", "Введено неверное значение:",
+                            reader.getString(0)));
                 }
             }
+        }
+        if (journalReader.isCorrupted()) {
+            TaskJournal.truncate(source, journalReader.getValidLength());
+            droppedJournalRecords += journalReader.getDroppedRecords();
+        }
+    }
+
+    private static File getJournalFile(File file) {
+        return new File(file.getPath() + ".journal");
+    }
+
+    private static File getCompactingJournalFile(File file) {
+        return new File(file.getPath() + ".journal.compacting");
+    }
+
+    private static File getStateFile(File file) {
+        return new File(file.getPath() + ".state");
+    }
+
+    private static File getTmpFile(File file) {
+        return new File(file.getPath() + ".tmp");
+    }
+
+    public static FileBackedTaskManager loadFromFile(File file) {
+        return loadFromFile(file, new StorageSettings());
+    }
+
+    public static FileBackedTaskManager loadFromFile(File file, StorageSettings settings) {
+
+        ForkJoinPool pool = new ForkJoinPool(settings.getLoadParallelism());
+        try {
+            Files.deleteIfExists(getTmpFile(file).toPath());
+            ManagerState state = ManagerState.read(getStateFile(file));
+            boolean isStateCurrent = state != null && state.isStampOf(file,
+                    getJournalFile(file).length() + getCompactingJournalFile(file).length());
+            FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(file, settings, false);
+            fileBackedTaskManager.restoreSnapshot(file, pool);
+            if (settings.getPersistenceMode() == PersistenceMode.JOURNAL) {
+                fileBackedTaskManager.replayJournal(getCompactingJournalFile(file));
+                fileBackedTaskManager.replayJournal(getJournalFile(file));
+            }
+            pool.submit(() -> fileBackedTaskManager.finishRestore(isStateCurrent ? state.getPrioritizedIds() : null))
+                    .join();
+            if (state != null) {
+                fileBackedTaskManager.restoreHistory(state.getHistoryIds());
+            }
+            fileBackedTaskManager.checkpoint();
             return fileBackedTaskManager;
         } catch (IOException e) {
-            throw new ManagerSaveException(String.format("%s\n", "Не удалось восcтановить данные"), e.getCause());
+            throw new ManagerSaveException(String.format("%s\n", "Не удалось восcтановить данные"), e);
+        } finally {
+            pool.shutdown();
         }
     }
-}
\ No newline at end of file
+}
@@ -1,14 +1,13 @@
 package manager;
 
 import model.Task;
+import util.IntHashMap;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 public class InMemoryHistoryManager implements HistoryManager {
 
-    private final Map<Integer, Node<Task>> tasksHistory = new HashMap<>();
+    private final IntHashMap<Node<Task>> tasksHistory = new IntHashMap<>();
     private Node<Task> head = null;
     private Node<Task> tail = null;
 
@@ -5,22 +5,74 @@ import exceptions.TimeConflictException;
 import model.Epic;
 import model.Subtask;
 import model.Task;
-import model.TaskStatus;
+import model.TaskType;
+import util.IntHashMap;
+import util.EpochMinutes;
+import util.IntList;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
 public class InMemoryTaskManager implements TaskManager {
-    private int counterId = 0;
-    protected final Map<Integer, Task> tasks = new HashMap<>();
-    protected final Map<Integer, Subtask> subtasks = new HashMap<>();
-    protected final Map<Integer, Epic> epics = new HashMap<>();
-    protected final TreeSet<Task> prioritizedTasks = new TreeSet<>(Comparator.comparing(Task::getStartTime));
-    private final HistoryManager historyManager = Managers.getDefaultHistory();
+    private final AtomicInteger counterId = new AtomicInteger();
+    protected final Map<Integer, Task> tasks;
+    protected final Map<Integer, Subtask> subtasks;
+    protected final Map<Integer, Epic> epics;
+    // Те же хранилища с упорядоченным индексом идентификаторов для постраничного чтения
+    private final IndexedTaskMap<Task> indexedTasks;
+    private final IndexedTaskMap<Subtask> indexedSubtasks;
+    private final IndexedTaskMap<Epic> indexedEpics;
+    private static final Comparator<Task> PRIORITY_ORDER = Comparator.comparingLong(Task::getStartMinute)
+            .thenComparingInt(Task::getId);
+    // Индекс приоритетов ищет задачу по идентификатору, а не по текущему времени
+    private final TaskIntervalTree prioritizedTasks = new TaskIntervalTree(this::getTimedTask);
+    private final SlotScheduler slotScheduler;
+    // Агрегаты разных эпиков могут меняться параллельно под разными блокировками ConcurrentTaskManager
+    private final Map<Integer, EpicAggregate> epicAggregates = new ConcurrentHashMap<>();
+    protected final HistoryManager historyManager;
+    private static final Duration DEFAULT_SLOT_GRANULARITY = Duration.ofMinutes(15);
+    private static final Duration DEFAULT_SCHEDULING_HORIZON = Duration.ofDays(365);
     protected static final DateTimeFormatter DATE_TIME_FORMATTER = DateTimeFormatter.ofPattern("dd.MM.yy HH:mm");
 
+    public InMemoryTaskManager() {
+        this(new IntHashMap<>(), new IntHashMap<>(), new IntHashMap<>());
+    }
+
+    // Календарь свободных слотов: длина слота задаёт точность подбора окна, горизонт — как далеко его искать
+
+    public InMemoryTaskManager(Duration slotGranularity, Duration schedulingHorizon) {
+        this(new IntHashMap<>(), new IntHashMap<>(), new IntHashMap<>(), Managers.getDefaultHistory(),
+                new SlotScheduler(slotGranularity, schedulingHorizon));
+    }
+
+    // Хранилища можно подменить, например на отображения поверх файла страниц:
+
+    protected InMemoryTaskManager(Map<Integer, Task> tasks, Map<Integer, Subtask> subtasks, Map<Integer, Epic> epics) {
+        this(tasks, subtasks, epics, Managers.getDefaultHistory());
+    }
+
+    protected InMemoryTaskManager(Map<Integer, Task> tasks, Map<Integer, Subtask> subtasks, Map<Integer, Epic> epics,
+                                  HistoryManager historyManager) {
+        this(tasks, subtasks, epics, historyManager, new SlotScheduler(DEFAULT_SLOT_GRANULARITY,
+                DEFAULT_SCHEDULING_HORIZON));
+    }
+
+    private InMemoryTaskManager(Map<Integer, Task> tasks, Map<Integer, Subtask> subtasks, Map<Integer, Epic> epics,
+                                HistoryManager historyManager, SlotScheduler slotScheduler) {
+        this.indexedTasks = new IndexedTaskMap<>(tasks);
+        this.indexedSubtasks = new IndexedTaskMap<>(subtasks);
+        this.indexedEpics = new IndexedTaskMap<>(epics);
+        this.tasks = indexedTasks;
+        this.subtasks = indexedSubtasks;
+        this.epics = indexedEpics;
+        this.historyManager = historyManager;
+        this.slotScheduler = slotScheduler;
+    }
+
     // Получение списка всех задач/подзадач/эпиков:
 
     @Override
@@ -40,21 +92,16 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public void clearTasks() {
-        tasks.values().stream()
-                .map(Task::getId)
-                .forEach(historyManager::remove);
+        for (Integer id : tasks.keySet()) {
+            historyManager.remove(id);
+            removeFromPrioritized(id);
+        }
         tasks.clear();
-        updatePrioritizedTasks();
     }
 
     @Override
     public void clearSubtasks() {
-        subtasks.values().stream()
-                .map(Subtask::getId)
-                .forEach(historyManager::remove);
-        subtasks.clear();
-        epics.values().forEach(Epic::clearSubtaskId);
-        updatePrioritizedTasks();
+        removeAllSubtasks();
     }
 
     @Override
@@ -63,8 +110,169 @@ public class InMemoryTaskManager implements TaskManager {
                 .map(Epic::getId)
                 .forEach(historyManager::remove);
         epics.clear();
-        clearSubtasks();
-        updatePrioritizedTasks();
+        epicAggregates.clear();
+        removeAllSubtasks();
+    }
+
+    private void removeAllSubtasks() {
+        for (Integer id : subtasks.keySet()) {
+            historyManager.remove(id);
+            removeFromPrioritized(id);
+        }
+        subtasks.clear();
+        for (Epic epic : new ArrayList<>(epics.values())) {
+            clearEpicSubtasks(epic);
+        }
+    }
+
+    // Постраничное чтение по курсору:
+
+    @Override
+    public TaskPage<Task> getTasksPage(String cursor, int limit) {
+        return pageById(indexedTasks, cursor, limit);
+    }
+
+    @Override
+    public TaskPage<Subtask> getSubtasksPage(String cursor, int limit) {
+        return pageById(indexedSubtasks, cursor, limit);
+    }
+
+    @Override
+    public TaskPage<Epic> getEpicsPage(String cursor, int limit) {
+        return pageById(indexedEpics, cursor, limit);
+    }
+
+    @Override
+    public TaskPage<Task> getPrioritizedTasksPage(String cursor, int limit) {
+        checkLimit(limit);
+        long afterStartMinute = Long.MIN_VALUE;
+        int afterId = Integer.MIN_VALUE;
+        if (cursor != null && !cursor.isEmpty()) {
+            int separator = cursor.indexOf(':');
+            try {
+                afterStartMinute = Long.parseLong(cursor.substring(0, Math.max(separator, 0)));
+                afterId = Integer.parseInt(cursor.substring(separator + 1));
+            } catch (NumberFormatException e) {
+                throw invalidCursor(cursor);
+            }
+        }
+        IntList ids = prioritizedTasks.idsAfter(afterStartMinute, afterId, limit + 1);
+        List<Task> items = new ArrayList<>(Math.min(ids.size(), limit));
+        for (int i = 0; i < Math.min(ids.size(), limit); i++) {
+            Task task = getTimedTask(ids.getInt(i));
+            if (task != null) {
+                items.add(task);
+            }
+        }
+        if (ids.size() <= limit) {
+            return new TaskPage<>(items, null);
+        }
+        int lastId = ids.getInt(limit - 1);
+        return new TaskPage<>(items, prioritizedTasks.getStartMinute(lastId) + ":" + lastId);
+    }
+
+    // Поиск по условиям: обход идёт по самому маленькому из индексов кандидатов:
+
+    @Override
+    public List<Task> findTasks(TaskQuery query) {
+        List<Task> found = new ArrayList<>();
+        if (query.getType() == null || query.getType() == TaskType.TASK) {
+            found.addAll(findInStore(indexedTasks, query, null));
+        }
+        if (query.getType() == null || query.getType() == TaskType.SUBTASK) {
+            List<Integer> epicSubtaskIds = null;
+            if (query.getEpicId() != null) {
+                Epic epic = epics.get(query.getEpicId());
+                epicSubtaskIds = epic != null ? epic.getSubtaskId() : List.of();
+            }
+            found.addAll(findInStore(indexedSubtasks, query, epicSubtaskIds));
+        }
+        if (query.getType() == null || query.getType() == TaskType.EPIC) {
+            found.addAll(findInStore(indexedEpics, query, null));
+        }
+        found.sort(Comparator.comparingInt(Task::getId));
+        return found;
+    }
+
+    private <T extends Task> List<T> findInStore(IndexedTaskMap<T> store, TaskQuery query,
+                                                 Collection<Integer> epicSubtaskIds) {
+        if (query.getEpicId() != null && epicSubtaskIds == null) {
+            return List.of();
+        }
+        long fromMinute = query.getFrom() != null ? EpochMinutes.of(query.getFrom()) : Long.MIN_VALUE;
+        long toMinute = query.getTo() != null ? EpochMinutes.of(query.getTo()) : Long.MAX_VALUE;
+        // Без явного списка кандидатов задачи перебираются по индексу статусов (или по всем задачам хранилища)
+        Collection<Integer> candidates = null;
+        int candidateCount = query.getStatus() != null ? store.countWithStatus(query.getStatus()) : store.size();
+        if (epicSubtaskIds != null && epicSubtaskIds.size() < candidateCount) {
+            candidates = epicSubtaskIds;
+            candidateCount = epicSubtaskIds.size();
+        }
+        // Эпиков в дереве интервалов нет, их время проверяется у каждого кандидата
+        if (query.hasTimeRange() && store != indexedEpics) {
+            IntList overlappingIds = prioritizedTasks.findOverlappingIds(fromMinute, toMinute, candidateCount);
+            if (overlappingIds.size() <= candidateCount) {
+                candidates = overlappingIds;
+            }
+        }
+        List<T> found = new ArrayList<>();
+        if (candidates != null) {
+            for (Integer id : candidates) {
+                T task = store.get(id);
+                if (task != null && matches(task, query, fromMinute, toMinute)) {
+                    found.add(task);
+                }
+            }
+            return found;
+        }
+        for (int id = store.nextId(-1, query.getStatus()); id >= 0; id = store.nextId(id, query.getStatus())) {
+            T task = store.get(id);
+            if (task != null && matches(task, query, fromMinute, toMinute)) {
+                found.add(task);
+            }
+        }
+        return found;
+    }
+
+    private static boolean matches(Task task, TaskQuery query, long fromMinute, long toMinute) {
+        if (query.getStatus() != null && task.getTaskStatus() != query.getStatus()) {
+            return false;
+        }
+        if (query.getEpicId() != null && !(task instanceof Subtask subtask
+                && subtask.getEpicId() == query.getEpicId())) {
+            return false;
+        }
+        return !query.hasTimeRange() || task.hasStartTime() && task.getStartMinute() <= toMinute
+                && task.getEndMinute() >= fromMinute;
+    }
+
+    private static <T extends Task> TaskPage<T> pageById(IndexedTaskMap<T> store, String cursor, int limit) {
+        checkLimit(limit);
+        Integer afterId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                afterId = Integer.parseInt(cursor);
+            } catch (NumberFormatException e) {
+                throw invalidCursor(cursor);
+            }
+        }
+        List<T> items = store.valuesAfter(afterId, limit + 1);
+        if (items.size() <= limit) {
+            return new TaskPage<>(items, null);
+        }
+        List<T> pageItems = new ArrayList<>(items.subList(0, limit));
+        return new TaskPage<>(pageItems, String.valueOf(pageItems.getLast().getId()));
+    }
+
+    private static void checkLimit(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException(String.format("%s %d", "Размер страницы должен быть положительным:",
+                    limit));
+        }
+    }
+
+    private static IllegalArgumentException invalidCursor(String cursor) {
+        return new IllegalArgumentException(String.format("%s %s", "Некорректный курсор страницы:", cursor));
     }
 
     // Получение задач/подзадач/эпиков по идентификатору:
@@ -101,12 +309,11 @@ public class InMemoryTaskManager implements TaskManager {
     @Override
     public Integer createTask(Task task) throws TimeConflictException {
         if (isTimeConflict(task)) {
-            throw new TimeConflictException(String.format("%s%s%s", "На это время (",
-                    task.getStartTime().format(DATE_TIME_FORMATTER), ") уже запланирована другая задача"));
+            throw timeConflict(task);
         }
-        task.setId(++counterId);
+        task.setId(nextId());
         tasks.put(task.getId(), task);
-        updatePrioritizedTasks();
+        addToPrioritized(task);
         return task.getId();
     }
 
@@ -114,33 +321,22 @@ public class InMemoryTaskManager implements TaskManager {
     public Integer createSubtask(Subtask subtask) throws NoEpicException, TimeConflictException {
         Epic epic = epics.get(subtask.getEpicId());
         if (epic == null) {
-            throw new NoEpicException(String.format("%s%d %s", "К сожалению, Epic с id = ", subtask.getEpicId(),
-                    "не существует"));
+            throw noEpic(subtask.getEpicId());
         }
         if (isTimeConflict(subtask)) {
-            throw new TimeConflictException(String.format("%s%s%s", "На это время (",
-                    subtask.getStartTime().format(DATE_TIME_FORMATTER), ") уже запланирована другая задача"));
+            throw timeConflict(subtask);
         }
-        subtask.setId(++counterId);
+        subtask.setId(nextId());
         subtasks.put(subtask.getId(), subtask);
-        epic.addSubtaskId(subtask);
-        if (epic.getStartTime() == null || epic.getStartTime().isAfter(subtask.getStartTime())) {
-            epic.setStartTime(subtask.getStartTime());
-        }
-        if (epic.getEndTime() == null || epic.getEndTime().isBefore(subtask.getEndTime())) {
-            epic.setEndTime(subtask.getEndTime());
-        }
-        epic.setDuration(epic.getDuration().plus(subtask.getDuration()));
-        updateStatus(subtask.getEpicId());
-        updatePrioritizedTasks();
+        addSubtaskToEpic(epic, subtask);
+        addToPrioritized(subtask);
         return subtask.getId();
     }
 
     @Override
     public Integer createEpic(Epic epic) {
-        epic.setId(++counterId);
+        epic.setId(nextId());
         epics.put(epic.getId(), epic);
-        updatePrioritizedTasks();
         return epic.getId();
     }
 
@@ -149,7 +345,8 @@ public class InMemoryTaskManager implements TaskManager {
     @Override
     public void updateTask(Task task) {
         tasks.put(task.getId(), task);
-        updatePrioritizedTasks();
+        removeFromPrioritized(task.getId());
+        addToPrioritized(task);
     }
 
     @Override
@@ -157,16 +354,15 @@ public class InMemoryTaskManager implements TaskManager {
         subtasks.put(subtask.getId(), subtask);
         Epic epic = epics.get(subtask.getEpicId());
         if (epic != null) {
-            updateStatus(subtask.getEpicId());
-            updateStartTimeAndEndTimeForEpic(epic.getId());
+            updateSubtaskInEpic(epic, subtask);
         }
-        updatePrioritizedTasks();
+        removeFromPrioritized(subtask.getId());
+        addToPrioritized(subtask);
     }
 
     @Override
     public void updateEpic(Epic epic) {
         epics.put(epic.getId(), epic);
-        updatePrioritizedTasks();
     }
 
     // Удаление задачи/подзадачи/эпика по идентификатору:
@@ -175,19 +371,17 @@ public class InMemoryTaskManager implements TaskManager {
     public void removeTaskById(int id) {
         tasks.remove(id);
         historyManager.remove(id);
-        updatePrioritizedTasks();
+        removeFromPrioritized(id);
     }
 
     @Override
     public void removeSubtaskById(int id) {
         Subtask subtask = subtasks.get(id);
         Epic epic = epics.get(subtask.getEpicId());
-        epic.removeSubtaskId(id);
         subtasks.remove(id);
         historyManager.remove(id);
-        updateStatus(epic.getId());
-        updateStartTimeAndEndTimeForEpic(epic.getId());
-        updatePrioritizedTasks();
+        removeFromPrioritized(id);
+        removeSubtaskFromEpic(epic, id);
     }
 
     @Override
@@ -196,10 +390,255 @@ public class InMemoryTaskManager implements TaskManager {
         for (Integer subtaskId : epic.getSubtaskId()) {
             subtasks.remove(subtaskId);
             historyManager.remove(subtaskId);
+            removeFromPrioritized(subtaskId);
         }
         epics.remove(id);
+        removeEpicAggregate(id);
         historyManager.remove(id);
-        updatePrioritizedTasks();
+    }
+
+    // Пакетные операции: пакет сначала проверяется целиком, потом применяется:
+
+    @Override
+    public List<Integer> createTasks(Collection<Task> newTasks) throws TimeConflictException {
+        checkBatchConflicts(newTasks, false);
+        List<Integer> ids = new ArrayList<>(newTasks.size());
+        for (Task task : newTasks) {
+            task.setId(nextId());
+            tasks.put(task.getId(), task);
+            addToPrioritized(task);
+            ids.add(task.getId());
+        }
+        return ids;
+    }
+
+    @Override
+    public List<Integer> createSubtasks(Collection<Subtask> newSubtasks) throws NoEpicException,
+            TimeConflictException {
+        for (Subtask subtask : newSubtasks) {
+            if (!epics.containsKey(subtask.getEpicId())) {
+                throw noEpic(subtask.getEpicId());
+            }
+        }
+        checkBatchConflicts(newSubtasks, false);
+        Map<Integer, Epic> touchedEpics = new LinkedHashMap<>();
+        List<Integer> ids = new ArrayList<>(newSubtasks.size());
+        for (Subtask subtask : newSubtasks) {
+            Epic epic = touchedEpics.computeIfAbsent(subtask.getEpicId(), epics::get);
+            subtask.setId(nextId());
+            subtasks.put(subtask.getId(), subtask);
+            epic.addSubtaskId(subtask);
+            aggregateOf(epic).add(subtask);
+            addToPrioritized(subtask);
+            ids.add(subtask.getId());
+        }
+        applyAggregates(touchedEpics.values());
+        return ids;
+    }
+
+    @Override
+    public void updateTasks(Collection<Task> changedTasks) throws TimeConflictException {
+        checkBatchConflicts(changedTasks, true);
+        for (Task task : changedTasks) {
+            tasks.put(task.getId(), task);
+            removeFromPrioritized(task.getId());
+            addToPrioritized(task);
+        }
+    }
+
+    @Override
+    public void updateSubtasks(Collection<Subtask> changedSubtasks) throws TimeConflictException {
+        checkBatchConflicts(changedSubtasks, true);
+        Map<Integer, Epic> touchedEpics = new LinkedHashMap<>();
+        for (Subtask subtask : changedSubtasks) {
+            subtasks.put(subtask.getId(), subtask);
+            Epic epic = touchedEpics.computeIfAbsent(subtask.getEpicId(), epics::get);
+            if (epic != null && aggregateOf(epic).contains(subtask.getId())) {
+                aggregateOf(epic).add(subtask);
+            }
+            removeFromPrioritized(subtask.getId());
+            addToPrioritized(subtask);
+        }
+        applyAggregates(touchedEpics.values());
+    }
+
+    // Удаление по идентификаторам любых типов:
+
+    @Override
+    public void removeByIds(int... ids) {
+        Map<Integer, Epic> touchedEpics = new LinkedHashMap<>();
+        for (int id : ids) {
+            if (tasks.remove(id) != null) {
+                historyManager.remove(id);
+                removeFromPrioritized(id);
+            } else if (subtasks.containsKey(id)) {
+                Subtask subtask = subtasks.remove(id);
+                historyManager.remove(id);
+                removeFromPrioritized(id);
+                Epic epic = touchedEpics.computeIfAbsent(subtask.getEpicId(), epics::get);
+                if (epic != null) {
+                    epic.removeSubtaskId(id);
+                    aggregateOf(epic).remove(id);
+                }
+            } else if (epics.containsKey(id)) {
+                Epic epic = epics.get(id);
+                touchedEpics.remove(id);
+                for (Integer subtaskId : epic.getSubtaskId()) {
+                    subtasks.remove(subtaskId);
+                    historyManager.remove(subtaskId);
+                    removeFromPrioritized(subtaskId);
+                }
+                epics.remove(id);
+                removeEpicAggregate(id);
+                historyManager.remove(id);
+            }
+        }
+        applyAggregates(touchedEpics.values());
+    }
+
+    // Проверка пересечений пакета одним проходом по времени начала:
+
+    private void checkBatchConflicts(Collection<? extends Task> batch, boolean isUpdate) {
+        List<Task> timedTasks = new ArrayList<>(batch.size());
+        Set<Integer> batchIds = new HashSet<>();
+        for (Task task : batch) {
+            if (task.hasStartTime()) {
+                timedTasks.add(task);
+            }
+            if (isUpdate) {
+                batchIds.add(task.getId());
+            }
+        }
+        timedTasks.sort(PRIORITY_ORDER);
+        long latestEndMinute = Long.MIN_VALUE;
+        for (Task task : timedTasks) {
+            if (task.getStartMinute() <= latestEndMinute) {
+                throw timeConflict(task);
+            }
+            latestEndMinute = Math.max(latestEndMinute, task.getEndMinute());
+            boolean isConflict = isUpdate
+                    ? prioritizedTasks.findOverlapping(task.getStartMinute(), task.getEndMinute(), task.getId())
+                            .stream().anyMatch(other -> !batchIds.contains(other.getId()))
+                    : prioritizedTasks.hasOverlap(task.getStartMinute(), task.getEndMinute());
+            if (isConflict) {
+                throw timeConflict(task);
+            }
+        }
+    }
+
+    // Массовое восстановление:
+
+    protected void restoreCounterId(int lastId) {
+        counterId.accumulateAndGet(lastId, Math::max);
+    }
+
+    protected void putRestored(Task task) {
+        restoreCounterId(task.getId());
+
+        if (task instanceof Epic epic) {
+            epics.put(epic.getId(), epic);
+        } else if (task instanceof Subtask subtask) {
+            subtasks.put(subtask.getId(), subtask);
+        } else {
+            tasks.put(task.getId(), task);
+        }
+    }
+
+    protected void removeRestored(int id) {
+        if (tasks.remove(id) == null && subtasks.remove(id) == null) {
+            epics.remove(id);
+        }
+    }
+
+    protected void clearRestored(TaskType taskType) {
+        switch (taskType) {
+            case TASK -> tasks.clear();
+
+            case SUBTASK -> subtasks.clear();
+
+            case EPIC -> {
+                epics.clear();
+                subtasks.clear();
+            }
+        }
+    }
+
+    // Эпики связываются с подзадачами параллельно:
+
+    protected void finishRestore() {
+        finishRestore(null);
+    }
+
+    protected void finishRestore(int[] prioritizedIds) {
+        Map<Integer, List<Subtask>> subtasksByEpic = subtasks.values().parallelStream()
+                .collect(Collectors.groupingByConcurrent(Subtask::getEpicId));
+
+        // Подзадачи удалённых эпиков могут остаться после повторного применения журнала поверх снимка
+        subtasksByEpic.keySet().stream()
+                .filter(epicId -> !epics.containsKey(epicId))
+                .toList()
+                .forEach(epicId -> subtasksByEpic.remove(epicId).forEach(subtask -> subtasks.remove(subtask.getId())));
+
+        epicAggregates.clear();
+        List<Epic> restoredEpics = epics.values().parallelStream().map(epic -> {
+            List<Subtask> epicSubtasks = new ArrayList<>(subtasksByEpic.getOrDefault(epic.getId(), List.of()));
+            epicSubtasks.sort(Comparator.comparingInt(Subtask::getId));
+            epic.clearSubtaskId();
+            EpicAggregate aggregate = new EpicAggregate();
+            for (Subtask subtask : epicSubtasks) {
+                epic.addSubtaskId(subtask);
+                aggregate.add(subtask);
+            }
+            aggregate.applyTo(epic);
+            epicAggregates.put(epic.getId(), aggregate);
+            return epic;
+        }).toList();
+        // Статус и время эпика изменились на месте: запись в хранилище обновляет и его колонки, и индекс статусов
+        for (Epic epic : restoredEpics) {
+            epics.put(epic.getId(), epic);
+        }
+        if (prioritizedIds == null || !restorePrioritizedTasks(prioritizedIds)) {
+            updatePrioritizedTasks();
+        }
+    }
+
+    // Сохранённый порядок принимается, только если совпадает с пересчётом:
+
+    private boolean restorePrioritizedTasks(int[] prioritizedIds) {
+        List<Task> orderedTasks = new ArrayList<>(prioritizedIds.length);
+        Task previousTask = null;
+        for (int id : prioritizedIds) {
+            Task task = tasks.get(id);
+            if (task == null) {
+                task = subtasks.get(id);
+            }
+            if (task == null || !task.hasStartTime()
+                    || previousTask != null && PRIORITY_ORDER.compare(previousTask, task) >= 0) {
+                return false;
+            }
+            orderedTasks.add(task);
+            previousTask = task;
+        }
+        long timedTasks = tasks.values().stream().filter(Task::hasStartTime).count()
+                + subtasks.values().stream().filter(Subtask::hasStartTime).count();
+        if (timedTasks != orderedTasks.size()) {
+            return false;
+        }
+        buildPrioritizedTasks(orderedTasks);
+        return true;
+    }
+
+    protected void restoreHistory(int[] historyIds) {
+        for (int id : historyIds) {
+            Task task = tasks.get(id);
+            if (task == null) {
+                task = subtasks.get(id);
+            }
+            if (task == null) {
+                task = epics.get(id);
+            }
+            historyManager.addToHistory(task);
+        }
     }
 
     @Override
@@ -209,33 +648,87 @@ public class InMemoryTaskManager implements TaskManager {
                 .collect(Collectors.toList());
     }
 
-    // Обновление статуса эпика:
+    protected int nextId() {
+        return counterId.incrementAndGet();
+    }
+
+    protected static NoEpicException noEpic(int epicId) {
+        return new NoEpicException(String.format("%s%d %s", "К сожалению, Epic с id = ", epicId, "не существует"));
+    }
+
+    protected static TimeConflictException timeConflict(Task task) {
+        return new TimeConflictException(String.format("%s%s%s", "На это время (",
+                task.getStartTime().format(DATE_TIME_FORMATTER), ") уже запланирована другая задача"));
+    }
+
+    // Обновление агрегатов эпика:
+
+    protected void addSubtaskToEpic(Epic epic, Subtask subtask) {
+        epic.addSubtaskId(subtask);
+        EpicAggregate aggregate = aggregateOf(epic);
+        aggregate.add(subtask);
+        applyAggregate(epic, aggregate);
+    }
+
+    protected void updateSubtaskInEpic(Epic epic, Subtask subtask) {
+        EpicAggregate aggregate = aggregateOf(epic);
+        if (!aggregate.contains(subtask.getId())) {
+            return;
+        }
+        aggregate.add(subtask);
+        applyAggregate(epic, aggregate);
+    }
+
+    protected void removeSubtaskFromEpic(Epic epic, int subtaskId) {
+        epic.removeSubtaskId(subtaskId);
+        EpicAggregate aggregate = aggregateOf(epic);
+        aggregate.remove(subtaskId);
+        applyAggregate(epic, aggregate);
+    }
+
+    // Статус эпика без подзадач не меняется, как и раньше при удалении всех подзадач
+
+    protected void clearEpicSubtasks(Epic epic) {
+        epic.clearSubtaskId();
+        epicAggregates.remove(epic.getId());
+        epics.put(epic.getId(), epic);
+    }
+
+    protected void removeEpicAggregate(int epicId) {
+        epicAggregates.remove(epicId);
+    }
+
+    // Хранилище, откатившееся в обход менеджера, могло разойтись с агрегатами: они соберутся заново при обращении
 
-    private void updateStatus(int epicId) {
-        Epic epic = epics.get(epicId);
-        List<Integer> subtaskIds = epic.getSubtaskId();
-        TaskStatus status;
-        boolean isAllNew = true;
-        boolean isAllDone = true;
+    protected void clearEpicAggregates() {
+        epicAggregates.clear();
+    }
+
+    // Агрегаты эпика без finishRestore собираются при первом обращении
 
-        for (Integer subtaskId : subtaskIds) {
-            Subtask subtask = subtasks.get(subtaskId);
-            if (subtask.getTaskStatus() != TaskStatus.NEW) {
-                isAllNew = false;
+    private EpicAggregate aggregateOf(Epic epic) {
+        return epicAggregates.computeIfAbsent(epic.getId(), epicId -> {
+            EpicAggregate aggregate = new EpicAggregate();
+            for (Integer subtaskId : epic.getSubtaskId()) {
+                Subtask subtask = subtasks.get(subtaskId);
+                if (subtask != null) {
+                    aggregate.add(subtask);
+                }
             }
-            if (subtask.getTaskStatus() != TaskStatus.DONE) {
-                isAllDone = false;
+            return aggregate;
+        });
+    }
+
+    private void applyAggregates(Collection<Epic> touchedEpics) {
+        for (Epic epic : touchedEpics) {
+            if (epic != null) {
+                applyAggregate(epic, aggregateOf(epic));
             }
         }
+    }
 
-        if (isAllNew) {
-            status = TaskStatus.NEW;
-        } else if (isAllDone) {
-            status = TaskStatus.DONE;
-        } else {
-            status = TaskStatus.IN_PROGRESS;
-        }
-        epic.setTaskStatus(status);
+    private void applyAggregate(Epic epic, EpicAggregate aggregate) {
+        aggregate.applyTo(epic);
         epics.put(epic.getId(), epic);
     }
 
@@ -246,47 +739,85 @@ public class InMemoryTaskManager implements TaskManager {
 
     @Override
     public List<Task> getPrioritizedTasks() {
-        return prioritizedTasks.stream().toList();
+        return prioritizedTasks.toList();
     }
 
-    private boolean isTimeConflict(Task newTask) {
-        return getPrioritizedTasks().stream()
-                .anyMatch(currentTask -> !currentTask.getEndTime().isBefore(newTask.getStartTime()) &&
-                        !newTask.getEndTime().isBefore(currentTask.getStartTime()));
+    // Задача с тем же идентификатором конфликтом с собой не считается:
+
+    @Override
+    public List<Task> getConflictingTasks(Task task) {
+        if (!task.hasStartTime()) {
+            return List.of();
+        }
+        return prioritizedTasks.findOverlapping(task.getStartMinute(), task.getEndMinute(), task.getId());
+    }
+
+    @Override
+    public LocalDateTime findFreeSlot(Duration duration, LocalDateTime after) {
+        return slotScheduler.findFreeSlot(prioritizedTasks, duration, after);
     }
 
-    private void updatePrioritizedTasks() {
+    private Task getTimedTask(int id) {
+        Task task = tasks.get(id);
+        return task != null ? task : subtasks.get(id);
+    }
+
+    protected boolean isTimeConflict(Task newTask) {
+        return newTask.hasStartTime() && prioritizedTasks.hasOverlap(newTask.getStartMinute(), newTask.getEndMinute());
+    }
+
+    // Индекс приоритетов:
+
+    protected void addToPrioritized(Task task) {
+        if (!task.hasStartTime()) {
+            return;
+        }
+        prioritizedTasks.insert(task);
+    }
+
+    protected void removeFromPrioritized(int id) {
+        prioritizedTasks.remove(id);
+    }
+
+    // Хранилище, изменённое в обход менеджера (откат транзакции), заново индексируется по идентификаторам:
+
+    protected void reindexStores() {
+        indexedTasks.reindex();
+        indexedSubtasks.reindex();
+        indexedEpics.reindex();
+    }
+
+    // Перестройка индекса приоритетов без копирования задач в список:
+
+    protected void indexPrioritizedTasks() {
         prioritizedTasks.clear();
-        prioritizedTasks.addAll(tasks.values().stream()
-                .filter(task -> task.getStartTime().toLocalDate() != null)
-                .toList());
-        prioritizedTasks.addAll(subtasks.values().stream()
-                .filter(subtask -> subtask.getStartTime().toLocalDate() != null)
-                .toList());
+        for (Task task : tasks.values()) {
+            addToPrioritized(task);
+        }
+        for (Subtask subtask : subtasks.values()) {
+            addToPrioritized(subtask);
+        }
     }
 
-    private void updateStartTimeAndEndTimeForEpic(int idEpic) {
-        Epic epic = epics.get(idEpic);
-        if (epic != null) {
-            List<Subtask> subtaskIdList = epic.getSubtaskId().stream()
-                    .map(subtasks::get)
-                    .toList();
-            LocalDateTime startTime = subtaskIdList.stream()
-                    .map(Subtask::getStartTime)
-                    .filter(Objects::nonNull)
-                    .min(LocalDateTime::compareTo)
-                    .orElse(null);
-            LocalDateTime endTime = subtaskIdList.stream()
-                    .map(subtask -> subtask.getStartTime().plus(subtask.getDuration()))
-                    .max(LocalDateTime::compareTo)
-                    .orElse(null);
-            epic.setStartTime(startTime);
-            epic.setEndTime(endTime);
-            Duration duration = subtaskIdList.stream()
-                    .map(Subtask::getDuration)
-                    .filter(Objects::nonNull)
-                    .reduce(Duration.ZERO, Duration::plus);
-            epic.setDuration(duration);
-        }
-    }
-}
\ No newline at end of file
+    // Полная перестройка нужна только после массовой загрузки или отката хранилища:
+
+    protected void updatePrioritizedTasks() {
+        List<Task> orderedTasks = new ArrayList<>(tasks.size() + subtasks.size());
+        for (Task task : tasks.values()) {
+            if (task.hasStartTime()) {
+                orderedTasks.add(task);
+            }
+        }
+        for (Subtask subtask : subtasks.values()) {
+            if (subtask.hasStartTime()) {
+                orderedTasks.add(subtask);
+            }
+        }
+        orderedTasks.sort(PRIORITY_ORDER);
+        buildPrioritizedTasks(orderedTasks);
+    }
+
+    private void buildPrioritizedTasks(List<Task> orderedTasks) {
+        prioritizedTasks.build(orderedTasks);
+    }
+}
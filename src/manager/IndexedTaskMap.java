@@ -0,0 +1,187 @@
+package manager;
+
+import model.Task;
+import model.TaskStatus;
+import storage.IdOrderedMap;
+import util.IntBitSet;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Хранилище задач с индексами идентификаторов и статусов
+
+class IndexedTaskMap<V extends Task> extends AbstractMap<Integer, V> {
+
+    private final Map<Integer, V> store;
+    private final IdOrderedMap<V> orderedStore;
+    private final IntBitSet ids;
+    private final EnumMap<TaskStatus, IntBitSet> idsByStatus;
+
+    IndexedTaskMap(Map<Integer, V> store) {
+        this.store = store;
+        this.orderedStore = store instanceof IdOrderedMap<V> ordered ? ordered : null;
+        this.ids = orderedStore == null ? new IntBitSet() : null;
+        this.idsByStatus = orderedStore == null ? new EnumMap<>(TaskStatus.class) : null;
+        if (idsByStatus != null) {
+            for (TaskStatus status : TaskStatus.values()) {
+                idsByStatus.put(status, new IntBitSet());
+            }
+        }
+        reindex();
+    }
+
+    @Override
+    public V get(Object key) {
+        return store.get(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return store.containsKey(key);
+    }
+
+    @Override
+    public V put(Integer key, V value) {
+        if (key < 0) {
+            throw new IllegalStateException(String.format("%s %d", "Недопустимый идентификатор задачи:", key));
+        }
+        V previous = store.put(key, value);
+        if (ids != null) {
+            ids.add(key);
+        }
+        indexStatus(key, value.getTaskStatus());
+        return previous;
+    }
+
+    @Override
+    public V remove(Object key) {
+        V previous = store.remove(key);
+        if (key instanceof Integer id) {
+            if (ids != null) {
+                ids.remove(id);
+            }
+            indexStatus(id, null);
+        }
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        store.clear();
+        if (ids != null) {
+            ids.clear();
+            idsByStatus.values().forEach(IntBitSet::clear);
+        }
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+
+    @Override
+    public Set<Entry<Integer, V>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<Integer, V>> iterator() {
+                Iterator<Entry<Integer, V>> iterator = store.entrySet().iterator();
+                return new Iterator<>() {
+                    private Entry<Integer, V> current;
+
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public Entry<Integer, V> next() {
+                        current = iterator.next();
+                        return current;
+                    }
+
+                    @Override
+                    public void remove() {
+                        iterator.remove();
+                        if (ids != null) {
+                            ids.remove(current.getKey());
+                        }
+                        indexStatus(current.getKey(), null);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return store.size();
+            }
+        };
+    }
+
+    // Индекс перестраивается, если хранилище изменилось в обход отображения (например, при откате транзакции)
+
+    void reindex() {
+        if (ids == null) {
+            return;
+        }
+        ids.clear();
+        idsByStatus.values().forEach(IntBitSet::clear);
+        for (Entry<Integer, V> entry : store.entrySet()) {
+            ids.add(entry.getKey());
+            indexStatus(entry.getKey(), entry.getValue().getTaskStatus());
+        }
+    }
+
+    // Сколько задач придётся перебрать, чтобы найти все с этим статусом: у хранилища без индекса — все его задачи
+
+    int countWithStatus(TaskStatus status) {
+        return idsByStatus != null ? idsByStatus.get(status).size() : store.size();
+    }
+
+    // Прежний статус не известен: задача могла измениться на месте
+
+    private void indexStatus(int id, TaskStatus status) {
+        if (idsByStatus == null) {
+            return;
+        }
+        for (Entry<TaskStatus, IntBitSet> entry : idsByStatus.entrySet()) {
+            if (entry.getKey() == status) {
+                entry.getValue().add(id);
+            } else {
+                entry.getValue().remove(id);
+            }
+        }
+    }
+
+    // Наименьший идентификатор больше afterId или -1, если таких нет
+
+    int nextId(int afterId) {
+        return orderedStore != null ? orderedStore.nextId(afterId) : ids.nextAfter(afterId);
+    }
+
+    // То же среди задач с этим статусом; null — статус любой
+
+    int nextId(int afterId, TaskStatus status) {
+        if (status == null) {
+            return nextId(afterId);
+        }
+        return orderedStore != null ? orderedStore.nextId(afterId, status) : idsByStatus.get(status).nextAfter(afterId);
+    }
+
+    // Не больше count значений с идентификатором больше afterId (или с самого начала, если afterId — null)
+
+    List<V> valuesAfter(Integer afterId, int count) {
+        List<V> values = new ArrayList<>();
+        for (int id = nextId(afterId != null ? afterId : -1); id >= 0 && values.size() < count; id = nextId(id)) {
+            V value = store.get(id);
+            if (value != null) {
+                values.add(value);
+            }
+        }
+        return values;
+    }
+}
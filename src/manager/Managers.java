@@ -1,11 +1,33 @@
 package manager;
 
+import java.io.File;
+
 public class Managers {
 
     public static TaskManager getDefault() {
         return new InMemoryTaskManager();
     }
 
+    public static TaskManager getConcurrent() {
+        return new ConcurrentTaskManager();
+    }
+
+    public static TaskManager getPaged(File file) {
+        return PagedTaskManager.open(file);
+    }
+
+    public static TaskManager getPaged(File file, StorageSettings settings) {
+        return PagedTaskManager.open(file, settings);
+    }
+
+    public static TaskManager getColumnar() {
+        return new ColumnarTaskManager();
+    }
+
+    public static TaskManager getOffHeap() {
+        return new OffHeapTaskManager();
+    }
+
     public static HistoryManager getDefaultHistory() {
         return new InMemoryHistoryManager();
     }
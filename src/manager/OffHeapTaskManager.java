@@ -0,0 +1,28 @@
+package manager;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+import storage.OffHeapTaskStore;
+
+// Менеджер поверх хранилища вне кучи; для больших досок задайте -XX:MaxDirectMemorySize
+
+public class OffHeapTaskManager extends InMemoryTaskManager implements TaskManager {
+
+    private final OffHeapTaskStore store;
+
+    public OffHeapTaskManager() {
+        this(new OffHeapTaskStore());
+    }
+
+    private OffHeapTaskManager(OffHeapTaskStore store) {
+        super(store.view(TaskType.TASK, Task.class), store.view(TaskType.SUBTASK, Subtask.class),
+                store.view(TaskType.EPIC, Epic.class));
+        this.store = store;
+    }
+
+    public long getOffHeapBytes() {
+        return store.getOffHeapBytes();
+    }
+}
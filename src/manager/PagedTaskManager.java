@@ -0,0 +1,218 @@
+package manager;
+
+import exceptions.ManagerSaveException;
+import exceptions.NoEpicException;
+import exceptions.TimeConflictException;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskType;
+import storage.TaskPageStore;
+import util.IntList;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Supplier;
+
+// Менеджер поверх файла страниц
+
+public class PagedTaskManager extends InMemoryTaskManager implements TaskManager {
+
+    private final TaskPageStore store;
+    private final DeferredHistoryManager history;
+
+    private PagedTaskManager(TaskPageStore store) {
+        this(store, new DeferredHistoryManager(Managers.getDefaultHistory()));
+    }
+
+    private PagedTaskManager(TaskPageStore store, DeferredHistoryManager history) {
+        super(store.view(TaskType.TASK, Task.class), store.view(TaskType.SUBTASK, Subtask.class),
+                store.view(TaskType.EPIC, Epic.class), history);
+        this.store = store;
+        this.history = history;
+        restoreCounterId(store.getLastId());
+        indexPrioritizedTasks();
+    }
+
+    public static PagedTaskManager open(File file) {
+        return open(file, new StorageSettings());
+    }
+
+    public static PagedTaskManager open(File file, StorageSettings settings) {
+        try {
+            return new PagedTaskManager(new TaskPageStore(file, settings.getPageCacheSize(),
+                    settings.getDurabilityPolicy() == DurabilityPolicy.EVERY_COMMIT));
+        } catch (IOException | UncheckedIOException e) {
+            throw new ManagerSaveException(String.format("%s\n", "Не удалось открыть хранилище задач"), e);
+        }
+    }
+
+    @Override
+    public void clearTasks() {
+        commit(super::clearTasks);
+    }
+
+    @Override
+    public void clearSubtasks() {
+        commit(super::clearSubtasks);
+    }
+
+    @Override
+    public void clearEpics() {
+        commit(super::clearEpics);
+    }
+
+    @Override
+    public Integer createTask(Task task) throws TimeConflictException {
+        return commit(() -> super.createTask(task));
+    }
+
+    @Override
+    public Integer createSubtask(Subtask subtask) throws NoEpicException, TimeConflictException {
+        return commit(() -> super.createSubtask(subtask));
+    }
+
+    @Override
+    public Integer createEpic(Epic epic) {
+        return commit(() -> super.createEpic(epic));
+    }
+
+    @Override
+    public void updateTask(Task task) {
+        commit(() -> super.updateTask(task));
+    }
+
+    @Override
+    public void updateSubtask(Subtask subtask) {
+        commit(() -> super.updateSubtask(subtask));
+    }
+
+    @Override
+    public void updateEpic(Epic epic) {
+        commit(() -> super.updateEpic(epic));
+    }
+
+    @Override
+    public void removeTaskById(int id) {
+        commit(() -> super.removeTaskById(id));
+    }
+
+    @Override
+    public void removeSubtaskById(int id) {
+        commit(() -> super.removeSubtaskById(id));
+    }
+
+    @Override
+    public void removeEpicById(int id) {
+        commit(() -> super.removeEpicById(id));
+    }
+
+    // Пакет фиксируется одной транзакцией:
+
+    @Override
+    public List<Integer> createTasks(Collection<Task> tasks) throws TimeConflictException {
+        return commit(() -> super.createTasks(tasks));
+    }
+
+    @Override
+    public List<Integer> createSubtasks(Collection<Subtask> subtasks) throws NoEpicException, TimeConflictException {
+        return commit(() -> super.createSubtasks(subtasks));
+    }
+
+    @Override
+    public void updateTasks(Collection<Task> tasks) throws TimeConflictException {
+        commit(() -> super.updateTasks(tasks));
+    }
+
+    @Override
+    public void updateSubtasks(Collection<Subtask> subtasks) throws TimeConflictException {
+        commit(() -> super.updateSubtasks(subtasks));
+    }
+
+    @Override
+    public void removeByIds(int... ids) {
+        commit(() -> super.removeByIds(ids));
+    }
+
+    public void close() {
+        try {
+            store.close();
+        } catch (IOException e) {
+            throw new ManagerSaveException(String.format("%s\n", "Не удалось закрыть хранилище задач"), e);
+        }
+    }
+
+    // Изменение либо фиксируется целиком, либо откатывается вместе со всеми затронутыми страницами:
+
+    private synchronized <T> T commit(Supplier<T> mutation) {
+        try {
+            T result = mutation.get();
+            store.commit();
+            history.commit();
+            return result;
+        } catch (IOException | UncheckedIOException e) {
+            rollback();
+            throw new ManagerSaveException(String.format("%s\n", "Не удалось сохранить изменение"), e);
+        } catch (RuntimeException e) {
+            rollback();
+            throw e;
+        }
+    }
+
+    private void commit(Runnable mutation) {
+        commit(() -> {
+            mutation.run();
+            return null;
+        });
+    }
+
+    // Откат транзакции:
+
+    private void rollback() {
+        store.rollback();
+        history.rollback();
+        clearEpicAggregates();
+        reindexStores();
+        indexPrioritizedTasks();
+    }
+
+    // Удаления из истории внутри транзакции откладываются до её фиксации, а при откате отбрасываются
+
+    private static class DeferredHistoryManager implements HistoryManager {
+
+        private final HistoryManager historyManager;
+        private final IntList pendingRemovals = new IntList();
+
+        private DeferredHistoryManager(HistoryManager historyManager) {
+            this.historyManager = historyManager;
+        }
+
+        @Override
+        public void addToHistory(Task task) {
+            historyManager.addToHistory(task);
+        }
+
+        @Override
+        public void remove(int id) {
+            pendingRemovals.addInt(id);
+        }
+
+        @Override
+        public List<Task> getHistory() {
+            return historyManager.getHistory();
+        }
+
+        private void commit() {
+            for (int i = 0; i < pendingRemovals.size(); i++) {
+                historyManager.remove(pendingRemovals.getInt(i));
+            }
+            pendingRemovals.clear();
+        }
+
+        private void rollback() {
+            pendingRemovals.clear();
+        }
+    }
+}
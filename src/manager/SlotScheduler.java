@@ -0,0 +1,61 @@
+package manager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+// Подбор свободного окна по слотам; занятость берётся из дерева интервалов
+
+public class SlotScheduler {
+
+    private final long slotSeconds;
+    private final long horizonSlots;
+
+    public SlotScheduler(Duration granularity, Duration horizon) {
+        if (granularity.toSeconds() < 1 || horizon.compareTo(granularity) < 0) {
+            throw new IllegalArgumentException("Длина слота должна быть не меньше секунды и не больше горизонта");
+        }
+        this.slotSeconds = granularity.toSeconds();
+        this.horizonSlots = horizon.toSeconds() / slotSeconds;
+    }
+
+    public boolean isFree(TaskIntervalTree occupied, LocalDateTime time) {
+        long slot = Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), slotSeconds);
+        return occupied.maxEndStartingBy(lastMinuteOf(slot)) < firstMinuteOf(slot);
+    }
+
+    // Самое раннее окно на границе слота не раньше after в пределах горизонта
+
+    public LocalDateTime findFreeSlot(TaskIntervalTree occupied, Duration duration, LocalDateTime after) {
+        if (duration.isNegative()) {
+            throw new IllegalArgumentException("Продолжительность не может быть отрицательной");
+        }
+        long durationSeconds = duration.toSeconds() + (duration.getNano() > 0 ? 1 : 0);
+        long neededSlots = durationSeconds / slotSeconds + 1;
+        long slot = Math.ceilDiv(after.toEpochSecond(ZoneOffset.UTC), slotSeconds);
+        long limit = slot + horizonSlots;
+
+        while (slot + neededSlots <= limit) {
+            long busyEndMinute = occupied.maxEndStartingBy(lastMinuteOf(slot + neededSlots - 1));
+            if (busyEndMinute < firstMinuteOf(slot)) {
+                return LocalDateTime.ofEpochSecond(slot * slotSeconds, 0, ZoneOffset.UTC);
+            }
+            slot = slotOfMinute(busyEndMinute) + 1;
+        }
+        return null;
+    }
+
+    // Самая ранняя минута, чей слот не раньше данного, и самая поздняя, чей слот не позже него
+
+    private long firstMinuteOf(long slot) {
+        return Math.ceilDiv(slot * slotSeconds, 60);
+    }
+
+    private long lastMinuteOf(long slot) {
+        return Math.floorDiv((slot + 1) * slotSeconds - 1, 60);
+    }
+
+    private long slotOfMinute(long epochMinute) {
+        return Math.floorDiv(epochMinute * 60, slotSeconds);
+    }
+}
@@ -0,0 +1,113 @@
+package manager;
+
+public class StorageSettings {
+
+    private PersistenceMode persistenceMode = PersistenceMode.SNAPSHOT;
+    private long flushIntervalMillis = 0;
+    private int flushThreshold = 1000;
+    private DurabilityPolicy durabilityPolicy = DurabilityPolicy.NEVER;
+    private long syncIntervalMillis = 1000;
+    private long compactionThresholdBytes = 64L * 1024 * 1024;
+    private SnapshotFormat snapshotFormat = SnapshotFormat.CSV;
+    private Compression compression = Compression.NONE;
+    private int loadParallelism = Runtime.getRuntime().availableProcessors();
+    private int pageCacheSize = 1024;
+    private int writeQueueCapacity = 0;
+    private BackpressurePolicy backpressurePolicy = BackpressurePolicy.BLOCK;
+
+    public PersistenceMode getPersistenceMode() {
+        return persistenceMode;
+    }
+
+    public void setPersistenceMode(PersistenceMode persistenceMode) {
+        this.persistenceMode = persistenceMode;
+    }
+
+    public long getFlushIntervalMillis() {
+        return flushIntervalMillis;
+    }
+
+    public void setFlushIntervalMillis(long flushIntervalMillis) {
+        this.flushIntervalMillis = flushIntervalMillis;
+    }
+
+    public int getFlushThreshold() {
+        return flushThreshold;
+    }
+
+    public void setFlushThreshold(int flushThreshold) {
+        this.flushThreshold = flushThreshold;
+    }
+
+    public DurabilityPolicy getDurabilityPolicy() {
+        return durabilityPolicy;
+    }
+
+    public void setDurabilityPolicy(DurabilityPolicy durabilityPolicy) {
+        this.durabilityPolicy = durabilityPolicy;
+    }
+
+    public long getSyncIntervalMillis() {
+        return syncIntervalMillis;
+    }
+
+    public void setSyncIntervalMillis(long syncIntervalMillis) {
+        this.syncIntervalMillis = syncIntervalMillis;
+    }
+
+    public long getCompactionThresholdBytes() {
+        return compactionThresholdBytes;
+    }
+
+    public void setCompactionThresholdBytes(long compactionThresholdBytes) {
+        this.compactionThresholdBytes = compactionThresholdBytes;
+    }
+
+    public SnapshotFormat getSnapshotFormat() {
+        return snapshotFormat;
+    }
+
+    public void setSnapshotFormat(SnapshotFormat snapshotFormat) {
+        this.snapshotFormat = snapshotFormat;
+    }
+
+    public int getLoadParallelism() {
+        return loadParallelism;
+    }
+
+    public void setLoadParallelism(int loadParallelism) {
+        this.loadParallelism = loadParallelism;
+    }
+
+    public int getPageCacheSize() {
+        return pageCacheSize;
+    }
+
+    public void setPageCacheSize(int pageCacheSize) {
+        this.pageCacheSize = pageCacheSize;
+    }
+
+    public int getWriteQueueCapacity() {
+        return writeQueueCapacity;
+    }
+
+    public void setWriteQueueCapacity(int writeQueueCapacity) {
+        this.writeQueueCapacity = writeQueueCapacity;
+    }
+
+    public BackpressurePolicy getBackpressurePolicy() {
+        return backpressurePolicy;
+    }
+
+    public void setBackpressurePolicy(BackpressurePolicy backpressurePolicy) {
+        this.backpressurePolicy = backpressurePolicy;
+    }
+
+    public Compression getCompression() {
+        return compression;
+    }
+
+    public void setCompression(Compression compression) {
+        this.compression = compression;
+    }
+}
@@ -0,0 +1,337 @@
+package manager;
+
+import model.Task;
+import util.IntHashMap;
+import util.IntList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+// Индекс приоритетов: AVL-дерево интервалов задач с наибольшим временем окончания в узлах
+
+public class TaskIntervalTree {
+
+    private final IntHashMap<Node> nodes = new IntHashMap<>();
+    private final IntFunction<? extends Task> resolver;
+    private Node root;
+
+    public TaskIntervalTree(IntFunction<? extends Task> resolver) {
+        this.resolver = resolver;
+    }
+
+    public int size() {
+        return nodes.size();
+    }
+
+    public boolean contains(int id) {
+        return nodes.containsKey(id);
+    }
+
+    public long getStartMinute(int id) {
+        return nodes.get(id).startMinute;
+    }
+
+    public long getEndMinute(int id) {
+        return nodes.get(id).endMinute;
+    }
+
+    // Прежняя запись той же задачи заменяется
+
+    public void insert(Task task) {
+        remove(task.getId());
+        Node node = new Node(task);
+        nodes.put(node.id, node);
+        root = insert(root, node);
+    }
+
+    public boolean remove(int id) {
+        Node node = nodes.remove(id);
+        if (node == null) {
+            return false;
+        }
+        root = remove(root, node.startMinute, id);
+        return true;
+    }
+
+    public void clear() {
+        root = null;
+        nodes.clear();
+    }
+
+    // Пересечение считается так же, как и раньше: границы интервалов включаются
+
+    public boolean hasOverlap(long startMinute, long endMinute) {
+        Node node = root;
+        while (node != null && node.maxEndMinute >= startMinute) {
+            if (node.overlaps(startMinute, endMinute)) {
+                return true;
+            }
+            // Пересечения нет и в правом поддереве
+            if (node.left != null && node.left.maxEndMinute >= startMinute) {
+                node = node.left;
+            } else if (node.startMinute > endMinute) {
+                return false;
+            } else {
+                node = node.right;
+            }
+        }
+        return false;
+    }
+
+    // Наибольшее время окончания среди задач, начинающихся не позже startMinute
+
+    public long maxEndStartingBy(long startMinute) {
+        long maxEndMinute = Long.MIN_VALUE;
+        Node node = root;
+        while (node != null) {
+            if (node.startMinute <= startMinute) {
+                maxEndMinute = Math.max(maxEndMinute, node.endMinute);
+                if (node.left != null) {
+                    maxEndMinute = Math.max(maxEndMinute, node.left.maxEndMinute);
+                }
+                node = node.right;
+            } else {
+                node = node.left;
+            }
+        }
+        return maxEndMinute;
+    }
+
+    public List<Task> findOverlapping(long startMinute, long endMinute, int excludedId) {
+        List<Task> overlapping = new ArrayList<>();
+        collectOverlapping(root, startMinute, endMinute, excludedId, overlapping);
+        return overlapping;
+    }
+
+    // Не больше count идентификаторов после (startMinute, id) в порядке приоритетов
+
+    public IntList idsAfter(long startMinute, int id, int count) {
+        IntList ids = new IntList(Math.min(count, Math.max(nodes.size(), 1)));
+        ArrayDeque<Node> path = new ArrayDeque<>();
+        Node node = root;
+        while (node != null) {
+            if (compare(startMinute, id, node) < 0) {
+                path.push(node);
+                node = node.left;
+            } else {
+                node = node.right;
+            }
+        }
+        while (!path.isEmpty() && ids.size() < count) {
+            Node next = path.pop();
+            ids.addInt(next.id);
+            for (Node child = next.right; child != null; child = child.left) {
+                path.push(child);
+            }
+        }
+        return ids;
+    }
+
+    // Идентификаторы пересекающихся задач, не больше maxCount + 1
+
+    public IntList findOverlappingIds(long startMinute, long endMinute, int maxCount) {
+        IntList ids = new IntList();
+        collectOverlappingIds(root, startMinute, endMinute, maxCount, ids);
+        return ids;
+    }
+
+    public List<Task> toList() {
+        List<Task> orderedTasks = new ArrayList<>(nodes.size());
+        collect(root, orderedTasks);
+        return orderedTasks;
+    }
+
+    // Строит сбалансированное дерево из задач, уже упорядоченных по времени начала и идентификатору, за O(n):
+
+    public void build(List<? extends Task> orderedTasks) {
+        nodes.clear();
+        root = build(orderedTasks, 0, orderedTasks.size());
+    }
+
+    private Node build(List<? extends Task> orderedTasks, int from, int to) {
+        if (from >= to) {
+            return null;
+        }
+        int middle = (from + to) >>> 1;
+        Node node = new Node(orderedTasks.get(middle));
+        nodes.put(node.id, node);
+        node.left = build(orderedTasks, from, middle);
+        node.right = build(orderedTasks, middle + 1, to);
+        update(node);
+        return node;
+    }
+
+    private Node insert(Node node, Node inserted) {
+        if (node == null) {
+            return inserted;
+        }
+        if (compare(inserted.startMinute, inserted.id, node) < 0) {
+            node.left = insert(node.left, inserted);
+        } else {
+            node.right = insert(node.right, inserted);
+        }
+        return balance(node);
+    }
+
+    private Node remove(Node node, long startMinute, int id) {
+        if (node == null) {
+            return null;
+        }
+        int result = compare(startMinute, id, node);
+        if (result < 0) {
+            node.left = remove(node.left, startMinute, id);
+        } else if (result > 0) {
+            node.right = remove(node.right, startMinute, id);
+        } else {
+            if (node.left == null) {
+                return node.right;
+            }
+            if (node.right == null) {
+                return node.left;
+            }
+            Node successor = node.right;
+            while (successor.left != null) {
+                successor = successor.left;
+            }
+            successor.right = removeFirst(node.right);
+            successor.left = node.left;
+            node = successor;
+        }
+        return balance(node);
+    }
+
+    private Node removeFirst(Node node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        node.left = removeFirst(node.left);
+        return balance(node);
+    }
+
+    private void collectOverlapping(Node node, long startMinute, long endMinute, int excludedId,
+                                    List<Task> overlapping) {
+        if (node == null || node.maxEndMinute < startMinute) {
+            return;
+        }
+        collectOverlapping(node.left, startMinute, endMinute, excludedId, overlapping);
+        if (node.startMinute > endMinute) {
+            return;
+        }
+        if (node.overlaps(startMinute, endMinute) && node.id != excludedId) {
+            addResolved(node, overlapping);
+        }
+        collectOverlapping(node.right, startMinute, endMinute, excludedId, overlapping);
+    }
+
+    private void collectOverlappingIds(Node node, long startMinute, long endMinute, int maxCount, IntList ids) {
+        if (node == null || node.maxEndMinute < startMinute || ids.size() > maxCount) {
+            return;
+        }
+        collectOverlappingIds(node.left, startMinute, endMinute, maxCount, ids);
+        if (node.startMinute > endMinute || ids.size() > maxCount) {
+            return;
+        }
+        if (node.overlaps(startMinute, endMinute)) {
+            ids.addInt(node.id);
+        }
+        collectOverlappingIds(node.right, startMinute, endMinute, maxCount, ids);
+    }
+
+    private void collect(Node node, List<Task> orderedTasks) {
+        if (node == null) {
+            return;
+        }
+        collect(node.left, orderedTasks);
+        addResolved(node, orderedTasks);
+        collect(node.right, orderedTasks);
+    }
+
+    private void addResolved(Node node, List<Task> tasks) {
+        Task task = resolver.apply(node.id);
+        if (task != null) {
+            tasks.add(task);
+        }
+    }
+
+    private static int compare(long startMinute, int id, Node node) {
+        int result = Long.compare(startMinute, node.startMinute);
+        return result != 0 ? result : Integer.compare(id, node.id);
+    }
+
+    // Балансировка AVL с пересчётом высоты и наибольшего времени окончания:
+
+    private static Node balance(Node node) {
+        update(node);
+        int balance = height(node.left) - height(node.right);
+        if (balance > 1) {
+            if (height(node.left.left) < height(node.left.right)) {
+                node.left = rotateLeft(node.left);
+            }
+            return rotateRight(node);
+        }
+        if (balance < -1) {
+            if (height(node.right.right) < height(node.right.left)) {
+                node.right = rotateRight(node.right);
+            }
+            return rotateLeft(node);
+        }
+        return node;
+    }
+
+    private static Node rotateRight(Node node) {
+        Node left = node.left;
+        node.left = left.right;
+        left.right = node;
+        update(node);
+        update(left);
+        return left;
+    }
+
+    private static Node rotateLeft(Node node) {
+        Node right = node.right;
+        node.right = right.left;
+        right.left = node;
+        update(node);
+        update(right);
+        return right;
+    }
+
+    private static void update(Node node) {
+        node.height = Math.max(height(node.left), height(node.right)) + 1;
+        long maxEndMinute = node.endMinute;
+        if (node.left != null && node.left.maxEndMinute > maxEndMinute) {
+            maxEndMinute = node.left.maxEndMinute;
+        }
+        if (node.right != null && node.right.maxEndMinute > maxEndMinute) {
+            maxEndMinute = node.right.maxEndMinute;
+        }
+        node.maxEndMinute = maxEndMinute;
+    }
+
+    private static int height(Node node) {
+        return node != null ? node.height : 0;
+    }
+
+    private static class Node {
+
+        private final int id;
+        private final long startMinute;
+        private final long endMinute;
+        private long maxEndMinute;
+        private int height = 1;
+        private Node left;
+        private Node right;
+
+        private Node(Task task) {
+            this.id = task.getId();
+            this.startMinute = task.getStartMinute();
+            this.endMinute = task.getEndMinute();
+            this.maxEndMinute = endMinute;
+        }
+
+        private boolean overlaps(long startMinute, long endMinute) {
+            return this.endMinute >= startMinute && endMinute >= this.startMinute;
+        }
+    }
+}
@@ -3,6 +3,9 @@ package manager;
 import model.Epic;
 import model.Subtask;
 import model.Task;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 public interface TaskManager {
@@ -12,6 +15,12 @@ public interface TaskManager {
 
     List<Epic> getAllEpics();
 
+    TaskPage<Task> getTasksPage(String cursor, int limit);
+
+    TaskPage<Subtask> getSubtasksPage(String cursor, int limit);
+
+    TaskPage<Epic> getEpicsPage(String cursor, int limit);
+
     void clearTasks();
 
     void clearSubtasks();
@@ -42,9 +51,27 @@ public interface TaskManager {
 
     void removeEpicById(int id);
 
+    List<Integer> createTasks(Collection<Task> tasks);
+
+    List<Integer> createSubtasks(Collection<Subtask> subtasks);
+
+    void updateTasks(Collection<Task> tasks);
+
+    void updateSubtasks(Collection<Subtask> subtasks);
+
+    void removeByIds(int... ids);
+
     List<Subtask> getSubtasksByEpicId(int epicId);
 
     List<Task> getHistory();
 
     List<Task> getPrioritizedTasks();
+
+    TaskPage<Task> getPrioritizedTasksPage(String cursor, int limit);
+
+    List<Task> getConflictingTasks(Task task);
+
+    List<Task> findTasks(TaskQuery query);
+
+    LocalDateTime findFreeSlot(Duration duration, LocalDateTime after);
 }
\ No newline at end of file
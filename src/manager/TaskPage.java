@@ -0,0 +1,25 @@
+package manager;
+
+import model.Task;
+import java.util.List;
+
+// Страница списка задач. Следующая страница запрашивается с курсором nextCursor; на последней странице он null.
+
+public class TaskPage<T extends Task> {
+
+    private final List<T> items;
+    private final String nextCursor;
+
+    public TaskPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<T> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
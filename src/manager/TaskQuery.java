@@ -0,0 +1,60 @@
+package manager;
+
+import model.TaskStatus;
+import model.TaskType;
+import java.time.LocalDateTime;
+
+// Условия поиска задач; незаданные (null) не проверяются
+
+public class TaskQuery {
+
+    private TaskType type;
+    private TaskStatus status;
+    private Integer epicId;
+    private LocalDateTime from;
+    private LocalDateTime to;
+
+    public TaskType getType() {
+        return type;
+    }
+
+    public void setType(TaskType type) {
+        this.type = type;
+    }
+
+    public TaskStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(TaskStatus status) {
+        this.status = status;
+    }
+
+    public Integer getEpicId() {
+        return epicId;
+    }
+
+    public void setEpicId(Integer epicId) {
+        this.epicId = epicId;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDateTime from) {
+        this.from = from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDateTime to) {
+        this.to = to;
+    }
+
+    public boolean hasTimeRange() {
+        return from != null || to != null;
+    }
+}
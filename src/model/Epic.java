@@ -1,15 +1,17 @@
 package model;
 
+import util.ConcurrentIntList;
+import util.EpochMinutes;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
-import java.util.ArrayList;
 import java.util.List;
 
 public class Epic extends Task {
 
-    private final List<Integer> subtaskId = new ArrayList<>();
-    private LocalDateTime endTime;
+    // Список читают без блокировок (поиск, сериализация в HTTP), пока менеджер меняет его под блокировкой эпика
+    private final ConcurrentIntList subtaskId = new ConcurrentIntList();
+    private long endMinute = EpochMinutes.NONE;
 
     public Epic(String title, String description) {
         super(title, description, null, Duration.ofMinutes(0));
@@ -18,7 +20,6 @@ public class Epic extends Task {
     public Epic(Epic epic) {
         super(epic.getTitle(), epic.getDescription(), null, Duration.ofMinutes(0));
         this.id = epic.getId();
-        this.endTime = null;
     }
 
     public List<Integer> getSubtaskId() {
@@ -26,26 +27,40 @@ public class Epic extends Task {
     }
 
     public void addSubtaskId(Subtask subtask) {
-        subtaskId.add(subtask.getId());
+        subtaskId.addInt(subtask.getId());
+    }
+
+    public void addSubtaskId(int id) {
+        subtaskId.addInt(id);
     }
 
     public void clearSubtaskId() {
         subtaskId.clear();
-        setStartTime(null);
-        setDuration(Duration.ofMinutes(0));
-        setEndTime(null);
+        startMinute = EpochMinutes.NONE;
+        durationMinutes = 0;
+        endMinute = EpochMinutes.NONE;
     }
 
-    public void removeSubtaskId(Integer id) {
-        subtaskId.remove(id);
+    public void removeSubtaskId(int id) {
+        subtaskId.removeInt(id);
     }
 
+    @Override
     public LocalDateTime getEndTime() {
-        return endTime;
+        return EpochMinutes.toDateTime(endMinute);
     }
 
     public void setEndTime(LocalDateTime endTime) {
-        this.endTime = endTime;
+        this.endMinute = EpochMinutes.of(endTime);
+    }
+
+    @Override
+    public long getEndMinute() {
+        return endMinute;
+    }
+
+    public void setEndMinute(long endMinute) {
+        this.endMinute = endMinute;
     }
 
     @Override
@@ -53,11 +68,11 @@ public class Epic extends Task {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yy HH:mm");
         String startTimeToString = "";
         String endTimeToString = "";
-        if (startTime != null) {
-            startTimeToString = startTime.format(formatter);
+        if (hasStartTime()) {
+            startTimeToString = getStartTime().format(formatter);
         }
-        if (endTime != null) {
-            endTimeToString = endTime.format(formatter);
+        if (endMinute != EpochMinutes.NONE) {
+            endTimeToString = getEndTime().format(formatter);
         }
         return "model.Epic{" +
                 "id='" + getId() + '\'' +
@@ -66,7 +81,7 @@ public class Epic extends Task {
                 ", description='" + getDescription() + '\'' +
                 ", status=" + getTaskStatus() +
                 ", startTime=" + startTimeToString +
-                ", duration=" + duration.toMinutes() + " мин" +
+                ", duration=" + durationMinutes + " мин" +
                 ", endTime=" + endTimeToString +
                 '}';
     }
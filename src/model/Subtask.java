@@ -21,8 +21,8 @@ public class Subtask extends Task {
     public String toString() {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yy HH:mm");
         String startTimeToString = "";
-        if (startTime != null) {
-            startTimeToString = startTime.format(formatter);
+        if (hasStartTime()) {
+            startTimeToString = getStartTime().format(formatter);
         }
         return "model.Subtask{" +
                 "id='" + getId() + '\'' +
@@ -31,7 +31,7 @@ public class Subtask extends Task {
                 ", description='" + getDescription() + '\'' +
                 ", status=" + getTaskStatus() +
                 ", startTime=" + startTimeToString +
-                ", duration=" + duration.toMinutes() + " мин" +
+                ", duration=" + durationMinutes + " мин" +
                 '}';
     }
 }
\ No newline at end of file
@@ -1,25 +1,28 @@
 package model;
 
+import util.EpochMinutes;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.Objects;
 
+// Время хранится в минутах от эпохи, секунды отбрасываются
+
 public class Task {
 
     protected String title;
     protected String description;
     protected int id;
     protected TaskStatus status;
-    protected LocalDateTime startTime;
-    protected Duration duration;
+    protected long startMinute;
+    protected int durationMinutes;
 
     public Task(String title, String description, LocalDateTime startTime, Duration duration) {
         this.title = title;
         this.description = description;
         this.status = TaskStatus.NEW;
-        this.startTime = startTime;
-        this.duration = duration;
+        this.startMinute = EpochMinutes.of(startTime);
+        this.durationMinutes = toMinutes(duration);
     }
 
     public Task(Task task) {
@@ -27,8 +30,8 @@ public class Task {
         this.description = task.description;
         this.id = task.id;
         this.status = task.status;
-        this.startTime = task.startTime;
-        this.duration = task.duration;
+        this.startMinute = task.startMinute;
+        this.durationMinutes = task.durationMinutes;
     }
 
     public String getTitle() {
@@ -64,23 +67,59 @@ public class Task {
     }
 
     public LocalDateTime getStartTime() {
-        return startTime;
+        return EpochMinutes.toDateTime(startMinute);
     }
 
     public void setStartTime(LocalDateTime startTime) {
-        this.startTime = startTime;
+        this.startMinute = EpochMinutes.of(startTime);
     }
 
     public Duration getDuration() {
-        return duration;
+        return Duration.ofMinutes(durationMinutes);
     }
 
     public void setDuration(Duration duration) {
-        this.duration = duration;
+        this.durationMinutes = toMinutes(duration);
     }
 
     public LocalDateTime getEndTime() {
-        return startTime.plus(duration);
+        return EpochMinutes.toDateTime(getEndMinute());
+    }
+
+    public boolean hasStartTime() {
+        return startMinute != EpochMinutes.NONE;
+    }
+
+    public long getStartMinute() {
+        return startMinute;
+    }
+
+    public void setStartMinute(long startMinute) {
+        this.startMinute = startMinute;
+    }
+
+    public int getDurationMinutes() {
+        return durationMinutes;
+    }
+
+    public void setDurationMinutes(int durationMinutes) {
+        this.durationMinutes = durationMinutes;
+    }
+
+    public long getEndMinute() {
+        return hasStartTime() ? startMinute + durationMinutes : EpochMinutes.NONE;
+    }
+
+    private static int toMinutes(Duration duration) {
+        if (duration == null) {
+            return 0;
+        }
+        long minutes = duration.toMinutes();
+        if (minutes < Integer.MIN_VALUE || minutes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(String.format("%s %d %s", "Продолжительность не может превышать",
+                    Integer.MAX_VALUE, "минут"));
+        }
+        return (int) minutes;
     }
 
     @Override
@@ -100,8 +139,8 @@ public class Task {
     public String toString() {
         DateTimeFormatter formatter = DateTimeFormatter.ofPattern("dd.MM.yy HH:mm");
         String startTimeToString = "";
-        if (startTime != null) {
-            startTimeToString = startTime.format(formatter);
+        if (hasStartTime()) {
+            startTimeToString = getStartTime().format(formatter);
         }
         return "model.Task{" +
                 "id='" + id + '\'' +
@@ -109,7 +148,7 @@ public class Task {
                 ", description='" + description + '\'' +
                 ", status=" + status +
                 ", startTime=" + startTimeToString +
-                ", duration=" + duration.toMinutes() + " мин" +
+                ", duration=" + durationMinutes + " мин" +
                 '}';
     }
 }
\ No newline at end of file
@@ -0,0 +1,263 @@
+package storage;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+import util.EpochMinutes;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+// Двоичный снимок: заголовок файла, затем записи
+
+public class BinaryTaskCodec {
+
+    public static final int MAGIC = 0x544B4253;
+    public static final short VERSION = 1;
+    private static final int HEADER_SIZE = 12;
+    private static final int HAS_START_TIME = 1;
+    private static final int HAS_EPIC_STATE = 2;
+    private static final int HAS_END_TIME = 4;
+
+    private BinaryTaskCodec() {
+    }
+
+    public static void write(OutputStream outputStream, Collection<? extends Task> tasks) throws IOException {
+        DataOutputStream out = new DataOutputStream(outputStream);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeShort(0);
+        out.writeInt(tasks.size());
+
+        for (Task task : tasks) {
+            writeRecord(out, task, false);
+        }
+        out.flush();
+    }
+
+    // Эпик может сохраняться вместе с агрегатами:
+
+    public static void writeRecord(DataOutputStream out, Task task, boolean withEpicState) throws IOException {
+        TaskType taskType = CsvTaskCodec.getTaskType(task);
+        Epic epic = withEpicState && task instanceof Epic ? (Epic) task : null;
+        int flags = task.hasStartTime() ? HAS_START_TIME : 0;
+        if (epic != null) {
+            flags |= epic.getEndMinute() != EpochMinutes.NONE ? HAS_EPIC_STATE | HAS_END_TIME : HAS_EPIC_STATE;
+        }
+        out.writeByte(taskType.ordinal());
+        out.writeByte(task.getTaskStatus().ordinal());
+        out.writeByte(flags);
+        writeVarLong(out, task.getId());
+        if (task instanceof Subtask subtask) {
+            writeVarLong(out, subtask.getEpicId());
+        }
+        if (task.hasStartTime()) {
+            writeVarLong(out, zigZag(task.getStartMinute()));
+        }
+        writeVarLong(out, zigZag(task.getDurationMinutes()));
+        writeString(out, task.getTitle());
+        writeString(out, task.getDescription());
+        if (epic != null) {
+            writeVarLong(out, epic.getSubtaskId().size());
+            for (Integer subtaskId : epic.getSubtaskId()) {
+                writeVarLong(out, subtaskId);
+            }
+            if (epic.getEndMinute() != EpochMinutes.NONE) {
+                writeVarLong(out, zigZag(epic.getEndMinute()));
+            }
+        }
+    }
+
+    public static boolean isBinary(File file) throws IOException {
+        try (InputStream inputStream = new FileInputStream(file)) {
+            byte[] magic = inputStream.readNBytes(4);
+            return magic.length == 4 && ((magic[0] & 0xFF) << 24 | (magic[1] & 0xFF) << 16 | (magic[2] & 0xFF) << 8
+                    | (magic[3] & 0xFF)) == MAGIC;
+        }
+    }
+
+    public static boolean isBinary(ByteBuffer buffer) {
+        return buffer.remaining() >= Integer.BYTES && buffer.getInt(buffer.position()) == MAGIC;
+    }
+
+    // Файл отображается в память целиком, строки создаются только для названий и описаний:
+
+    public static void read(File file, Consumer<Task> consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = map(channel);
+            int count = readHeader(buffer);
+            Decoder decoder = new Decoder();
+
+            for (int i = 0; i < count; i++) {
+                consumer.accept(decoder.readRecord(buffer));
+            }
+        }
+    }
+
+    public static MappedByteBuffer map(FileChannel channel) throws IOException {
+        if (channel.size() > Integer.MAX_VALUE) {
+            throw new IOException("Двоичный снимок больше 2 ГБ не поддерживается");
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+
+    // Проверяет сигнатуру и версию и возвращает число записей в снимке:
+
+    public static int readHeader(ByteBuffer buffer) throws IOException {
+        if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+            throw new IOException("Файл не является двоичным снимком задач");
+        }
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException(String.format("%s %d", "Неподдерживаемая версия двоичного снимка:", version));
+        }
+        buffer.getShort();
+        return buffer.getInt();
+    }
+
+    // Пропускает запись, не создавая объектов, — нужно для разбиения снимка на части:
+
+    public static void skipRecord(ByteBuffer buffer) {
+        int taskType = buffer.get();
+        buffer.get();
+        int flags = buffer.get();
+        readVarLong(buffer);
+        if (taskType == TaskType.SUBTASK.ordinal()) {
+            readVarLong(buffer);
+        }
+        if ((flags & HAS_START_TIME) != 0) {
+            readVarLong(buffer);
+        }
+        readVarLong(buffer);
+        for (int i = 0; i < 2; i++) {
+            long encodedLength = readVarLong(buffer);
+            if (encodedLength > 0) {
+                buffer.position(buffer.position() + (int) encodedLength - 1);
+            }
+        }
+        if ((flags & HAS_EPIC_STATE) != 0) {
+            long subtasksCount = readVarLong(buffer);
+            for (long i = 0; i < subtasksCount; i++) {
+                readVarLong(buffer);
+            }
+            if ((flags & HAS_END_TIME) != 0) {
+                readVarLong(buffer);
+            }
+        }
+    }
+
+    // Длина строки хранится со сдвигом на единицу, ноль означает null:
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            writeVarLong(out, 0);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length + 1L);
+        out.write(bytes);
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IllegalStateException("Повреждённое число в двоичном снимке");
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    // Декодер переиспользует буфер для строк, поэтому у каждого потока загрузки он свой:
+
+    public static class Decoder {
+
+        private byte[] scratch = new byte[256];
+
+        public Task readRecord(ByteBuffer buffer) {
+            TaskType taskType = TaskType.values()[buffer.get()];
+            TaskStatus status = TaskStatus.values()[buffer.get()];
+            int flags = buffer.get();
+            int id = (int) readVarLong(buffer);
+            int epicId = taskType == TaskType.SUBTASK ? (int) readVarLong(buffer) : 0;
+            long startMinute = EpochMinutes.NONE;
+            if ((flags & HAS_START_TIME) != 0) {
+                startMinute = unZigZag(readVarLong(buffer));
+            }
+            int durationMinutes = (int) unZigZag(readVarLong(buffer));
+            String title = readString(buffer);
+            String description = readString(buffer);
+
+            Task task = switch (taskType) {
+                case TASK -> new Task(title, description, null, null);
+
+                case EPIC -> new Epic(title, description);
+
+                case SUBTASK -> new Subtask(title, description, null, null, epicId);
+            };
+            task.setId(id);
+            task.setTaskStatus(status);
+            if (taskType != TaskType.EPIC || (flags & HAS_EPIC_STATE) != 0) {
+                task.setStartMinute(startMinute);
+                task.setDurationMinutes(durationMinutes);
+            }
+            if ((flags & HAS_EPIC_STATE) != 0) {
+                readEpicState((Epic) task, flags, buffer);
+            }
+            return task;
+        }
+
+        private void readEpicState(Epic epic, int flags, ByteBuffer buffer) {
+            long subtasksCount = readVarLong(buffer);
+            for (long i = 0; i < subtasksCount; i++) {
+                epic.addSubtaskId((int) readVarLong(buffer));
+            }
+            if ((flags & HAS_END_TIME) != 0) {
+                epic.setEndMinute(unZigZag(readVarLong(buffer)));
+            }
+        }
+
+        private String readString(ByteBuffer buffer) {
+            int encodedLength = (int) readVarLong(buffer);
+            if (encodedLength == 0) {
+                return null;
+            }
+            int length = encodedLength - 1;
+            if (length > scratch.length) {
+                scratch = new byte[Math.max(length, scratch.length * 2)];
+            }
+            buffer.get(scratch, 0, length);
+            return new String(scratch, 0, length, StandardCharsets.UTF_8);
+        }
+    }
+}
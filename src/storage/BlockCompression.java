@@ -0,0 +1,204 @@
+package storage;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+// Сжатый снимок: сигнатура и независимо сжатые Deflate блоки
+
+public class BlockCompression {
+
+    public static final int MAGIC = 0x544B5A31;
+    private static final int BLOCK_SIZE = 1024 * 1024;
+    private static final int BLOCK_HEADER_SIZE = 2 * Integer.BYTES;
+
+    private BlockCompression() {
+    }
+
+    public static boolean isCompressed(File file) throws IOException {
+        try (InputStream inputStream = new FileInputStream(file)) {
+            byte[] magic = inputStream.readNBytes(Integer.BYTES);
+            return magic.length == Integer.BYTES && ByteBuffer.wrap(magic).getInt() == MAGIC;
+        }
+    }
+
+    public static boolean isCompressed(ByteBuffer buffer) {
+        return buffer.remaining() >= Integer.BYTES && buffer.getInt(buffer.position()) == MAGIC;
+    }
+
+    public static BlockOutputStream compress(OutputStream outputStream) throws IOException {
+        return new BlockOutputStream(outputStream);
+    }
+
+    public static ByteBuffer decompress(ByteBuffer buffer, ForkJoinPool pool) throws IOException {
+        List<ByteBuffer> blocks = new ArrayList<>();
+        List<Integer> rawLengths = new ArrayList<>();
+        int position = buffer.position() + Integer.BYTES;
+        long rawLength = 0;
+
+        while (position < buffer.limit()) {
+            int blockRawLength = buffer.limit() - position >= BLOCK_HEADER_SIZE ? buffer.getInt(position) : -1;
+            int blockLength = blockRawLength >= 0 ? buffer.getInt(position + Integer.BYTES) : -1;
+            if (blockRawLength < 0 || blockLength < 0 || blockLength > buffer.limit() - position - BLOCK_HEADER_SIZE) {
+                throw new IOException("Повреждённый заголовок блока сжатого снимка");
+            }
+            blocks.add(buffer.slice(position + BLOCK_HEADER_SIZE, blockLength));
+            rawLengths.add(blockRawLength);
+            rawLength += blockRawLength;
+            position += BLOCK_HEADER_SIZE + blockLength;
+        }
+        if (rawLength > Integer.MAX_VALUE) {
+            throw new IOException("Сжатый снимок больше 2 ГБ в распакованном виде не поддерживается");
+        }
+
+        byte[] raw = new byte[(int) rawLength];
+        List<Callable<Void>> tasks = new ArrayList<>();
+        int offset = 0;
+        for (int i = 0; i < blocks.size(); i++) {
+            ByteBuffer block = blocks.get(i);
+            int blockOffset = offset;
+            int blockRawLength = rawLengths.get(i);
+            tasks.add(() -> {
+                Inflater inflater = new Inflater();
+                try {
+                    inflate(inflater, block, raw, blockOffset, blockRawLength);
+                } finally {
+                    inflater.end();
+                }
+                return null;
+            });
+            offset += blockRawLength;
+        }
+        run(tasks, pool);
+        return ByteBuffer.wrap(raw);
+    }
+
+    // Сжимает буфер целиком; выходной буфер растёт по мере надобности и возвращается заполненным
+
+    public static ByteBuffer deflate(Deflater deflater, ByteBuffer input, ByteBuffer output) {
+        deflater.reset();
+        deflater.setInput(input);
+        deflater.finish();
+        while (!deflater.finished()) {
+            if (!output.hasRemaining()) {
+                ByteBuffer grown = ByteBuffer.allocate(Math.max(output.capacity() * 2, 1024));
+                output.flip();
+                grown.put(output);
+                output = grown;
+            }
+            deflater.deflate(output);
+        }
+        return output;
+    }
+
+    public static void inflate(Inflater inflater, ByteBuffer input, byte[] output, int offset, int length)
+            throws IOException {
+        inflater.reset();
+        inflater.setInput(input);
+        try {
+            int done = 0;
+            while (done < length && !inflater.finished()) {
+                int count = inflater.inflate(output, offset + done, length - done);
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                done += count;
+            }
+            if (done != length || !inflater.finished()) {
+                throw new IOException("Повреждённый сжатый блок");
+            }
+        } catch (DataFormatException e) {
+            throw new IOException("Повреждённый сжатый блок", e);
+        }
+    }
+
+    private static void run(List<Callable<Void>> tasks, ForkJoinPool pool) throws IOException {
+        try {
+            if (tasks.size() == 1) {
+                tasks.getFirst().call();
+                return;
+            }
+            for (Future<Void> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Распаковка снимка была прервана", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException exception) {
+                throw exception;
+            }
+            throw new IOException(e.getCause());
+        } catch (IOException | RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new IOException(e);
+        }
+    }
+
+    // finish дописывает последний блок, не закрывая файл
+
+    public static class BlockOutputStream extends OutputStream {
+
+        private final OutputStream outputStream;
+        private final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        private final ByteBuffer block = ByteBuffer.allocate(BLOCK_SIZE);
+        private ByteBuffer compressed = ByteBuffer.allocate(BLOCK_SIZE / 2);
+
+        private BlockOutputStream(OutputStream outputStream) throws IOException {
+            this.outputStream = outputStream;
+            outputStream.write(ByteBuffer.allocate(Integer.BYTES).putInt(MAGIC).array());
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (!block.hasRemaining()) {
+                writeBlock();
+            }
+            block.put((byte) b);
+        }
+
+        @Override
+        public void write(byte[] bytes, int offset, int length) throws IOException {
+            while (length > 0) {
+                if (!block.hasRemaining()) {
+                    writeBlock();
+                }
+                int count = Math.min(length, block.remaining());
+                block.put(bytes, offset, count);
+                offset += count;
+                length -= count;
+            }
+        }
+
+        public void finish() throws IOException {
+            if (block.position() > 0) {
+                writeBlock();
+            }
+            outputStream.flush();
+            deflater.end();
+        }
+
+        private void writeBlock() throws IOException {
+            int rawLength = block.position();
+            block.flip();
+            compressed.clear().position(BLOCK_HEADER_SIZE);
+            compressed = deflate(deflater, block, compressed);
+            compressed.putInt(0, rawLength).putInt(Integer.BYTES, compressed.position() - BLOCK_HEADER_SIZE);
+            outputStream.write(compressed.array(), 0, compressed.position());
+            block.clear();
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package storage;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Ограниченная очередь изменений между менеджером и потоком записи
+
+public class ChangeQueue {
+
+    private final Object lock = new Object();
+    private final int capacity;
+    private final ArrayDeque<Change> changes = new ArrayDeque<>();
+    private final Map<Integer, Change> latestByKey = new HashMap<>();
+    private int reservedSlots = 0;
+    private long lastBarrierSequence = 0;
+    private long persistedSequence = 0;
+    private long inFlightSinceNanos = 0;
+    private long coalescedChanges = 0;
+    private long rejectedChanges = 0;
+    private IOException failure;
+    private boolean isClosed = false;
+
+    public ChangeQueue(int capacity) {
+        this.capacity = capacity;
+    }
+
+    // Ждёт свободного места и занимает его
+
+    public void reserve() throws InterruptedIOException {
+        synchronized (lock) {
+            while (changes.size() + reservedSlots >= capacity) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Ожидание места в очереди записи было прервано");
+                }
+            }
+            reservedSlots++;
+        }
+    }
+
+    public boolean tryReserve() {
+        synchronized (lock) {
+            if (changes.size() + reservedSlots >= capacity) {
+                rejectedChanges++;
+                return false;
+            }
+            reservedSlots++;
+            return true;
+        }
+    }
+
+    // Изменение объекта, которое ещё ждёт записи, можно слить с ним без нового места в очереди
+
+    public boolean canCoalesce(int key) {
+        synchronized (lock) {
+            return isCoalescible(latestByKey.get(key));
+        }
+    }
+
+    public void releaseReservation() {
+        synchronized (lock) {
+            reservedSlots--;
+            lock.notifyAll();
+        }
+    }
+
+    // Записи с ключом null не сливаются:
+
+    public void put(Integer key, String record, long sequence, boolean isReserved) {
+        synchronized (lock) {
+            if (isReserved) {
+                reservedSlots--;
+            }
+            Change latest = key != null ? latestByKey.get(key) : null;
+            if (!isReserved && isCoalescible(latest)) {
+                latest.record = record;
+                latest.sequence = sequence;
+                coalescedChanges++;
+                return;
+            }
+            Change change = new Change(key, record, sequence);
+            changes.addLast(change);
+            if (key != null) {
+                latestByKey.put(key, change);
+            } else {
+                lastBarrierSequence = sequence;
+            }
+            lock.notifyAll();
+        }
+    }
+
+    // Забирает все накопленные изменения; пустой список означает, что очередь закрыта
+
+    public List<Change> take() throws InterruptedIOException {
+        synchronized (lock) {
+            while (changes.isEmpty() && !isClosed) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Ожидание изменений было прервано");
+                }
+            }
+            List<Change> batch = new ArrayList<>(changes);
+            if (!batch.isEmpty()) {
+                inFlightSinceNanos = batch.getFirst().enqueuedNanos;
+            }
+            changes.clear();
+            latestByKey.clear();
+            lock.notifyAll();
+            return batch;
+        }
+    }
+
+    public void markPersisted(long sequence) {
+        synchronized (lock) {
+            persistedSequence = Math.max(persistedSequence, sequence);
+            inFlightSinceNanos = 0;
+            failure = null;
+            lock.notifyAll();
+        }
+    }
+
+    public void markFailed(IOException e) {
+        synchronized (lock) {
+            failure = e;
+            lock.notifyAll();
+        }
+    }
+
+    public void awaitPersisted(long sequence) throws IOException {
+        synchronized (lock) {
+            while (persistedSequence < sequence) {
+                if (failure != null) {
+                    throw failure;
+                }
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Ожидание записи изменений было прервано");
+                }
+            }
+        }
+    }
+
+    public void close() {
+        synchronized (lock) {
+            isClosed = true;
+            lock.notifyAll();
+        }
+    }
+
+    public boolean isClosed() {
+        synchronized (lock) {
+            return isClosed;
+        }
+    }
+
+    // Метрики:
+
+    public int getDepth() {
+        synchronized (lock) {
+            return changes.size();
+        }
+    }
+
+    // Возраст самого старого изменения, которое ещё не записано, включая пакет в работе у потока записи
+
+    public long getLagMillis() {
+        synchronized (lock) {
+            long oldestNanos = inFlightSinceNanos != 0 ? inFlightSinceNanos
+                    : changes.isEmpty() ? 0 : changes.getFirst().enqueuedNanos;
+            return oldestNanos == 0 ? 0 : (System.nanoTime() - oldestNanos) / 1_000_000;
+        }
+    }
+
+    public long getCoalescedChanges() {
+        synchronized (lock) {
+            return coalescedChanges;
+        }
+    }
+
+    public long getRejectedChanges() {
+        synchronized (lock) {
+            return rejectedChanges;
+        }
+    }
+
+    private boolean isCoalescible(Change change) {
+        return change != null && change.insertedSequence > lastBarrierSequence;
+    }
+
+    public static class Change {
+
+        private final Integer key;
+        private final long insertedSequence;
+        private final long enqueuedNanos = System.nanoTime();
+        private String record;
+        private long sequence;
+
+        private Change(Integer key, String record, long sequence) {
+            this.key = key;
+            this.record = record;
+            this.sequence = sequence;
+            this.insertedSequence = sequence;
+        }
+
+        public Integer getKey() {
+            return key;
+        }
+
+        public String getRecord() {
+            return record;
+        }
+
+        public long getSequence() {
+            return sequence;
+        }
+    }
+}
@@ -0,0 +1,398 @@
+package storage;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+import util.EpochMinutes;
+import util.IntHashMap;
+import util.IntList;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+// Колоночное хранилище задач
+
+public class ColumnarTaskStore {
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final long NO_STRING = -1;
+    private static final int MAX_SLOTS = Integer.MAX_VALUE - 8;
+    private byte[] types = new byte[INITIAL_CAPACITY];
+    private byte[] statuses = new byte[INITIAL_CAPACITY];
+    private long[] startMinutes = new long[INITIAL_CAPACITY];
+    private int[] durationMinutes = new int[INITIAL_CAPACITY];
+    private long[] endMinutes = new long[INITIAL_CAPACITY];
+    private int[] epicIds = new int[INITIAL_CAPACITY];
+    private long[] titles = new long[INITIAL_CAPACITY];
+    private long[] descriptions = new long[INITIAL_CAPACITY];
+    private IntList[] subtaskIds = new IntList[INITIAL_CAPACITY];
+    private final int[] counts = new int[TaskType.values().length];
+    private int lastId = 0;
+    private byte[] strings = new byte[16 * 1024];
+    private int stringsLength = 0;
+    private long garbageBytes = 0;
+    private final IntHashMap<TaskReference> identityMap = new IntHashMap<>();
+    private final ReferenceQueue<Task> collectedTasks = new ReferenceQueue<>();
+
+    public <T extends Task> IdOrderedMap<T> view(TaskType taskType, Class<T> taskClass) {
+        return new TaskView<>(taskType, taskClass);
+    }
+
+    public int size(TaskType taskType) {
+        return counts[taskType.ordinal()];
+    }
+
+    public long getStringBytes() {
+        return stringsLength;
+    }
+
+    public long getGarbageBytes() {
+        return garbageBytes;
+    }
+
+    // Проходы по колонкам: статусы и время читаются из соседних ячеек массивов, без обращения к объектам
+
+    public int countByStatus(TaskType taskType, TaskStatus status) {
+        byte type = (byte) (taskType.ordinal() + 1);
+        byte statusCode = (byte) status.ordinal();
+        int count = 0;
+        for (int id = 0; id <= lastId; id++) {
+            if (types[id] == type && statuses[id] == statusCode) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    public IntList findStartingBetween(TaskType taskType, long fromMinute, long toMinute) {
+        byte type = (byte) (taskType.ordinal() + 1);
+        IntList ids = new IntList();
+        for (int id = 0; id <= lastId; id++) {
+            long startMinute = startMinutes[id];
+            if (types[id] == type && startMinute != EpochMinutes.NONE && startMinute >= fromMinute
+                    && startMinute <= toMinute) {
+                ids.addInt(id);
+            }
+        }
+        return ids;
+    }
+
+    private Task get(int id, TaskType taskType) {
+        if (id < 0 || id > lastId || types[id] != taskType.ordinal() + 1) {
+            return null;
+        }
+        expungeCollected();
+        TaskReference reference = identityMap.get(id);
+        Task task = reference != null ? reference.get() : null;
+        if (task == null) {
+            task = materialize(id, taskType);
+            identityMap.put(id, new TaskReference(task, collectedTasks));
+        }
+        return task;
+    }
+
+    private Task materialize(int id, TaskType taskType) {
+        String title = readString(titles[id]);
+        String description = readString(descriptions[id]);
+        Task task = switch (taskType) {
+            case TASK -> new Task(title, description, null, null);
+
+            case EPIC -> {
+                Epic epic = new Epic(title, description);
+                IntList epicSubtaskIds = subtaskIds[id];
+                for (int i = 0; i < epicSubtaskIds.size(); i++) {
+                    epic.addSubtaskId(epicSubtaskIds.getInt(i));
+                }
+                epic.setEndMinute(endMinutes[id]);
+                yield epic;
+            }
+
+            case SUBTASK -> new Subtask(title, description, null, null, epicIds[id]);
+        };
+        task.setId(id);
+        task.setTaskStatus(TaskStatus.values()[statuses[id]]);
+        task.setStartMinute(startMinutes[id]);
+        task.setDurationMinutes(durationMinutes[id]);
+        return task;
+    }
+
+    private void put(Task task) {
+        int id = task.getId();
+        if (id < 0 || id >= MAX_SLOTS) {
+            throw new IllegalStateException(String.format("%s %d", "Недопустимый идентификатор задачи:", id));
+        }
+        ensureCapacity(id);
+        TaskType taskType = CsvTaskCodec.getTaskType(task);
+        if (types[id] != 0) {
+            counts[types[id] - 1]--;
+        } else {
+            titles[id] = NO_STRING;
+            descriptions[id] = NO_STRING;
+        }
+        types[id] = (byte) (taskType.ordinal() + 1);
+        counts[taskType.ordinal()]++;
+        statuses[id] = (byte) task.getTaskStatus().ordinal();
+        startMinutes[id] = task.getStartMinute();
+        durationMinutes[id] = task.getDurationMinutes();
+        epicIds[id] = task instanceof Subtask subtask ? subtask.getEpicId() : 0;
+        if (task instanceof Epic epic) {
+            endMinutes[id] = epic.getEndMinute();
+            IntList epicSubtaskIds = new IntList(Math.max(epic.getSubtaskId().size(), 1));
+            for (Integer subtaskId : epic.getSubtaskId()) {
+                epicSubtaskIds.addInt(subtaskId);
+            }
+            subtaskIds[id] = epicSubtaskIds;
+        } else {
+            endMinutes[id] = EpochMinutes.NONE;
+            subtaskIds[id] = null;
+        }
+        titles[id] = replaceString(titles[id], task.getTitle());
+        descriptions[id] = replaceString(descriptions[id], task.getDescription());
+        lastId = Math.max(lastId, id);
+        expungeCollected();
+        identityMap.put(id, new TaskReference(task, collectedTasks));
+        compactStringsIfNeeded();
+    }
+
+    private void remove(int id) {
+        if (id < 0 || id > lastId || types[id] == 0) {
+            return;
+        }
+        counts[types[id] - 1]--;
+        types[id] = 0;
+        subtaskIds[id] = null;
+        releaseString(titles[id]);
+        releaseString(descriptions[id]);
+        titles[id] = NO_STRING;
+        descriptions[id] = NO_STRING;
+        identityMap.remove(id);
+        compactStringsIfNeeded();
+    }
+
+    private void ensureCapacity(int id) {
+        if (id < types.length) {
+            return;
+        }
+        int capacity = Math.max(types.length * 2, id + 1);
+        types = Arrays.copyOf(types, capacity);
+        statuses = Arrays.copyOf(statuses, capacity);
+        startMinutes = Arrays.copyOf(startMinutes, capacity);
+        durationMinutes = Arrays.copyOf(durationMinutes, capacity);
+        endMinutes = Arrays.copyOf(endMinutes, capacity);
+        epicIds = Arrays.copyOf(epicIds, capacity);
+        titles = Arrays.copyOf(titles, capacity);
+        descriptions = Arrays.copyOf(descriptions, capacity);
+        subtaskIds = Arrays.copyOf(subtaskIds, capacity);
+    }
+
+    // Арена строк:
+
+    private long replaceString(long reference, String value) {
+        if (value == null) {
+            releaseString(reference);
+            return NO_STRING;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (reference != NO_STRING && Arrays.equals(strings, offsetOf(reference), offsetOf(reference)
+                + lengthOf(reference), bytes, 0, bytes.length)) {
+            return reference;
+        }
+        releaseString(reference);
+        return appendString(bytes);
+    }
+
+    private long appendString(byte[] bytes) {
+        if (stringsLength + bytes.length > strings.length) {
+            strings = Arrays.copyOf(strings, Math.max(strings.length * 2, stringsLength + bytes.length));
+        }
+        System.arraycopy(bytes, 0, strings, stringsLength, bytes.length);
+        long reference = (long) stringsLength << 32 | bytes.length;
+        stringsLength += bytes.length;
+        return reference;
+    }
+
+    private void releaseString(long reference) {
+        if (reference != NO_STRING) {
+            garbageBytes += lengthOf(reference);
+        }
+    }
+
+    private String readString(long reference) {
+        if (reference == NO_STRING) {
+            return null;
+        }
+        return new String(strings, offsetOf(reference), lengthOf(reference), StandardCharsets.UTF_8);
+    }
+
+    private void compactStringsIfNeeded() {
+        if (garbageBytes < 64 * 1024 || garbageBytes * 2 < stringsLength) {
+            return;
+        }
+        byte[] oldStrings = strings;
+        strings = new byte[Math.max(16 * 1024, (int) (stringsLength - garbageBytes) * 2)];
+        stringsLength = 0;
+        for (int id = 0; id <= lastId; id++) {
+            if (types[id] != 0) {
+                titles[id] = moveString(oldStrings, titles[id]);
+                descriptions[id] = moveString(oldStrings, descriptions[id]);
+            }
+        }
+        garbageBytes = 0;
+    }
+
+    private long moveString(byte[] oldStrings, long reference) {
+        if (reference == NO_STRING) {
+            return NO_STRING;
+        }
+        return appendString(Arrays.copyOfRange(oldStrings, offsetOf(reference),
+                offsetOf(reference) + lengthOf(reference)));
+    }
+
+    private static int offsetOf(long reference) {
+        return (int) (reference >>> 32);
+    }
+
+    private static int lengthOf(long reference) {
+        return (int) reference;
+    }
+
+    private void expungeCollected() {
+        TaskReference reference;
+        while ((reference = (TaskReference) collectedTasks.poll()) != null) {
+            if (identityMap.get(reference.id) == reference) {
+                identityMap.remove(reference.id);
+            }
+        }
+    }
+
+    private static class TaskReference extends WeakReference<Task> {
+
+        private final int id;
+
+        TaskReference(Task task, ReferenceQueue<Task> queue) {
+            super(task, queue);
+            this.id = task.getId();
+        }
+    }
+
+    private class TaskView<T extends Task> extends AbstractMap<Integer, T> implements IdOrderedMap<T> {
+
+        private final TaskType taskType;
+        private final Class<T> taskClass;
+
+        TaskView(TaskType taskType, Class<T> taskClass) {
+            this.taskType = taskType;
+            this.taskClass = taskClass;
+        }
+
+        @Override
+        public T get(Object key) {
+            return key instanceof Integer id ? taskClass.cast(ColumnarTaskStore.this.get(id, taskType)) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Integer id && id >= 0 && id <= lastId && types[id] == taskType.ordinal() + 1;
+        }
+
+        @Override
+        public T put(Integer key, T value) {
+            T previous = get(key);
+            ColumnarTaskStore.this.put(value);
+            return previous;
+        }
+
+        @Override
+        public T remove(Object key) {
+            T previous = get(key);
+            if (previous != null) {
+                ColumnarTaskStore.this.remove(previous.getId());
+            }
+            return previous;
+        }
+
+        @Override
+        public void clear() {
+            byte type = (byte) (taskType.ordinal() + 1);
+            for (int id = 0; id <= lastId; id++) {
+                if (types[id] == type) {
+                    ColumnarTaskStore.this.remove(id);
+                }
+            }
+        }
+
+        @Override
+        public int size() {
+            return counts[taskType.ordinal()];
+        }
+
+        @Override
+        public int nextId(int afterId, TaskStatus status) {
+            byte type = (byte) (taskType.ordinal() + 1);
+            for (int id = Math.max(afterId + 1, 0); id <= lastId; id++) {
+                if (types[id] == type && (status == null || statuses[id] == status.ordinal())) {
+                    return id;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public Set<Entry<Integer, T>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Integer, T>> iterator() {
+                    return new TaskIterator();
+                }
+
+                @Override
+                public int size() {
+                    return TaskView.this.size();
+                }
+            };
+        }
+
+        // Обход идёт по возрастанию идентификаторов, как и у HashMap с небольшими целыми ключами
+
+        private class TaskIterator implements Iterator<Entry<Integer, T>> {
+
+            private final byte type = (byte) (taskType.ordinal() + 1);
+            private int nextId = 0;
+            private int currentId = -1;
+
+            @Override
+            public boolean hasNext() {
+                while (nextId <= lastId && types[nextId] != type) {
+                    nextId++;
+                }
+                return nextId <= lastId;
+            }
+
+            @Override
+            public Entry<Integer, T> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                currentId = nextId++;
+                return new SimpleImmutableEntry<>(currentId, taskClass.cast(ColumnarTaskStore.this.get(currentId, taskType)));
+            }
+
+            @Override
+            public void remove() {
+                if (currentId < 0) {
+                    throw new IllegalStateException();
+                }
+                ColumnarTaskStore.this.remove(currentId);
+                currentId = -1;
+            }
+        }
+    }
+}
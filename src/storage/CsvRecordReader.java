@@ -0,0 +1,212 @@
+package storage;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+// Потоковое чтение CSV
+
+public class CsvRecordReader implements Closeable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private final Reader reader;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position = 0;
+    private int limit = 0;
+    private char[] record = new char[256];
+    private int recordLength = 0;
+    private int[] fieldStarts = new int[16];
+    private int[] fieldEnds = new int[16];
+    private int fieldCount = 0;
+
+    public CsvRecordReader(Reader reader) {
+        this.reader = reader;
+    }
+
+    public boolean next() throws IOException {
+        while (readRecord()) {
+            if (fieldCount > 1 || !isEmpty(0)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int getFieldCount() {
+        return fieldCount;
+    }
+
+    public String getString(int index) {
+        checkIndex(index);
+        return new String(record, fieldStarts[index], fieldEnds[index] - fieldStarts[index]);
+    }
+
+    public boolean isEmpty(int index) {
+        checkIndex(index);
+        for (int i = fieldStarts[index]; i < fieldEnds[index]; i++) {
+            if (!Character.isWhitespace(record[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public boolean fieldEquals(int index, String value) {
+        checkIndex(index);
+        int length = fieldEnds[index] - fieldStarts[index];
+        if (length != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (record[fieldStarts[index] + i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getInt(int index) {
+        checkIndex(index);
+        int start = fieldStarts[index];
+        int end = fieldEnds[index];
+        boolean isNegative = start < end && record[start] == '-';
+        if (isNegative) {
+            start++;
+        }
+        if (start == end) {
+            throw new NumberFormatException(String.format("%s %s", "Введено неверное значение:", getString(index)));
+        }
+        long value = 0;
+        for (int i = start; i < end; i++) {
+            value = value * 10 + digit(record[i], index);
+            if (value > Integer.MAX_VALUE + 1L) {
+                throw new NumberFormatException(String.format("%s %s", "Введено неверное значение:",
+                        getString(index)));
+            }
+        }
+        value = isNegative ? -value : value;
+        if (value > Integer.MAX_VALUE) {
+            throw new NumberFormatException(String.format("%s %s", "Введено неверное значение:", getString(index)));
+        }
+        return (int) value;
+    }
+
+    public <E extends Enum<E>> E getEnum(int index, E[] values) {
+        for (E value : values) {
+            if (fieldEquals(index, value.name())) {
+                return value;
+            }
+        }
+        throw new IllegalStateException(String.format("%s %s", "Введено неверное значение:", getString(index)));
+    }
+
+    // Формат даты фиксирован: dd.MM.yy HH:mm
+
+    public LocalDateTime getDateTime(int index) {
+        if (isEmpty(index)) {
+            return null;
+        }
+        int start = fieldStarts[index];
+        if (fieldEnds[index] - start != 14 || record[start + 2] != '.' || record[start + 5] != '.'
+                || record[start + 8] != ' ' || record[start + 11] != ':') {
+            throw new IllegalStateException(String.format("%s %s", "Введено неверное значение:", getString(index)));
+        }
+        int day = twoDigits(start, index);
+        int month = twoDigits(start + 3, index);
+        int year = 2000 + twoDigits(start + 6, index);
+        int hour = twoDigits(start + 9, index);
+        int minute = twoDigits(start + 12, index);
+        return LocalDateTime.of(year, month, day, hour, minute);
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private boolean readRecord() throws IOException {
+        recordLength = 0;
+        fieldCount = 0;
+        int c = read();
+        if (c == -1) {
+            return false;
+        }
+        boolean isInQuotes = false;
+        startField();
+
+        while (c != -1) {
+            if (isInQuotes) {
+                if (c == '"') {
+                    c = read();
+                    if (c != '"') {
+                        isInQuotes = false;
+                        continue;
+                    }
+                }
+                append((char) c);
+            } else if (c == '"' && recordLength == fieldStarts[fieldCount]) {
+                isInQuotes = true;
+            } else if (c == ',') {
+                endField();
+                startField();
+            } else if (c == '\n') {
+                break;
+            } else if (c != '\r') {
+                append((char) c);
+            }
+            c = read();
+        }
+        endField();
+        return true;
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+
+    private void append(char c) {
+        if (recordLength == record.length) {
+            record = Arrays.copyOf(record, record.length * 2);
+        }
+        record[recordLength++] = c;
+    }
+
+    private void startField() {
+        if (fieldCount == fieldStarts.length) {
+            fieldStarts = Arrays.copyOf(fieldStarts, fieldCount * 2);
+            fieldEnds = Arrays.copyOf(fieldEnds, fieldCount * 2);
+        }
+        fieldStarts[fieldCount] = recordLength;
+    }
+
+    private void endField() {
+        fieldEnds[fieldCount++] = recordLength;
+    }
+
+    private void checkIndex(int index) {
+        if (index >= fieldCount) {
+            throw new IllegalStateException(String.format("%s %d", "В записи отсутствует поле с номером", index));
+        }
+    }
+
+    private int twoDigits(int offset, int index) {
+        return digit(record[offset], index) * 10 + digit(record[offset + 1], index);
+    }
+
+    private int digit(char c, int index) {
+        if (c < '0' || c > '9') {
+            throw new NumberFormatException(String.format("%s %s", "Введено неверное значение:", getString(index)));
+        }
+        return c - '0';
+    }
+}
@@ -0,0 +1,149 @@
+package storage;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.function.Consumer;
+
+public class CsvTaskCodec {
+
+    public static final String HEADER = "id,type,title,status,description,startTime,duration,epic";
+
+    private CsvTaskCodec() {
+    }
+
+    public static void write(Appendable out, Task task) throws IOException {
+        TaskType taskType = getTaskType(task);
+        writeLong(out, task.getId());
+        out.append(',');
+        out.append(taskType.name()).append(',');
+        writeField(out, task.getTitle());
+        out.append(',');
+        out.append(String.valueOf(task.getTaskStatus())).append(',');
+        writeField(out, task.getDescription());
+        out.append(',');
+        writeDateTime(out, task.getStartTime());
+        out.append(',');
+        writeLong(out, task.getDuration().toMinutes());
+        if (task instanceof Subtask subtask) {
+            out.append(',');
+            writeLong(out, subtask.getEpicId());
+        }
+    }
+
+    public static void write(Appendable out, Collection<? extends Task> tasks) throws IOException {
+        out.append(HEADER);
+
+        for (Task task : tasks) {
+            out.append('\n');
+            write(out, task);
+        }
+    }
+
+    public static void read(File file, Consumer<Task> consumer) throws IOException {
+        try (CsvRecordReader reader = new CsvRecordReader(new FileReader(file, StandardCharsets.UTF_8))) {
+            while (reader.next()) {
+                if (reader.fieldEquals(0, "id")) {
+                    continue;
+                }
+                consumer.accept(read(reader, 0));
+            }
+        }
+    }
+
+    public static Task read(CsvRecordReader reader, int offset) {
+        int id = reader.getInt(offset);
+        TaskType taskType = reader.getEnum(offset + 1, TaskType.values());
+        String title = reader.getString(offset + 2);
+        TaskStatus status = reader.getEnum(offset + 3, TaskStatus.values());
+        String description = reader.getString(offset + 4);
+        LocalDateTime startTime = reader.getDateTime(offset + 5);
+        Duration duration = Duration.ofMinutes(reader.getInt(offset + 6));
+
+        Task task = switch (taskType) {
+            case TASK -> new Task(title, description, startTime, duration);
+
+            case EPIC -> new Epic(title, description);
+
+            case SUBTASK -> new Subtask(title, description, startTime, duration, reader.getInt(offset + 7));
+        };
+        task.setId(id);
+        task.setTaskStatus(status);
+        return task;
+    }
+
+    public static TaskType getTaskType(Task task) {
+        if (task instanceof Subtask) {
+            return TaskType.SUBTASK;
+        } else if (task instanceof Epic) {
+            return TaskType.EPIC;
+        }
+        return TaskType.TASK;
+    }
+
+    // Поля с запятыми, кавычками или переводами строк берутся в кавычки, кавычки внутри удваиваются:
+
+    static void writeField(Appendable out, String value) throws IOException {
+        String text = String.valueOf(value);
+        boolean isQuoted = false;
+        for (int i = 0; i < text.length() && !isQuoted; i++) {
+            char c = text.charAt(i);
+            isQuoted = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!isQuoted) {
+            out.append(text);
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"') {
+                out.append('"');
+            }
+            out.append(c);
+        }
+        out.append('"');
+    }
+
+    static void writeDateTime(Appendable out, LocalDateTime dateTime) throws IOException {
+        if (dateTime == null) {
+            return;
+        }
+        writeTwoDigits(out, dateTime.getDayOfMonth());
+        out.append('.');
+        writeTwoDigits(out, dateTime.getMonthValue());
+        out.append('.');
+        writeTwoDigits(out, dateTime.getYear() % 100);
+        out.append(' ');
+        writeTwoDigits(out, dateTime.getHour());
+        out.append(':');
+        writeTwoDigits(out, dateTime.getMinute());
+    }
+
+    static void writeLong(Appendable out, long value) throws IOException {
+        if (value < 0) {
+            out.append('-');
+            value = -value;
+        }
+        long divisor = 1;
+        while (value / divisor >= 10) {
+            divisor *= 10;
+        }
+        for (; divisor > 0; divisor /= 10) {
+            out.append((char) ('0' + value / divisor % 10));
+        }
+    }
+
+    private static void writeTwoDigits(Appendable out, int value) throws IOException {
+        out.append((char) ('0' + value / 10)).append((char) ('0' + value % 10));
+    }
+}
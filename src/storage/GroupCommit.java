@@ -0,0 +1,60 @@
+package storage;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+
+// Групповая фиксация: один fsync на все накопленные изменения
+
+public class GroupCommit {
+
+    private final Object lock = new Object();
+    private final Committer committer;
+    private long committedSequence = 0;
+    private boolean isCommitting = false;
+
+    public GroupCommit(Committer committer) {
+        this.committer = committer;
+    }
+
+    // Возвращается, когда изменение с этим номером уже на диске:
+
+    public void await(long sequence) throws IOException {
+        while (true) {
+            synchronized (lock) {
+                while (isCommitting && committedSequence < sequence) {
+                    try {
+                        lock.wait();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        throw new InterruptedIOException("Ожидание записи на диск было прервано");
+                    }
+                }
+                if (committedSequence >= sequence) {
+                    return;
+                }
+                isCommitting = true;
+            }
+            long committed = 0;
+            try {
+                committed = committer.commit();
+            } finally {
+                synchronized (lock) {
+                    committedSequence = Math.max(committedSequence, committed);
+                    isCommitting = false;
+                    lock.notifyAll();
+                }
+            }
+        }
+    }
+
+    public long getCommittedSequence() {
+        synchronized (lock) {
+            return committedSequence;
+        }
+    }
+
+    @FunctionalInterface
+    public interface Committer {
+        long commit() throws IOException;
+    }
+}
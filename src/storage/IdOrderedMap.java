@@ -0,0 +1,17 @@
+package storage;
+
+import model.TaskStatus;
+import java.util.Map;
+
+// Представление хранилища, которое само обходит задачи по идентификатору
+
+public interface IdOrderedMap<V> extends Map<Integer, V> {
+
+    // Наименьший идентификатор больше afterId или -1, если таких нет
+    default int nextId(int afterId) {
+        return nextId(afterId, null);
+    }
+
+    // То же среди задач с этим статусом; null — статус любой
+    int nextId(int afterId, TaskStatus status);
+}
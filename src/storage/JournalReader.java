@@ -0,0 +1,224 @@
+package storage;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.zip.CRC32C;
+import java.util.zip.Inflater;
+
+// Чтение сегмента журнала до первого повреждённого кадра
+
+public class JournalReader extends InputStream {
+
+    private static final int MAX_FRAME_LENGTH = 64 * 1024 * 1024;
+    private final DataInputStream input;
+    private final long fileLength;
+    private final int magic;
+    private final CRC32C crc = new CRC32C();
+    private final Inflater inflater;
+    private byte[] frame = new byte[1024];
+    private byte[] batch = new byte[0];
+    private int batchPosition = 0;
+    private int batchLimit = 0;
+    private byte[] record;
+    private int recordPosition;
+    private int recordEnd;
+    private boolean hasRecord = false;
+    private long validLength;
+    private long droppedRecords = 0;
+    private boolean isFinished = false;
+
+    public JournalReader(File file) throws IOException {
+        this.input = new DataInputStream(new BufferedInputStream(new FileInputStream(file), 64 * 1024));
+        this.fileLength = file.length();
+        this.input.mark(Integer.BYTES);
+        int signature = fileLength >= Integer.BYTES ? input.readInt() : 0;
+        if (signature == TaskJournal.MAGIC || signature == TaskJournal.COMPRESSED_MAGIC) {
+            this.magic = signature;
+            this.validLength = Integer.BYTES;
+        } else {
+            this.magic = 0;
+            this.input.reset();
+            this.validLength = fileLength;
+        }
+        this.inflater = magic == TaskJournal.COMPRESSED_MAGIC ? new Inflater() : null;
+    }
+
+    // Длина проверенной части сегмента: по ней обрезается повреждённый хвост
+
+    public long getValidLength() {
+        return validLength;
+    }
+
+    public long getDroppedRecords() {
+        return droppedRecords;
+    }
+
+    public boolean isCorrupted() {
+        return validLength < fileLength;
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (magic == 0) {
+            return input.read();
+        }
+        if (!hasRecord && !nextRecord()) {
+            return -1;
+        }
+        if (recordPosition < recordEnd) {
+            return record[recordPosition++] & 0xFF;
+        }
+        hasRecord = false;
+        return '\n';
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        if (magic == 0) {
+            return input.read(buffer, offset, length);
+        }
+        if (length == 0) {
+            return 0;
+        }
+        if (!hasRecord && !nextRecord()) {
+            return -1;
+        }
+        if (recordPosition == recordEnd) {
+            hasRecord = false;
+            buffer[offset] = '\n';
+            return 1;
+        }
+        int count = Math.min(length, recordEnd - recordPosition);
+        System.arraycopy(record, recordPosition, buffer, offset, count);
+        recordPosition += count;
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (inflater != null) {
+            inflater.end();
+        }
+        input.close();
+    }
+
+    private boolean nextRecord() throws IOException {
+        if (inflater == null) {
+            int length = nextFrame();
+            if (length < 0) {
+                return false;
+            }
+            setRecord(frame, 0, length);
+            return true;
+        }
+        while (batchPosition == batchLimit) {
+            if (!nextBatch()) {
+                return false;
+            }
+        }
+        ByteBuffer header = ByteBuffer.wrap(batch, batchPosition, TaskJournal.FRAME_HEADER_SIZE);
+        int length = header.getInt();
+        int checksum = header.getInt();
+        int start = batchPosition + TaskJournal.FRAME_HEADER_SIZE;
+        if (length < 0 || length > batchLimit - start || checksum(batch, start, length) != checksum) {
+            throw new IOException("Повреждённая запись внутри сжатого пакета журнала");
+        }
+        batchPosition = start + length;
+        setRecord(batch, start, length);
+        return true;
+    }
+
+    private boolean nextBatch() throws IOException {
+        int length = nextFrame();
+        if (length < Integer.BYTES) {
+            return false;
+        }
+        int rawLength = ByteBuffer.wrap(frame).getInt(0);
+        if (rawLength < 0 || rawLength > MAX_FRAME_LENGTH) {
+            throw new IOException("Повреждённый сжатый пакет журнала");
+        }
+        if (rawLength > batch.length) {
+            batch = new byte[Math.max(rawLength, batch.length * 2)];
+        }
+        BlockCompression.inflate(inflater, ByteBuffer.wrap(frame, Integer.BYTES, length - Integer.BYTES), batch, 0,
+                rawLength);
+        batchPosition = 0;
+        batchLimit = rawLength;
+        return true;
+    }
+
+    private void setRecord(byte[] bytes, int start, int length) {
+        record = bytes;
+        recordPosition = start;
+        recordEnd = start + length;
+        hasRecord = true;
+    }
+
+    // Читает следующий кадр верхнего уровня в frame и возвращает его длину или -1 в конце проверенной части
+
+    private int nextFrame() throws IOException {
+        if (isFinished) {
+            return -1;
+        }
+        long remaining = fileLength - validLength;
+        if (remaining == 0) {
+            isFinished = true;
+            return -1;
+        }
+        if (remaining >= TaskJournal.FRAME_HEADER_SIZE) {
+            int length = input.readInt();
+            int checksum = input.readInt();
+            if (length >= 0 && length <= MAX_FRAME_LENGTH && length <= remaining - TaskJournal.FRAME_HEADER_SIZE) {
+                if (length > frame.length) {
+                    frame = new byte[Math.max(length, frame.length * 2)];
+                }
+                input.readFully(frame, 0, length);
+                if (checksum(frame, 0, length) == checksum) {
+                    validLength += TaskJournal.FRAME_HEADER_SIZE + length;
+                    return length;
+                }
+                countDroppedRecords(length);
+                return -1;
+            }
+        }
+        countDroppedRecords(-1);
+        return -1;
+    }
+
+    private int checksum(byte[] bytes, int offset, int length) {
+        crc.reset();
+        crc.update(bytes, offset, length);
+        return (int) crc.getValue();
+    }
+
+    // Повреждённый кадр и все кадры за ним, которые удаётся пройти по полю длины
+
+    private void countDroppedRecords(int corruptedLength) throws IOException {
+        isFinished = true;
+        droppedRecords = 1;
+        if (corruptedLength < 0) {
+            return;
+        }
+        long position = validLength + TaskJournal.FRAME_HEADER_SIZE + corruptedLength;
+        try {
+            while (fileLength - position >= TaskJournal.FRAME_HEADER_SIZE) {
+                int length = input.readInt();
+                input.readInt();
+                if (length < 0 || length > fileLength - position - TaskJournal.FRAME_HEADER_SIZE) {
+                    break;
+                }
+                input.skipNBytes(length);
+                position += TaskJournal.FRAME_HEADER_SIZE + length;
+                droppedRecords++;
+            }
+        } catch (EOFException e) {
+            // Хвост файла оборван посреди кадра
+        }
+    }
+}
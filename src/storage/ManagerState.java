@@ -0,0 +1,138 @@
+package storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.zip.CRC32C;
+
+// Состояние менеджера: история просмотров и порядок приоритетов
+
+public class ManagerState {
+
+    public static final int MAGIC = 0x544B5354;
+    public static final short VERSION = 1;
+    private final int[] historyIds;
+    private final int[] prioritizedIds;
+    private final long snapshotLength;
+    private final long snapshotModified;
+    private final long journalLength;
+
+    public ManagerState(int[] historyIds, int[] prioritizedIds) {
+        this(historyIds, prioritizedIds, -1, -1, -1);
+    }
+
+    private ManagerState(int[] historyIds, int[] prioritizedIds, long snapshotLength, long snapshotModified,
+                         long journalLength) {
+        this.historyIds = historyIds;
+        this.prioritizedIds = prioritizedIds;
+        this.snapshotLength = snapshotLength;
+        this.snapshotModified = snapshotModified;
+        this.journalLength = journalLength;
+    }
+
+    public int[] getHistoryIds() {
+        return historyIds;
+    }
+
+    public int[] getPrioritizedIds() {
+        return prioritizedIds;
+    }
+
+    public boolean isStampOf(File snapshot, long journalLength) {
+        return snapshotLength == snapshot.length() && snapshotModified == snapshot.lastModified()
+                && this.journalLength == journalLength;
+    }
+
+    // Штамп снимается с уже записанного снимка, поэтому состояние пишется сразу после него:
+
+    public static void write(File file, ManagerState state, File snapshot, long journalLength, boolean isSynced)
+            throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(
+                32 + 4 * (state.historyIds.length + state.prioritizedIds.length));
+        DataOutputStream out = new DataOutputStream(buffer);
+        out.writeInt(MAGIC);
+        out.writeShort(VERSION);
+        out.writeShort(0);
+        out.writeLong(snapshot.length());
+        out.writeLong(snapshot.lastModified());
+        out.writeLong(journalLength);
+        writeIds(out, state.historyIds);
+        writeIds(out, state.prioritizedIds);
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.toByteArray());
+        out.writeInt((int) crc.getValue());
+
+        File tmpFile = new File(file.getPath() + ".tmp");
+        try (FileOutputStream outputStream = new FileOutputStream(tmpFile)) {
+            buffer.writeTo(outputStream);
+            if (isSynced) {
+                outputStream.getChannel().force(true);
+            }
+        }
+        try {
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    // Без состояния менеджер просто восстановится с нуля:
+
+    public static ManagerState read(File file) throws IOException {
+        if (!file.exists()) {
+            return null;
+        }
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        try {
+            if (bytes.length < Integer.BYTES) {
+                return null;
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(bytes, 0, bytes.length - Integer.BYTES);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            if (in.readInt() != MAGIC || in.readShort() != VERSION) {
+                return null;
+            }
+            in.readShort();
+            long snapshotLength = in.readLong();
+            long snapshotModified = in.readLong();
+            long journalLength = in.readLong();
+            int[] historyIds = readIds(in);
+            int[] prioritizedIds = readIds(in);
+            if (in.readInt() != (int) crc.getValue()) {
+                return null;
+            }
+            return new ManagerState(historyIds, prioritizedIds, snapshotLength, snapshotModified, journalLength);
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static void writeIds(DataOutputStream out, int[] ids) throws IOException {
+        out.writeInt(ids.length);
+        for (int id : ids) {
+            out.writeInt(id);
+        }
+    }
+
+    private static int[] readIds(DataInputStream in) throws IOException {
+        int count = in.readInt();
+        if (count < 0 || count > in.available() / Integer.BYTES) {
+            throw new EOFException();
+        }
+        int[] ids = new int[count];
+        for (int i = 0; i < count; i++) {
+            ids[i] = in.readInt();
+        }
+        return ids;
+    }
+}
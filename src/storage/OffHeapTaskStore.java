@@ -0,0 +1,476 @@
+package storage;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+import util.EpochMinutes;
+import util.IntHashMap;
+import util.IntList;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+// Хранилище задач вне кучи
+
+public class OffHeapTaskStore {
+
+    // Формат записи:
+    private static final int TYPE_OFFSET = 0;
+    private static final int STATUS_OFFSET = 1;
+    private static final int BLOCK_CLASS_OFFSET = 2;
+    private static final int ID_OFFSET = 4;
+    private static final int START_OFFSET = 8;
+    private static final int END_OFFSET = 16;
+    private static final int DURATION_OFFSET = 24;
+    private static final int EPIC_ID_OFFSET = 28;
+    private static final int BLOCK_ADDRESS_OFFSET = 32;
+    private static final int BLOCK_LENGTH_OFFSET = 36;
+    private static final int RECORD_SIZE = 40;
+    private static final int RECORDS_PER_CHUNK_SHIFT = 15;
+    private static final int RECORDS_PER_CHUNK = 1 << RECORDS_PER_CHUNK_SHIFT;
+    // Блоки переменной длины:
+    private static final int MIN_BLOCK_SHIFT = 5;
+    private static final int BLOCK_CHUNK_SHIFT = 22;
+    private static final int BLOCK_CHUNK_SIZE = 1 << BLOCK_CHUNK_SHIFT;
+    private static final int OFFSET_BITS = BLOCK_CHUNK_SHIFT - MIN_BLOCK_SHIFT;
+    private static final int MAX_BLOCK_CHUNKS = 1 << (Integer.SIZE - 1 - OFFSET_BITS);
+    private static final int NO_SLOT = -1;
+    private static final int MAX_ID = Integer.MAX_VALUE - 8;
+    private final List<ByteBuffer> recordChunks = new ArrayList<>();
+    private final List<ByteBuffer> blockChunks = new ArrayList<>();
+    private final IntList freeSlots = new IntList();
+    private final IntList[] freeBlocks = new IntList[BLOCK_CHUNK_SHIFT - MIN_BLOCK_SHIFT + 1];
+    private int[] slotsById = new int[1024];
+    private int usedSlots = 0;
+    private int blockChunkUsed = BLOCK_CHUNK_SIZE;
+    private final int[] counts = new int[TaskType.values().length];
+    private int lastId = -1;
+    private ByteBuffer encodeBuffer = ByteBuffer.allocate(1024);
+    private final IntHashMap<TaskReference> identityMap = new IntHashMap<>();
+    private final ReferenceQueue<Task> collectedTasks = new ReferenceQueue<>();
+
+    public OffHeapTaskStore() {
+        Arrays.fill(slotsById, NO_SLOT);
+        for (int i = 0; i < freeBlocks.length; i++) {
+            freeBlocks[i] = new IntList();
+        }
+    }
+
+    public <T extends Task> IdOrderedMap<T> view(TaskType taskType, Class<T> taskClass) {
+        return new TaskView<>(taskType, taskClass);
+    }
+
+    public int size(TaskType taskType) {
+        return counts[taskType.ordinal()];
+    }
+
+    // Сколько записей было выдано за всё время: освобождённые записи переиспользуются и это число не растят
+
+    public int getRecordSlots() {
+        return usedSlots;
+    }
+
+    public long getOffHeapBytes() {
+        return (long) recordChunks.size() * RECORDS_PER_CHUNK * RECORD_SIZE
+                + (long) blockChunks.size() * BLOCK_CHUNK_SIZE;
+    }
+
+    private Task get(int id, TaskType taskType) {
+        int slot = slotOf(id);
+        if (slot == NO_SLOT || recordAt(slot).get(recordOffset(slot) + TYPE_OFFSET) != taskType.ordinal() + 1) {
+            return null;
+        }
+        expungeCollected();
+        TaskReference reference = identityMap.get(id);
+        Task task = reference != null ? reference.get() : null;
+        if (task == null) {
+            task = materialize(slot, taskType);
+            identityMap.put(id, new TaskReference(task, collectedTasks));
+        }
+        return task;
+    }
+
+    private boolean contains(int id, TaskType taskType) {
+        int slot = slotOf(id);
+        return slot != NO_SLOT && recordAt(slot).get(recordOffset(slot) + TYPE_OFFSET) == taskType.ordinal() + 1;
+    }
+
+    private int statusOf(int id) {
+        int slot = slotOf(id);
+        return recordAt(slot).get(recordOffset(slot) + STATUS_OFFSET);
+    }
+
+    private Task materialize(int slot, TaskType taskType) {
+        ByteBuffer record = recordAt(slot);
+        int offset = recordOffset(slot);
+        ByteBuffer block = blockAt(record.getInt(offset + BLOCK_ADDRESS_OFFSET));
+        int position = blockOffset(record.getInt(offset + BLOCK_ADDRESS_OFFSET));
+        String title = readString(block, position);
+        position += stringLength(block, position);
+        String description = readString(block, position);
+        position += stringLength(block, position);
+        Task task = switch (taskType) {
+            case TASK -> new Task(title, description, null, null);
+
+            case EPIC -> {
+                Epic epic = new Epic(title, description);
+                int subtaskCount = block.getInt(position);
+                for (int i = 0; i < subtaskCount; i++) {
+                    epic.addSubtaskId(block.getInt(position + Integer.BYTES * (i + 1)));
+                }
+                epic.setEndMinute(record.getLong(offset + END_OFFSET));
+                yield epic;
+            }
+
+            case SUBTASK -> new Subtask(title, description, null, null, record.getInt(offset + EPIC_ID_OFFSET));
+        };
+        task.setId(record.getInt(offset + ID_OFFSET));
+        task.setTaskStatus(TaskStatus.values()[record.get(offset + STATUS_OFFSET)]);
+        task.setStartMinute(record.getLong(offset + START_OFFSET));
+        task.setDurationMinutes(record.getInt(offset + DURATION_OFFSET));
+        return task;
+    }
+
+    private void put(Task task) {
+        int id = task.getId();
+        if (id < 0 || id >= MAX_ID) {
+            throw new IllegalStateException(String.format("%s %d", "Недопустимый идентификатор задачи:", id));
+        }
+        TaskType taskType = CsvTaskCodec.getTaskType(task);
+        int length = encode(task);
+        int slot = slotOf(id);
+        ByteBuffer record;
+        int offset;
+        if (slot == NO_SLOT) {
+            slot = allocateSlot();
+            ensureIndexCapacity(id);
+            slotsById[id] = slot;
+            record = recordAt(slot);
+            offset = recordOffset(slot);
+            allocateBlock(record, offset, length);
+        } else {
+            record = recordAt(slot);
+            offset = recordOffset(slot);
+            counts[record.get(offset + TYPE_OFFSET) - 1]--;
+            if (length > 1 << record.get(offset + BLOCK_CLASS_OFFSET)) {
+                freeBlock(record, offset);
+                allocateBlock(record, offset, length);
+            }
+        }
+        record.put(offset + TYPE_OFFSET, (byte) (taskType.ordinal() + 1));
+        record.put(offset + STATUS_OFFSET, (byte) task.getTaskStatus().ordinal());
+        record.putInt(offset + ID_OFFSET, id);
+        record.putLong(offset + START_OFFSET, task.getStartMinute());
+        record.putLong(offset + END_OFFSET, task instanceof Epic epic ? epic.getEndMinute() : EpochMinutes.NONE);
+        record.putInt(offset + DURATION_OFFSET, task.getDurationMinutes());
+        record.putInt(offset + EPIC_ID_OFFSET, task instanceof Subtask subtask ? subtask.getEpicId() : 0);
+        record.putInt(offset + BLOCK_LENGTH_OFFSET, length);
+        int address = record.getInt(offset + BLOCK_ADDRESS_OFFSET);
+        blockAt(address).put(blockOffset(address), encodeBuffer.array(), 0, length);
+        counts[taskType.ordinal()]++;
+        lastId = Math.max(lastId, id);
+        expungeCollected();
+        identityMap.put(id, new TaskReference(task, collectedTasks));
+    }
+
+    private void remove(int id) {
+        int slot = slotOf(id);
+        if (slot == NO_SLOT) {
+            return;
+        }
+        ByteBuffer record = recordAt(slot);
+        int offset = recordOffset(slot);
+        counts[record.get(offset + TYPE_OFFSET) - 1]--;
+        record.put(offset + TYPE_OFFSET, (byte) 0);
+        freeBlock(record, offset);
+        freeSlots.addInt(slot);
+        slotsById[id] = NO_SLOT;
+        identityMap.remove(id);
+    }
+
+    // Блок: заголовок, описание и подзадачи эпика
+
+    private int encode(Task task) {
+        encodeBuffer.clear();
+        writeString(task.getTitle());
+        writeString(task.getDescription());
+        if (task instanceof Epic epic) {
+            List<Integer> subtaskIds = epic.getSubtaskId();
+            ensureEncodeCapacity(Integer.BYTES * (subtaskIds.size() + 1));
+            encodeBuffer.putInt(subtaskIds.size());
+            for (Integer subtaskId : subtaskIds) {
+                encodeBuffer.putInt(subtaskId);
+            }
+        }
+        return encodeBuffer.position();
+    }
+
+    private void writeString(String value) {
+        if (value == null) {
+            ensureEncodeCapacity(Integer.BYTES);
+            encodeBuffer.putInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        ensureEncodeCapacity(Integer.BYTES + bytes.length);
+        encodeBuffer.putInt(bytes.length);
+        encodeBuffer.put(bytes);
+    }
+
+    private void ensureEncodeCapacity(int extra) {
+        if (encodeBuffer.remaining() >= extra) {
+            return;
+        }
+        int required = encodeBuffer.position() + extra;
+        if (required > BLOCK_CHUNK_SIZE) {
+            throw new IllegalArgumentException(String.format("%s %d %s", "Задача занимает больше",
+                    BLOCK_CHUNK_SIZE, "байт"));
+        }
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(encodeBuffer.capacity() * 2, required));
+        grown.put(encodeBuffer.flip());
+        encodeBuffer = grown;
+    }
+
+    private static String readString(ByteBuffer block, int position) {
+        int length = block.getInt(position);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        block.get(position + Integer.BYTES, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int stringLength(ByteBuffer block, int position) {
+        return Integer.BYTES + Math.max(block.getInt(position), 0);
+    }
+
+    // Записи:
+
+    private int slotOf(int id) {
+        return id >= 0 && id < slotsById.length ? slotsById[id] : NO_SLOT;
+    }
+
+    private void ensureIndexCapacity(int id) {
+        if (id < slotsById.length) {
+            return;
+        }
+        int oldLength = slotsById.length;
+        slotsById = Arrays.copyOf(slotsById, (int) Math.min(MAX_ID, Math.max((long) oldLength * 2, id + 1)));
+        Arrays.fill(slotsById, oldLength, slotsById.length, NO_SLOT);
+    }
+
+    private int allocateSlot() {
+        if (!freeSlots.isEmpty()) {
+            return freeSlots.remove(freeSlots.size() - 1);
+        }
+        if (usedSlots == recordChunks.size() * RECORDS_PER_CHUNK) {
+            recordChunks.add(ByteBuffer.allocateDirect(RECORDS_PER_CHUNK * RECORD_SIZE));
+        }
+        return usedSlots++;
+    }
+
+    private ByteBuffer recordAt(int slot) {
+        return recordChunks.get(slot >>> RECORDS_PER_CHUNK_SHIFT);
+    }
+
+    private static int recordOffset(int slot) {
+        return (slot & (RECORDS_PER_CHUNK - 1)) * RECORD_SIZE;
+    }
+
+    // Выделение блоков:
+
+    private void allocateBlock(ByteBuffer record, int offset, int length) {
+        int blockClass = Math.max(MIN_BLOCK_SHIFT, Integer.SIZE - Integer.numberOfLeadingZeros(length - 1));
+        IntList free = freeBlocks[blockClass - MIN_BLOCK_SHIFT];
+        int address;
+        if (!free.isEmpty()) {
+            address = free.remove(free.size() - 1);
+        } else {
+            int blockSize = 1 << blockClass;
+            if (blockChunkUsed + blockSize > BLOCK_CHUNK_SIZE) {
+                startBlockChunk();
+            }
+            address = blockAddress(blockChunks.size() - 1, blockChunkUsed);
+            blockChunkUsed += blockSize;
+        }
+        record.put(offset + BLOCK_CLASS_OFFSET, (byte) blockClass);
+        record.putInt(offset + BLOCK_ADDRESS_OFFSET, address);
+    }
+
+    private void freeBlock(ByteBuffer record, int offset) {
+        freeBlocks[record.get(offset + BLOCK_CLASS_OFFSET) - MIN_BLOCK_SHIFT]
+                .addInt(record.getInt(offset + BLOCK_ADDRESS_OFFSET));
+    }
+
+    private void startBlockChunk() {
+        if (blockChunks.size() == MAX_BLOCK_CHUNKS) {
+            throw new IllegalStateException("Исчерпано место для задач вне кучи");
+        }
+        if (!blockChunks.isEmpty()) {
+            int chunk = blockChunks.size() - 1;
+            for (int blockClass = BLOCK_CHUNK_SHIFT - 1; blockClass >= MIN_BLOCK_SHIFT; blockClass--) {
+                int blockSize = 1 << blockClass;
+                if (((BLOCK_CHUNK_SIZE - blockChunkUsed) & blockSize) != 0) {
+                    freeBlocks[blockClass - MIN_BLOCK_SHIFT].addInt(blockAddress(chunk, blockChunkUsed));
+                    blockChunkUsed += blockSize;
+                }
+            }
+        }
+        blockChunks.add(ByteBuffer.allocateDirect(BLOCK_CHUNK_SIZE));
+        blockChunkUsed = 0;
+    }
+
+    private ByteBuffer blockAt(int address) {
+        return blockChunks.get(address >>> OFFSET_BITS);
+    }
+
+    private static int blockOffset(int address) {
+        return (address & ((1 << OFFSET_BITS) - 1)) << MIN_BLOCK_SHIFT;
+    }
+
+    private static int blockAddress(int chunk, int offset) {
+        return chunk << OFFSET_BITS | offset >>> MIN_BLOCK_SHIFT;
+    }
+
+    private void expungeCollected() {
+        TaskReference reference;
+        while ((reference = (TaskReference) collectedTasks.poll()) != null) {
+            if (identityMap.get(reference.id) == reference) {
+                identityMap.remove(reference.id);
+            }
+        }
+    }
+
+    private static class TaskReference extends WeakReference<Task> {
+
+        private final int id;
+
+        TaskReference(Task task, ReferenceQueue<Task> queue) {
+            super(task, queue);
+            this.id = task.getId();
+        }
+    }
+
+    private class TaskView<T extends Task> extends AbstractMap<Integer, T> implements IdOrderedMap<T> {
+
+        private final TaskType taskType;
+        private final Class<T> taskClass;
+
+        TaskView(TaskType taskType, Class<T> taskClass) {
+            this.taskType = taskType;
+            this.taskClass = taskClass;
+        }
+
+        @Override
+        public T get(Object key) {
+            return key instanceof Integer id ? taskClass.cast(OffHeapTaskStore.this.get(id, taskType)) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Integer id && contains(id, taskType);
+        }
+
+        @Override
+        public T put(Integer key, T value) {
+            T previous = get(key);
+            OffHeapTaskStore.this.put(value);
+            return previous;
+        }
+
+        @Override
+        public T remove(Object key) {
+            T previous = get(key);
+            if (previous != null) {
+                OffHeapTaskStore.this.remove(previous.getId());
+            }
+            return previous;
+        }
+
+        @Override
+        public void clear() {
+            for (int id = 0; id <= lastId; id++) {
+                if (contains(id, taskType)) {
+                    OffHeapTaskStore.this.remove(id);
+                }
+            }
+        }
+
+        @Override
+        public int size() {
+            return counts[taskType.ordinal()];
+        }
+
+        @Override
+        public int nextId(int afterId, TaskStatus status) {
+            for (int id = Math.max(afterId + 1, 0); id <= lastId; id++) {
+                if (contains(id, taskType) && (status == null || statusOf(id) == status.ordinal())) {
+                    return id;
+                }
+            }
+            return -1;
+        }
+
+        @Override
+        public Set<Entry<Integer, T>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Integer, T>> iterator() {
+                    return new TaskIterator();
+                }
+
+                @Override
+                public int size() {
+                    return TaskView.this.size();
+                }
+            };
+        }
+
+        // Обход идёт по возрастанию идентификаторов, как и у HashMap с небольшими целыми ключами
+
+        private class TaskIterator implements Iterator<Entry<Integer, T>> {
+
+            private int nextId = 0;
+            private int currentId = -1;
+
+            @Override
+            public boolean hasNext() {
+                while (nextId <= lastId && !contains(nextId, taskType)) {
+                    nextId++;
+                }
+                return nextId <= lastId;
+            }
+
+            @Override
+            public Entry<Integer, T> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                currentId = nextId++;
+                return new SimpleImmutableEntry<>(currentId,
+                        taskClass.cast(OffHeapTaskStore.this.get(currentId, taskType)));
+            }
+
+            @Override
+            public void remove() {
+                if (currentId < 0) {
+                    throw new IllegalStateException();
+                }
+                OffHeapTaskStore.this.remove(currentId);
+                currentId = -1;
+            }
+        }
+    }
+}
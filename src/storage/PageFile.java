@@ -0,0 +1,182 @@
+package storage;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.CRC32C;
+
+// Файл страниц с LRU-кэшем и журналом предзаписи
+
+public class PageFile {
+
+    public static final int PAGE_SIZE = 4096;
+    private static final int WAL_MAGIC = 0x5457414C;
+    private static final int WAL_HEADER_SIZE = 16;
+    private final FileChannel channel;
+    private final FileChannel wal;
+    private final boolean isForceOnCommit;
+    private final Map<Long, ByteBuffer> cache;
+    private final Map<Long, ByteBuffer> dirtyPages = new TreeMap<>();
+    private long pageCount;
+    private long committedPageCount;
+
+    public PageFile(File file, int cachePages, boolean isForceOnCommit) throws IOException {
+        this.channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        this.wal = FileChannel.open(new File(file.getPath() + ".wal").toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.isForceOnCommit = isForceOnCommit;
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, ByteBuffer> eldest) {
+                return size() > cachePages;
+            }
+        };
+        recover();
+        this.pageCount = (channel.size() + PAGE_SIZE - 1) / PAGE_SIZE;
+        this.committedPageCount = pageCount;
+    }
+
+    public long getPageCount() {
+        return pageCount;
+    }
+
+    // Страница только для чтения: возвращённый буфер нельзя изменять
+
+    public ByteBuffer page(long pageNumber) throws IOException {
+        ByteBuffer page = dirtyPages.get(pageNumber);
+        if (page == null) {
+            page = cache.get(pageNumber);
+        }
+        if (page == null) {
+            page = readPage(pageNumber);
+            cache.put(pageNumber, page);
+        }
+        return page;
+    }
+
+    public ByteBuffer writablePage(long pageNumber) throws IOException {
+        ByteBuffer page = dirtyPages.get(pageNumber);
+        if (page == null) {
+            ByteBuffer committed = page(pageNumber);
+            page = ByteBuffer.allocate(PAGE_SIZE);
+            page.put(0, committed, 0, PAGE_SIZE);
+            dirtyPages.put(pageNumber, page);
+        }
+        return page;
+    }
+
+    // Выделяет подряд идущие страницы и возвращает номер первой
+
+    public long allocatePages(int count) {
+        long first = pageCount;
+        for (int i = 0; i < count; i++) {
+            dirtyPages.put(pageCount++, ByteBuffer.allocate(PAGE_SIZE));
+        }
+        return first;
+    }
+
+    public void commit() throws IOException {
+        if (dirtyPages.isEmpty()) {
+            return;
+        }
+        ByteBuffer log = ByteBuffer.allocate(WAL_HEADER_SIZE + dirtyPages.size() * (Long.BYTES + PAGE_SIZE));
+        log.position(WAL_HEADER_SIZE);
+        for (Map.Entry<Long, ByteBuffer> entry : dirtyPages.entrySet()) {
+            log.putLong(entry.getKey());
+            log.put(entry.getValue().duplicate().clear());
+        }
+        CRC32C crc = new CRC32C();
+        crc.update(log.array(), WAL_HEADER_SIZE, log.position() - WAL_HEADER_SIZE);
+        log.putInt(0, WAL_MAGIC).putInt(4, dirtyPages.size()).putLong(8, crc.getValue());
+        log.flip();
+        writeFully(wal, log, 0);
+        if (isForceOnCommit) {
+            wal.force(false);
+        }
+
+        for (Map.Entry<Long, ByteBuffer> entry : dirtyPages.entrySet()) {
+            writeFully(channel, entry.getValue().duplicate().clear(), entry.getKey() * PAGE_SIZE);
+        }
+        if (isForceOnCommit) {
+            channel.force(false);
+        }
+        cache.putAll(dirtyPages);
+        dirtyPages.clear();
+        committedPageCount = pageCount;
+    }
+
+    public void rollback() {
+        dirtyPages.clear();
+        pageCount = committedPageCount;
+    }
+
+    public void close() throws IOException {
+        rollback();
+        channel.force(false);
+        wal.truncate(0);
+        wal.close();
+        channel.close();
+    }
+
+    // Повторное применение журнала:
+
+    private void recover() throws IOException {
+        if (wal.size() < WAL_HEADER_SIZE) {
+            return;
+        }
+        ByteBuffer header = ByteBuffer.allocate(WAL_HEADER_SIZE);
+        readFully(wal, header, 0);
+        int count = header.getInt(4);
+        long bodySize = (long) count * (Long.BYTES + PAGE_SIZE);
+        if (header.getInt(0) == WAL_MAGIC && count > 0 && WAL_HEADER_SIZE + bodySize <= wal.size()) {
+            ByteBuffer body = ByteBuffer.allocate((int) bodySize);
+            readFully(wal, body, WAL_HEADER_SIZE);
+            CRC32C crc = new CRC32C();
+            crc.update(body.array(), 0, body.limit());
+            if (crc.getValue() == header.getLong(8)) {
+                for (int i = 0; i < count; i++) {
+                    long pageNumber = body.getLong();
+                    writeFully(channel, body.slice(body.position(), PAGE_SIZE), pageNumber * PAGE_SIZE);
+                    body.position(body.position() + PAGE_SIZE);
+                }
+                channel.force(false);
+            }
+        }
+        wal.truncate(0);
+        wal.force(false);
+    }
+
+    private ByteBuffer readPage(long pageNumber) throws IOException {
+        ByteBuffer page = ByteBuffer.allocate(PAGE_SIZE);
+        long position = pageNumber * PAGE_SIZE;
+        while (page.hasRemaining()) {
+            int read = channel.read(page, position + page.position());
+            if (read < 0) {
+                break;
+            }
+        }
+        return page.clear();
+    }
+
+    private static void readFully(FileChannel source, ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (source.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Неожиданный конец файла страниц");
+            }
+        }
+        buffer.flip();
+    }
+
+    private static void writeFully(FileChannel target, ByteBuffer buffer, long position) throws IOException {
+        long offset = position - buffer.position();
+        while (buffer.hasRemaining()) {
+            target.write(buffer, offset + buffer.position());
+        }
+    }
+}
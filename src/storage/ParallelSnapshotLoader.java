@@ -0,0 +1,166 @@
+package storage;
+
+import model.Task;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+// Параллельная загрузка снимка
+
+public class ParallelSnapshotLoader {
+
+    private static final int CSV_CHUNK_BYTES = 4 * 1024 * 1024;
+    private static final int BINARY_CHUNK_RECORDS = 64 * 1024;
+    private final ForkJoinPool pool;
+
+    public ParallelSnapshotLoader(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    public List<Task> load(File file) throws IOException {
+        if (file.length() > Integer.MAX_VALUE) {
+            List<Task> tasks = new ArrayList<>();
+            if (BlockCompression.isCompressed(file)) {
+                throw new IOException("Сжатый снимок больше 2 ГБ не поддерживается");
+            } else if (BinaryTaskCodec.isBinary(file)) {
+                BinaryTaskCodec.read(file, tasks::add);
+            } else {
+                CsvTaskCodec.read(file, tasks::add);
+            }
+            return tasks;
+        }
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (BlockCompression.isCompressed(buffer)) {
+                buffer = BlockCompression.decompress(buffer, pool);
+            }
+            if (BinaryTaskCodec.isBinary(buffer)) {
+                return collect(splitBinary(buffer));
+            }
+            return collect(splitCsv(buffer));
+        }
+    }
+
+    private List<Callable<List<Task>>> splitCsv(ByteBuffer buffer) {
+        List<Callable<List<Task>>> chunks = new ArrayList<>();
+        int start = 0;
+        boolean isInQuotes = false;
+
+        // Перевод строки внутри кавычек не считается концом записи
+        for (int position = 0; position < buffer.limit(); position++) {
+            byte b = buffer.get(position);
+            if (b == '"') {
+                isInQuotes = !isInQuotes;
+            } else if (b == '\n' && !isInQuotes && position + 1 - start >= CSV_CHUNK_BYTES) {
+                chunks.add(csvChunk(buffer.slice(start, position + 1 - start)));
+                start = position + 1;
+            }
+        }
+        if (start < buffer.limit()) {
+            chunks.add(csvChunk(buffer.slice(start, buffer.limit() - start)));
+        }
+        return chunks;
+    }
+
+    private Callable<List<Task>> csvChunk(ByteBuffer chunk) {
+        return () -> {
+            List<Task> tasks = new ArrayList<>();
+            try (CsvRecordReader reader = new CsvRecordReader(new InputStreamReader(new ByteBufferInputStream(chunk),
+                    StandardCharsets.UTF_8))) {
+                while (reader.next()) {
+                    if (!reader.fieldEquals(0, "id")) {
+                        tasks.add(CsvTaskCodec.read(reader, 0));
+                    }
+                }
+            }
+            return tasks;
+        };
+    }
+
+    private List<Callable<List<Task>>> splitBinary(ByteBuffer buffer) throws IOException {
+        List<Callable<List<Task>>> chunks = new ArrayList<>();
+        int count = BinaryTaskCodec.readHeader(buffer);
+
+        for (int first = 0; first < count; first += BINARY_CHUNK_RECORDS) {
+            int chunkSize = Math.min(BINARY_CHUNK_RECORDS, count - first);
+            ByteBuffer chunk = buffer.slice(buffer.position(), buffer.limit() - buffer.position());
+            for (int i = 0; i < chunkSize; i++) {
+                BinaryTaskCodec.skipRecord(buffer);
+            }
+            chunks.add(() -> {
+                List<Task> tasks = new ArrayList<>(chunkSize);
+                BinaryTaskCodec.Decoder decoder = new BinaryTaskCodec.Decoder();
+                for (int i = 0; i < chunkSize; i++) {
+                    tasks.add(decoder.readRecord(chunk));
+                }
+                return tasks;
+            });
+        }
+        return chunks;
+    }
+
+    private List<Task> collect(List<Callable<List<Task>>> chunks) throws IOException {
+        if (chunks.size() == 1) {
+            try {
+                return chunks.getFirst().call();
+            } catch (IOException | RuntimeException e) {
+                throw e;
+            } catch (Exception e) {
+                throw new IOException(e);
+            }
+        }
+        List<Task> tasks = new ArrayList<>();
+        try {
+            for (Future<List<Task>> future : pool.invokeAll(chunks)) {
+                tasks.addAll(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Загрузка снимка была прервана", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException exception) {
+                throw exception;
+            }
+            if (e.getCause() instanceof RuntimeException exception) {
+                throw exception;
+            }
+            throw new IOException(e.getCause());
+        }
+        return tasks;
+    }
+
+    private static class ByteBufferInputStream extends InputStream {
+
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            int count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+}
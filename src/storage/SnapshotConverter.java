@@ -0,0 +1,88 @@
+package storage;
+
+import model.Task;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+// Преобразование снимка между CSV и двоичным форматом
+
+public class SnapshotConverter {
+
+    private SnapshotConverter() {
+    }
+
+    public static void csvToBinary(File source, File target) throws IOException {
+        List<Task> tasks;
+        if (BlockCompression.isCompressed(source)) {
+            tasks = new ParallelSnapshotLoader(ForkJoinPool.commonPool()).load(source);
+        } else {
+            tasks = new ArrayList<>();
+            CsvTaskCodec.read(source, tasks::add);
+        }
+        try (OutputStream outputStream = new BufferedOutputStream(new FileOutputStream(target))) {
+            BinaryTaskCodec.write(outputStream, tasks);
+        }
+    }
+
+    public static void binaryToCsv(File source, File target) throws IOException {
+        try (Writer writer = new BufferedWriter(new FileWriter(target, StandardCharsets.UTF_8))) {
+            writer.write(CsvTaskCodec.HEADER);
+            Consumer<Task> consumer = task -> {
+                try {
+                    writer.write('\n');
+                    CsvTaskCodec.write(writer, task);
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+            };
+            if (BlockCompression.isCompressed(source)) {
+                readCompressedBinary(source, consumer);
+            } else {
+                BinaryTaskCodec.read(source, consumer);
+            }
+        }
+    }
+
+    private static void readCompressedBinary(File source, Consumer<Task> consumer) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(source.toPath(), StandardOpenOption.READ)) {
+            buffer = BlockCompression.decompress(BinaryTaskCodec.map(channel), ForkJoinPool.commonPool());
+        }
+        int count = BinaryTaskCodec.readHeader(buffer);
+        BinaryTaskCodec.Decoder decoder = new BinaryTaskCodec.Decoder();
+        for (int i = 0; i < count; i++) {
+            consumer.accept(decoder.readRecord(buffer));
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 3) {
+            System.out.println("Использование: SnapshotConverter csv-to-binary|binary-to-csv <источник> <результат>");
+            return;
+        }
+        File source = new File(args[1]);
+        File target = new File(args[2]);
+
+        switch (args[0]) {
+            case "csv-to-binary" -> csvToBinary(source, target);
+
+            case "binary-to-csv" -> binaryToCsv(source, target);
+
+            default -> System.out.printf("Неизвестное направление преобразования: %s\n", args[0]);
+        }
+    }
+}
@@ -0,0 +1,185 @@
+package storage;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+import java.util.zip.Deflater;
+
+// Журнал: кадры из длины записи, CRC32C и записи
+
+public class TaskJournal implements Closeable {
+
+    public static final int MAGIC = 0x544B4A31;
+    public static final int COMPRESSED_MAGIC = 0x544B4A5A;
+    public static final int FRAME_HEADER_SIZE = 2 * Integer.BYTES;
+    private final File file;
+    private final CRC32C crc = new CRC32C();
+    private final Deflater deflater;
+    private ByteBuffer compressed = ByteBuffer.allocate(16 * 1024);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    private ByteBuffer pending = ByteBuffer.allocate(64 * 1024);
+    private volatile FileChannel channel;
+    private long size;
+
+    public TaskJournal(File file) {
+        this(file, false);
+    }
+
+    public TaskJournal(File file, boolean isCompressed) {
+        this.file = file;
+        this.size = file.length();
+        this.deflater = isCompressed ? new Deflater(Deflater.BEST_SPEED) : null;
+    }
+
+    // Кодирование записи:
+
+    public void append(CharSequence record) throws IOException {
+        if (pending.remaining() < FRAME_HEADER_SIZE) {
+            grow();
+        }
+        int frameStart = pending.position();
+        pending.position(frameStart + FRAME_HEADER_SIZE);
+        CharBuffer chars = CharBuffer.wrap(record);
+        while (true) {
+            CoderResult result = encoder.encode(chars, pending, true);
+            if (result.isOverflow()) {
+                grow();
+                continue;
+            }
+            if (result.isError()) {
+                result.throwException();
+            }
+            break;
+        }
+        encoder.reset();
+        int length = pending.position() - frameStart - FRAME_HEADER_SIZE;
+        crc.reset();
+        crc.update(pending.array(), frameStart + FRAME_HEADER_SIZE, length);
+        pending.putInt(frameStart, length);
+        pending.putInt(frameStart + Integer.BYTES, (int) crc.getValue());
+    }
+
+    // Записывает накопленные записи одним вызовом write; force может выполняться параллельно из другого потока.
+
+    public void flush() throws IOException {
+        if (pending.position() == 0) {
+            return;
+        }
+        pending.flip();
+        ByteBuffer output = deflater != null ? compress(pending) : pending;
+        FileChannel fileChannel = getChannel();
+        if (size == 0) {
+            ByteBuffer header = ByteBuffer.allocate(Integer.BYTES)
+                    .putInt(0, deflater != null ? COMPRESSED_MAGIC : MAGIC);
+            while (header.hasRemaining()) {
+                fileChannel.write(header);
+            }
+            size = Integer.BYTES;
+        }
+        size += output.remaining();
+        while (output.hasRemaining()) {
+            fileChannel.write(output);
+        }
+        pending.clear();
+    }
+
+    // Сжатый пакет кадров:
+
+    private ByteBuffer compress(ByteBuffer frames) {
+        int rawLength = frames.remaining();
+        compressed.clear().position(FRAME_HEADER_SIZE + Integer.BYTES);
+        compressed = BlockCompression.deflate(deflater, frames, compressed);
+        int length = compressed.position() - FRAME_HEADER_SIZE;
+        compressed.putInt(FRAME_HEADER_SIZE, rawLength);
+        crc.reset();
+        crc.update(compressed.array(), FRAME_HEADER_SIZE, length);
+        compressed.putInt(0, length).putInt(Integer.BYTES, (int) crc.getValue());
+        return compressed.flip();
+    }
+
+    public void force() throws IOException {
+        FileChannel fileChannel = channel;
+        if (fileChannel == null) {
+            return;
+        }
+        try {
+            fileChannel.force(false);
+        } catch (ClosedChannelException e) {
+            // Сегмент уже был сброшен на диск и закрыт при ротации
+        }
+    }
+
+    // Переименовывает текущий сегмент журнала, новые записи пойдут в пустой файл:
+
+    public void rotate(File target) throws IOException {
+        flush();
+        if (channel != null) {
+            channel.force(false);
+            channel.close();
+            channel = null;
+        }
+        if (file.exists()) {
+            Files.move(file.toPath(), target.toPath(), StandardCopyOption.ATOMIC_MOVE);
+        }
+        size = 0;
+    }
+
+    public void truncate() throws IOException {
+        pending.clear();
+        getChannel().truncate(0);
+        size = 0;
+    }
+
+    // Отрезает повреждённый хвост сегмента, найденный при восстановлении
+
+    public static void truncate(File file, long length) throws IOException {
+        try (FileChannel fileChannel = FileChannel.open(file.toPath(), StandardOpenOption.WRITE)) {
+            fileChannel.truncate(length);
+            fileChannel.force(false);
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (deflater != null) {
+            deflater.end();
+        }
+        if (channel != null) {
+            channel.close();
+            channel = null;
+        }
+    }
+
+    private void grow() {
+        ByteBuffer grown = ByteBuffer.allocate(pending.capacity() * 2);
+        pending.flip();
+        grown.put(pending);
+        pending = grown;
+    }
+
+    private FileChannel getChannel() throws IOException {
+        if (channel == null) {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+        }
+        return channel;
+    }
+}
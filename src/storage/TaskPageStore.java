@@ -0,0 +1,398 @@
+package storage;
+
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+// Хранилище задач в файле страниц
+
+public class TaskPageStore {
+
+    private static final int MAGIC = 0x544B5047;
+    private static final short VERSION = 1;
+    private static final int ROOT_PAGE_OFFSET = 8;
+    private static final int APPEND_POSITION_OFFSET = 16;
+    private static final int LAST_ID_OFFSET = 24;
+    private static final int COUNTS_OFFSET = 28;
+    private static final int GARBAGE_BYTES_OFFSET = 40;
+    private static final int INDEX_BITS = 9;
+    private static final int INDEX_MASK = (1 << INDEX_BITS) - 1;
+    private static final int MAX_ID = (1 << INDEX_BITS * 3) - 1;
+    private static final int RECORD_HEADER_SIZE = 8;
+    private final PageFile pageFile;
+    private final ByteArrayOutputStream recordBuffer = new ByteArrayOutputStream();
+    private final DataOutputStream recordOutput = new DataOutputStream(recordBuffer);
+    private final BinaryTaskCodec.Decoder decoder = new BinaryTaskCodec.Decoder();
+    private final Map<Integer, TaskReference> identityMap = new HashMap<>();
+    private final ReferenceQueue<Task> collectedTasks = new ReferenceQueue<>();
+
+    public TaskPageStore(File file, int cachePages, boolean isForceOnCommit) throws IOException {
+        this.pageFile = new PageFile(file, cachePages, isForceOnCommit);
+        if (pageFile.getPageCount() == 0) {
+            long headerPage = pageFile.allocatePages(2);
+            pageFile.writablePage(headerPage)
+                    .putInt(0, MAGIC)
+                    .putShort(4, VERSION)
+                    .putLong(ROOT_PAGE_OFFSET, headerPage + 1);
+            pageFile.commit();
+        } else if (pageFile.page(0).getInt(0) != MAGIC) {
+            throw new IOException("Файл не является хранилищем задач");
+        } else if (pageFile.page(0).getShort(4) != VERSION) {
+            throw new IOException(String.format("%s %d", "Неподдерживаемая версия хранилища задач:",
+                    pageFile.page(0).getShort(4)));
+        }
+    }
+
+    public <T extends Task> IdOrderedMap<T> view(TaskType taskType, Class<T> taskClass) {
+        return new TaskView<>(taskType, taskClass);
+    }
+
+    public int getLastId() {
+        return readHeader().getInt(LAST_ID_OFFSET);
+    }
+
+    public long getGarbageBytes() {
+        return readHeader().getLong(GARBAGE_BYTES_OFFSET);
+    }
+
+    public void commit() throws IOException {
+        pageFile.commit();
+    }
+
+    // Откат транзакции:
+
+    public void rollback() {
+        pageFile.rollback();
+        identityMap.clear();
+    }
+
+    public void close() throws IOException {
+        pageFile.close();
+    }
+
+    private Task get(int id, TaskType taskType) {
+        try {
+            long position = locate(id);
+            if (position == 0 || readType(position) != taskType) {
+                return null;
+            }
+            expungeCollected();
+            TaskReference reference = identityMap.get(id);
+            Task task = reference != null ? reference.get() : null;
+            if (task == null) {
+                task = readRecord(position);
+                identityMap.put(id, new TaskReference(task, collectedTasks));
+            }
+            return task;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void put(Task task) {
+        try {
+            if (task.getId() > MAX_ID || task.getId() < 0) {
+                throw new IllegalStateException(String.format("%s %d", "Недопустимый идентификатор задачи:",
+                        task.getId()));
+            }
+            recordBuffer.reset();
+            BinaryTaskCodec.writeRecord(recordOutput, task, true);
+            int length = recordBuffer.size();
+            TaskType taskType = CsvTaskCodec.getTaskType(task);
+            long position = locate(task.getId());
+
+            if (position != 0 && readRecordHeader(position).getInt(0) >= length) {
+                adjustCount(readType(position), -1);
+            } else {
+                if (position != 0) {
+                    adjustCount(readType(position), -1);
+                    addGarbage(position);
+                }
+                position = allocateRecord(length);
+                setLocation(task.getId(), position);
+            }
+            writablePageAt(position).putInt((int) (position % PageFile.PAGE_SIZE) + 4, length);
+            write(position + RECORD_HEADER_SIZE, recordBuffer.toByteArray());
+            adjustCount(taskType, 1);
+            ByteBuffer header = pageFile.writablePage(0);
+            header.putInt(LAST_ID_OFFSET, Math.max(header.getInt(LAST_ID_OFFSET), task.getId()));
+            expungeCollected();
+            identityMap.put(task.getId(), new TaskReference(task, collectedTasks));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void remove(int id) {
+        try {
+            long position = locate(id);
+            if (position == 0) {
+                return;
+            }
+            adjustCount(readType(position), -1);
+            addGarbage(position);
+            setLocation(id, 0);
+            identityMap.remove(id);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Индекс:
+
+    private long locate(int id) throws IOException {
+        if (id < 0 || id > MAX_ID) {
+            return 0;
+        }
+        long page = readHeader().getLong(ROOT_PAGE_OFFSET);
+        for (int level = 2; level > 0 && page != 0; level--) {
+            page = pageFile.page(page).getLong(((id >>> INDEX_BITS * level) & INDEX_MASK) * Long.BYTES);
+        }
+        return page == 0 ? 0 : pageFile.page(page).getLong((id & INDEX_MASK) * Long.BYTES);
+    }
+
+    private void setLocation(int id, long position) throws IOException {
+        long page = readHeader().getLong(ROOT_PAGE_OFFSET);
+        for (int level = 2; level > 0; level--) {
+            int offset = ((id >>> INDEX_BITS * level) & INDEX_MASK) * Long.BYTES;
+            long child = pageFile.page(page).getLong(offset);
+            if (child == 0) {
+                if (position == 0) {
+                    return;
+                }
+                child = pageFile.allocatePages(1);
+                pageFile.writablePage(page).putLong(offset, child);
+            }
+            page = child;
+        }
+        pageFile.writablePage(page).putLong((id & INDEX_MASK) * Long.BYTES, position);
+    }
+
+    // Записи:
+
+    private long allocateRecord(int length) throws IOException {
+        int capacity = (length + length / 4 + 15) & ~15;
+        int size = RECORD_HEADER_SIZE + capacity;
+        ByteBuffer header = pageFile.writablePage(0);
+        long position = header.getLong(APPEND_POSITION_OFFSET);
+        int offsetInPage = (int) (position % PageFile.PAGE_SIZE);
+
+        if (offsetInPage == 0 || offsetInPage + size > PageFile.PAGE_SIZE) {
+            position = pageFile.allocatePages((size + PageFile.PAGE_SIZE - 1) / PageFile.PAGE_SIZE) * PageFile.PAGE_SIZE;
+        }
+        header.putLong(APPEND_POSITION_OFFSET, position + size);
+        writablePageAt(position).putInt((int) (position % PageFile.PAGE_SIZE), capacity);
+        return position;
+    }
+
+    private Task readRecord(long position) throws IOException {
+        byte[] bytes = new byte[readRecordHeader(position).getInt(4)];
+        long start = position + RECORD_HEADER_SIZE;
+        int done = 0;
+        while (done < bytes.length) {
+            int offset = (int) ((start + done) % PageFile.PAGE_SIZE);
+            int length = Math.min(bytes.length - done, PageFile.PAGE_SIZE - offset);
+            pageFile.page((start + done) / PageFile.PAGE_SIZE).get(offset, bytes, done, length);
+            done += length;
+        }
+        return decoder.readRecord(ByteBuffer.wrap(bytes));
+    }
+
+    private void write(long start, byte[] bytes) throws IOException {
+        int done = 0;
+        while (done < bytes.length) {
+            int offset = (int) ((start + done) % PageFile.PAGE_SIZE);
+            int length = Math.min(bytes.length - done, PageFile.PAGE_SIZE - offset);
+            pageFile.writablePage((start + done) / PageFile.PAGE_SIZE).put(offset, bytes, done, length);
+            done += length;
+        }
+    }
+
+    // Записи выровнены по 8 байтам, поэтому заголовок записи и первые байты тела (тип и статус) всегда на одной странице
+
+    private ByteBuffer readRecordHeader(long position) throws IOException {
+        return pageFile.page(position / PageFile.PAGE_SIZE).slice((int) (position % PageFile.PAGE_SIZE),
+                RECORD_HEADER_SIZE);
+    }
+
+    private TaskType readType(long position) throws IOException {
+        long start = position + RECORD_HEADER_SIZE;
+        return TaskType.values()[pageFile.page(start / PageFile.PAGE_SIZE).get((int) (start % PageFile.PAGE_SIZE))];
+    }
+
+    private TaskStatus readStatus(long position) throws IOException {
+        long start = position + RECORD_HEADER_SIZE + 1;
+        return TaskStatus.values()[pageFile.page(start / PageFile.PAGE_SIZE).get((int) (start % PageFile.PAGE_SIZE))];
+    }
+
+    private ByteBuffer writablePageAt(long position) throws IOException {
+        return pageFile.writablePage(position / PageFile.PAGE_SIZE);
+    }
+
+    private ByteBuffer readHeader() {
+        try {
+            return pageFile.page(0);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void adjustCount(TaskType taskType, int delta) throws IOException {
+        int offset = COUNTS_OFFSET + taskType.ordinal() * Integer.BYTES;
+        ByteBuffer header = pageFile.writablePage(0);
+        header.putInt(offset, header.getInt(offset) + delta);
+    }
+
+    private void addGarbage(long position) throws IOException {
+        ByteBuffer header = pageFile.writablePage(0);
+        header.putLong(GARBAGE_BYTES_OFFSET, header.getLong(GARBAGE_BYTES_OFFSET) + RECORD_HEADER_SIZE
+                + readRecordHeader(position).getInt(0));
+    }
+
+    // Удерживаемые задачи:
+
+    private void expungeCollected() {
+        TaskReference reference;
+        while ((reference = (TaskReference) collectedTasks.poll()) != null) {
+            identityMap.remove(reference.id, reference);
+        }
+    }
+
+    private static class TaskReference extends WeakReference<Task> {
+
+        private final int id;
+
+        TaskReference(Task task, ReferenceQueue<Task> queue) {
+            super(task, queue);
+            this.id = task.getId();
+        }
+    }
+
+    private class TaskView<T extends Task> extends AbstractMap<Integer, T> implements IdOrderedMap<T> {
+
+        private final TaskType taskType;
+        private final Class<T> taskClass;
+
+        TaskView(TaskType taskType, Class<T> taskClass) {
+            this.taskType = taskType;
+            this.taskClass = taskClass;
+        }
+
+        @Override
+        public T get(Object key) {
+            return key instanceof Integer id ? taskClass.cast(TaskPageStore.this.get(id, taskType)) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+
+        @Override
+        public T put(Integer key, T value) {
+            T previous = get(key);
+            TaskPageStore.this.put(value);
+            return previous;
+        }
+
+        @Override
+        public T remove(Object key) {
+            T previous = get(key);
+            if (previous != null) {
+                TaskPageStore.this.remove(previous.getId());
+            }
+            return previous;
+        }
+
+        @Override
+        public int size() {
+            return readHeader().getInt(COUNTS_OFFSET + taskType.ordinal() * Integer.BYTES);
+        }
+
+        // Поиск идёт по страницам индекса и читает только байты типа и статуса записи, не собирая задачи
+
+        @Override
+        public int nextId(int afterId, TaskStatus status) {
+            try {
+                int lastId = getLastId();
+                for (int id = Math.max(afterId + 1, 0); id <= lastId; id++) {
+                    long position = locate(id);
+                    if (position != 0 && readType(position) == taskType
+                            && (status == null || readStatus(position) == status)) {
+                        return id;
+                    }
+                }
+                return -1;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        @Override
+        public Set<Entry<Integer, T>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Integer, T>> iterator() {
+                    return new TaskIterator();
+                }
+
+                @Override
+                public int size() {
+                    return TaskView.this.size();
+                }
+            };
+        }
+
+        // Обход идёт по возрастанию идентификаторов, как и у HashMap с небольшими целыми ключами
+
+        private class TaskIterator implements Iterator<Entry<Integer, T>> {
+
+            private int nextId = 0;
+            private T next;
+            private T current;
+
+            @Override
+            public boolean hasNext() {
+                int lastId = getLastId();
+                while (next == null && nextId <= lastId) {
+                    next = get(nextId++);
+                }
+                return next != null;
+            }
+
+            @Override
+            public Entry<Integer, T> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                current = next;
+                next = null;
+                return new SimpleImmutableEntry<>(current.getId(), current);
+            }
+
+            @Override
+            public void remove() {
+                if (current == null) {
+                    throw new IllegalStateException();
+                }
+                TaskPageStore.this.remove(current.getId());
+                current = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.ListIterator;
+import java.util.RandomAccess;
+import java.util.Spliterator;
+
+// Список int для одного писателя и читателей без блокировок
+
+public class ConcurrentIntList extends AbstractList<Integer> implements RandomAccess {
+
+    private static final Snapshot EMPTY = new Snapshot(new int[0], 0);
+    private volatile Snapshot snapshot = EMPTY;
+
+    @Override
+    public int size() {
+        return snapshot.size;
+    }
+
+    public int getInt(int index) {
+        return snapshot.getInt(index);
+    }
+
+    public void addInt(int value) {
+        Snapshot current = snapshot;
+        int[] values = current.values;
+        if (current.size == values.length) {
+            values = Arrays.copyOf(values, Math.max(current.size * 2, 4));
+        }
+        values[current.size] = value;
+        snapshot = new Snapshot(values, current.size + 1);
+    }
+
+    public int indexOfInt(int value) {
+        return snapshot.indexOfInt(value);
+    }
+
+    public boolean removeInt(int value) {
+        Snapshot current = snapshot;
+        int index = current.indexOfInt(value);
+        if (index < 0) {
+            return false;
+        }
+        int[] values = new int[current.values.length];
+        System.arraycopy(current.values, 0, values, 0, index);
+        System.arraycopy(current.values, index + 1, values, index, current.size - index - 1);
+        snapshot = new Snapshot(values, current.size - 1);
+        return true;
+    }
+
+    public int[] toIntArray() {
+        Snapshot current = snapshot;
+        return Arrays.copyOf(current.values, current.size);
+    }
+
+    @Override
+    public Integer get(int index) {
+        return getInt(index);
+    }
+
+    @Override
+    public boolean add(Integer value) {
+        addInt(value);
+        return true;
+    }
+
+    @Override
+    public boolean remove(Object value) {
+        return value instanceof Integer id && removeInt(id);
+    }
+
+    @Override
+    public boolean contains(Object value) {
+        return value instanceof Integer id && indexOfInt(id) >= 0;
+    }
+
+    @Override
+    public int indexOf(Object value) {
+        return value instanceof Integer id ? indexOfInt(id) : -1;
+    }
+
+    @Override
+    public void clear() {
+        snapshot = EMPTY;
+    }
+
+    // Обход, сравнение и потоки идут по одному снимку
+
+    @Override
+    public Iterator<Integer> iterator() {
+        return snapshot.iterator();
+    }
+
+    @Override
+    public ListIterator<Integer> listIterator(int index) {
+        return snapshot.listIterator(index);
+    }
+
+    @Override
+    public Spliterator<Integer> spliterator() {
+        return snapshot.spliterator();
+    }
+
+    private static class Snapshot extends AbstractList<Integer> implements RandomAccess {
+
+        private final int[] values;
+        private final int size;
+
+        Snapshot(int[] values, int size) {
+            this.values = values;
+            this.size = size;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Integer get(int index) {
+            return getInt(index);
+        }
+
+        int getInt(int index) {
+            if (index < 0 || index >= size) {
+                throw new IndexOutOfBoundsException("Индекс " + index + " вне списка длины " + size);
+            }
+            return values[index];
+        }
+
+        int indexOfInt(int value) {
+            for (int i = 0; i < size; i++) {
+                if (values[i] == value) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,22 @@
+package util;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+// Время в минутах от начала эпохи (UTC)
+
+public final class EpochMinutes {
+
+    public static final long NONE = Long.MIN_VALUE;
+
+    private EpochMinutes() {
+    }
+
+    public static long of(LocalDateTime time) {
+        return time != null ? Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60) : NONE;
+    }
+
+    public static LocalDateTime toDateTime(long epochMinute) {
+        return epochMinute != NONE ? LocalDateTime.ofEpochSecond(epochMinute * 60, 0, ZoneOffset.UTC) : null;
+    }
+}
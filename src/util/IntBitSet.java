@@ -0,0 +1,139 @@
+package util;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Разреженное множество неотрицательных int: 64-битные слова хранятся только для занятых диапазонов
+
+public class IntBitSet {
+
+    private static final Words EMPTY = new Words(new int[0], new AtomicLongArray(0), 0);
+    private volatile Words words = EMPTY;
+    private int size = 0;
+
+    public boolean contains(int value) {
+        if (value < 0) {
+            return false;
+        }
+        Words current = words;
+        int index = current.indexOf(value >>> 6);
+        return index >= 0 && (current.bits.get(index) & 1L << value) != 0;
+    }
+
+    public synchronized boolean add(int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException(String.format("%s %d", "Отрицательное значение:", value));
+        }
+        Words current = words;
+        int index = current.indexOf(value >>> 6);
+        if (index < 0) {
+            index = -index - 1;
+            current = current.insert(index, value >>> 6, 1L << value);
+            words = current;
+            size++;
+            return true;
+        }
+        long word = current.bits.get(index);
+        if ((word & 1L << value) != 0) {
+            return false;
+        }
+        current.bits.set(index, word | 1L << value);
+        size++;
+        return true;
+    }
+
+    public synchronized boolean remove(int value) {
+        if (value < 0) {
+            return false;
+        }
+        Words current = words;
+        int index = current.indexOf(value >>> 6);
+        if (index < 0) {
+            return false;
+        }
+        long word = current.bits.get(index);
+        if ((word & 1L << value) == 0) {
+            return false;
+        }
+        current.bits.set(index, word & ~(1L << value));
+        if (current.bits.get(index) == 0) {
+            words = current.without(index);
+        }
+        size--;
+        return true;
+    }
+
+    public synchronized void clear() {
+        words = EMPTY;
+        size = 0;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    // Наименьший элемент больше after или -1, если таких нет
+
+    public int nextAfter(int after) {
+        if (after == Integer.MAX_VALUE) {
+            return -1;
+        }
+        int from = Math.max(after + 1, 0);
+        Words current = words;
+        int index = current.indexOf(from >>> 6);
+        long mask = -1L << from;
+        if (index < 0) {
+            index = -index - 1;
+            mask = -1L;
+        }
+        for (; index < current.count; index++) {
+            long word = current.bits.get(index) & mask;
+            if (word != 0) {
+                return (current.keys[index] << 6) + Long.numberOfTrailingZeros(word);
+            }
+            mask = -1L;
+        }
+        return -1;
+    }
+
+    // Слова по возрастанию ключа:
+
+    private record Words(int[] keys, AtomicLongArray bits, int count) {
+
+        int indexOf(int key) {
+            return Arrays.binarySearch(keys, 0, count, key);
+        }
+
+        Words insert(int index, int key, long word) {
+            if (index == count && count < keys.length) {
+                keys[count] = key;
+                bits.set(count, word);
+                return new Words(keys, bits, count + 1);
+            }
+            int capacity = count < keys.length ? keys.length : Math.max(count * 2, 4);
+            int[] newKeys = new int[capacity];
+            AtomicLongArray newBits = new AtomicLongArray(capacity);
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(keys, index, newKeys, index + 1, count - index);
+            for (int i = 0; i < count; i++) {
+                newBits.set(i < index ? i : i + 1, bits.get(i));
+            }
+            newKeys[index] = key;
+            newBits.set(index, word);
+            return new Words(newKeys, newBits, count + 1);
+        }
+
+        Words without(int index) {
+            int[] newKeys = new int[keys.length];
+            AtomicLongArray newBits = new AtomicLongArray(keys.length);
+            System.arraycopy(keys, 0, newKeys, 0, index);
+            System.arraycopy(keys, index + 1, newKeys, index, count - index - 1);
+            for (int i = 0; i < count; i++) {
+                if (i != index) {
+                    newBits.set(i < index ? i : i - 1, bits.get(i));
+                }
+            }
+            return new Words(newKeys, newBits, count - 1);
+        }
+    }
+}
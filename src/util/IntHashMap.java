@@ -0,0 +1,249 @@
+package util;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+// Отображение с ключами int на открытой адресации
+
+public class IntHashMap<V> extends AbstractMap<Integer, V> {
+
+    private static final int MIN_CAPACITY = 16;
+    private int[] keys;
+    private Object[] values;
+    private int size = 0;
+    private int modCount = 0;
+    private Set<Entry<Integer, V>> entrySet;
+
+    public IntHashMap() {
+        this(MIN_CAPACITY);
+    }
+
+    public IntHashMap(int expectedSize) {
+        int capacity = tableSizeFor(expectedSize);
+        keys = new int[capacity];
+        values = new Object[capacity];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(int key) {
+        int index = indexOf(key);
+        return index >= 0 ? (V) values[index] : null;
+    }
+
+    public boolean containsKey(int key) {
+        return indexOf(key) >= 0;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V put(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("IntHashMap не хранит значения null");
+        }
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (values[index] != null) {
+            if (keys[index] == key) {
+                V previous = (V) values[index];
+                values[index] = value;
+                return previous;
+            }
+            index = (index + 1) & mask;
+        }
+        keys[index] = key;
+        values[index] = value;
+        modCount++;
+        if (++size > keys.length * 3 / 4) {
+            resize(keys.length * 2);
+        }
+        return null;
+    }
+
+    @SuppressWarnings("unchecked")
+    public V remove(int key) {
+        int index = indexOf(key);
+        if (index < 0) {
+            return null;
+        }
+        V previous = (V) values[index];
+        removeAt(index);
+        return previous;
+    }
+
+    @Override
+    public V get(Object key) {
+        return key instanceof Integer id ? get(id.intValue()) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return key instanceof Integer id && containsKey(id.intValue());
+    }
+
+    @Override
+    public V put(Integer key, V value) {
+        return put(key.intValue(), value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return key instanceof Integer id ? remove(id.intValue()) : null;
+    }
+
+    @Override
+    public void clear() {
+        if (size == 0) {
+            return;
+        }
+        keys = new int[MIN_CAPACITY];
+        values = new Object[MIN_CAPACITY];
+        size = 0;
+        modCount++;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void forEach(BiConsumer<? super Integer, ? super V> action) {
+        int expectedModCount = modCount;
+        for (int i = 0; i < values.length; i++) {
+            if (values[i] != null) {
+                action.accept(keys[i], (V) values[i]);
+            }
+        }
+        if (modCount != expectedModCount) {
+            throw new ConcurrentModificationException();
+        }
+    }
+
+    @Override
+    public Set<Entry<Integer, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    private int indexOf(int key) {
+        int mask = keys.length - 1;
+        int index = hash(key) & mask;
+        while (values[index] != null) {
+            if (keys[index] == key) {
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    // Удаление со сдвигом назад: элемент, чья цепочка проходила через освобождённую ячейку, переносится в неё
+
+    private void removeAt(int index) {
+        int mask = keys.length - 1;
+        int hole = index;
+        int next = (hole + 1) & mask;
+        while (values[next] != null) {
+            int home = hash(keys[next]) & mask;
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                keys[hole] = keys[next];
+                values[hole] = values[next];
+                hole = next;
+            }
+            next = (next + 1) & mask;
+        }
+        values[hole] = null;
+        size--;
+        modCount++;
+    }
+
+    private void resize(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldValues.length; i++) {
+            if (oldValues[i] != null) {
+                int index = hash(oldKeys[i]) & mask;
+                while (values[index] != null) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                values[index] = oldValues[i];
+            }
+        }
+    }
+
+    private static int hash(int key) {
+        return key ^ (key >>> 16);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity * 3 / 4 < expectedSize) {
+            capacity *= 2;
+        }
+        return capacity;
+    }
+
+    private class EntrySet extends AbstractSet<Entry<Integer, V>> {
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public void clear() {
+            IntHashMap.this.clear();
+        }
+
+        @Override
+        public Iterator<Entry<Integer, V>> iterator() {
+            return new EntryIterator();
+        }
+    }
+
+    // Удаление через итератор не поддерживается:
+
+    private class EntryIterator implements Iterator<Entry<Integer, V>> {
+
+        private final int expectedModCount = modCount;
+        private int index = advance(0);
+
+        @Override
+        public boolean hasNext() {
+            return index < values.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Entry<Integer, V> next() {
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+            if (index >= values.length) {
+                throw new NoSuchElementException();
+            }
+            Entry<Integer, V> entry = new SimpleImmutableEntry<>(keys[index], (V) values[index]);
+            index = advance(index + 1);
+            return entry;
+        }
+
+        private int advance(int from) {
+            int i = from;
+            while (i < values.length && values[i] == null) {
+                i++;
+            }
+            return i;
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package util;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.RandomAccess;
+
+// Список int на массиве без упаковки элементов
+
+public class IntList extends AbstractList<Integer> implements RandomAccess {
+
+    private int[] values;
+    private int size = 0;
+
+    public IntList() {
+        this(8);
+    }
+
+    public IntList(int capacity) {
+        values = new int[Math.max(capacity, 1)];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public int getInt(int index) {
+        checkIndex(index);
+        return values[index];
+    }
+
+    public void addInt(int value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+        modCount++;
+    }
+
+    public int indexOfInt(int value) {
+        for (int i = 0; i < size; i++) {
+            if (values[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean removeInt(int value) {
+        int index = indexOfInt(value);
+        if (index < 0) {
+            return false;
+        }
+        removeAt(index);
+        return true;
+    }
+
+    public int[] toIntArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    @Override
+    public Integer get(int index) {
+        return getInt(index);
+    }
+
+    @Override
+    public Integer set(int index, Integer value) {
+        checkIndex(index);
+        int previous = values[index];
+        values[index] = value;
+        return previous;
+    }
+
+    @Override
+    public boolean add(Integer value) {
+        addInt(value);
+        return true;
+    }
+
+    @Override
+    public void add(int index, Integer value) {
+        if (index < 0 || index > size) {
+            throw new IndexOutOfBoundsException("Индекс " + index + " вне списка длины " + size);
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        System.arraycopy(values, index, values, index + 1, size - index);
+        values[index] = value;
+        size++;
+        modCount++;
+    }
+
+    @Override
+    public Integer remove(int index) {
+        checkIndex(index);
+        int previous = values[index];
+        removeAt(index);
+        return previous;
+    }
+
+    @Override
+    public boolean remove(Object value) {
+        return value instanceof Integer id && removeInt(id);
+    }
+
+    @Override
+    public boolean contains(Object value) {
+        return value instanceof Integer id && indexOfInt(id) >= 0;
+    }
+
+    @Override
+    public int indexOf(Object value) {
+        return value instanceof Integer id ? indexOfInt(id) : -1;
+    }
+
+    @Override
+    public void clear() {
+        size = 0;
+        modCount++;
+    }
+
+    private void removeAt(int index) {
+        System.arraycopy(values, index + 1, values, index, size - index - 1);
+        size--;
+        modCount++;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Индекс " + index + " вне списка длины " + size);
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package http.handler;
+
+import http.HttpTaskServerTest;
+import model.Task;
+import org.junit.jupiter.api.Test;
+import com.google.gson.JsonObject;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Month;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlotHandlerTest extends HttpTaskServerTest {
+
+    protected SlotHandlerTest() throws IOException {
+    }
+
+    @Test
+    public void testGetFreeSlot() throws IOException, InterruptedException {
+        Task task = new Task("task", "description",
+                LocalDateTime.of(2024, Month.JULY, 17, 12, 30), Duration.ofMinutes(15));
+        manager.createTask(task);
+        URI url = URI.create("http://localhost:8080/slots?duration=30&after=17.07.24%2012:30");
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        JsonObject slot = gson.fromJson(response.body(), JsonObject.class);
+        assertEquals(200, response.statusCode());
+        assertEquals("17.07.24 13:00", slot.get("startTime").getAsString());
+        assertEquals("17.07.24 13:30", slot.get("endTime").getAsString());
+    }
+
+    @Test
+    public void testGetFreeSlotWithBadParameters() throws IOException, InterruptedException {
+        URI url = URI.create("http://localhost:8080/slots?duration=abc");
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, response.statusCode());
+    }
+}
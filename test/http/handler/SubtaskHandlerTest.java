@@ -3,6 +3,7 @@ package http.handler;
 import http.HttpTaskServerTest;
 import model.Epic;
 import model.Subtask;
+import model.TaskStatus;
 import org.junit.jupiter.api.Test;
 import com.google.gson.reflect.TypeToken;
 import java.io.IOException;
@@ -41,6 +42,36 @@ class SubtaskHandlerTest extends HttpTaskServerTest {
         assertEquals(listOfAllSubtasks, subtasksFromRequest);
     }
 
+    @Test
+    public void testFindSubtasksByStatusAndTime() throws IOException, InterruptedException {
+        Epic epic = new Epic("epic", "description");
+        manager.createEpic(epic);
+        Subtask subtask1 = new Subtask("subtask1", "description1",
+                LocalDateTime.of(2024, Month.JULY, 17, 10, 30), Duration.ofMinutes(5),
+                epic.getId());
+        manager.createSubtask(subtask1);
+        Subtask subtask2 = new Subtask("subtask2", "description2",
+                LocalDateTime.of(2024, Month.JULY, 24, 11, 30), Duration.ofMinutes(10),
+                epic.getId());
+        manager.createSubtask(subtask2);
+        subtask1.setTaskStatus(TaskStatus.IN_PROGRESS);
+        manager.updateSubtask(subtask1);
+        subtask2.setTaskStatus(TaskStatus.IN_PROGRESS);
+        manager.updateSubtask(subtask2);
+        URI url = URI.create("http://localhost:8080/subtasks?status=IN_PROGRESS&epic=" + epic.getId()
+                + "&from=15.07.24%2000:00&to=21.07.24%2023:59");
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        List<Subtask> subtasksFromRequest = gson.fromJson(response.body(), new SubtaskListTypeToken().getType());
+        assertEquals(200, response.statusCode());
+        assertEquals(List.of(subtask1), subtasksFromRequest);
+
+        url = URI.create("http://localhost:8080/subtasks?status=STARTED");
+        request = HttpRequest.newBuilder().uri(url).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, response.statusCode());
+    }
+
     @Test
     public void testGetSubtaskById() throws IOException, InterruptedException {
         Epic epic = new Epic("epic", "description");
@@ -3,6 +3,7 @@ package http.handler;
 import http.HttpTaskServerTest;
 import model.Task;
 import org.junit.jupiter.api.Test;
+import com.google.gson.JsonObject;
 import com.google.gson.reflect.TypeToken;
 import java.io.IOException;
 import java.net.URI;
@@ -19,6 +20,28 @@ class TaskHandlerTest extends HttpTaskServerTest {
     protected TaskHandlerTest() throws IOException {
     }
 
+    @Test
+    public void testGetPageOfTasks() throws IOException, InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            manager.createTask(new Task("task" + i, "description" + i,
+                    LocalDateTime.of(2024, Month.JULY, 17, 10 + i, 30), Duration.ofMinutes(15)));
+        }
+        URI url = URI.create("http://localhost:8080/tasks?limit=2");
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        JsonObject page = gson.fromJson(response.body(), JsonObject.class);
+        List<Task> items = gson.fromJson(page.get("items"), new TaskListTypeToken().getType());
+        assertEquals(200, response.statusCode());
+        assertEquals(manager.getTasksPage(null, 2).getItems(), items);
+
+        url = URI.create("http://localhost:8080/tasks?limit=2&cursor=" + page.get("nextCursor").getAsString());
+        request = HttpRequest.newBuilder().uri(url).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        page = gson.fromJson(response.body(), JsonObject.class);
+        assertEquals(1, page.getAsJsonArray("items").size());
+        assertEquals("task2", page.getAsJsonArray("items").get(0).getAsJsonObject().get("title").getAsString());
+    }
+
     @Test
     public void testGetListOfAllTasks() throws IOException, InterruptedException {
         Task task1 = new Task("task1", "description1",
@@ -84,6 +107,31 @@ class TaskHandlerTest extends HttpTaskServerTest {
         assertEquals(task.getDescription(), "description2");
     }
 
+    @Test
+    public void shouldReturn400IfDurationDoesNotFitInMinutes() throws IOException, InterruptedException {
+        String taskJson = "{\"title\":\"task\",\"description\":\"description\",\"startTime\":\"17.07.24 12:30\","
+                + "\"duration\":" + (Integer.MAX_VALUE + 1L) + "}";
+        URI url = URI.create("http://localhost:8080/tasks");
+        HttpRequest request = HttpRequest.newBuilder().uri(url).POST(HttpRequest.BodyPublishers.ofString(taskJson))
+                .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, response.statusCode());
+        assertTrue(manager.getAllTasks().isEmpty());
+    }
+
+    @Test
+    public void shouldReturn400IfTaskIdIsNegative() throws IOException, InterruptedException {
+        Task task = new Task("task", "description",
+                LocalDateTime.of(2024, Month.JULY, 17, 12, 30), Duration.ofMinutes(15));
+        task.setId(-3);
+        URI url = URI.create("http://localhost:8080/tasks");
+        HttpRequest request = HttpRequest.newBuilder().uri(url)
+                .POST(HttpRequest.BodyPublishers.ofString(gson.toJson(task))).build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, response.statusCode());
+        assertTrue(manager.getAllTasks().isEmpty());
+    }
+
     @Test
     public void shouldDeleteTaskById() throws IOException, InterruptedException {
         Task task = new Task("task", "description",
@@ -119,6 +167,20 @@ class TaskHandlerTest extends HttpTaskServerTest {
         assertEquals(404, response.statusCode());
     }
 
+    @Test
+    public void shouldReturnTaskTimesInMinuteFormat() throws IOException, InterruptedException {
+        Task task = new Task("task", "description",
+                LocalDateTime.of(2024, Month.JULY, 17, 12, 30), Duration.ofMinutes(45));
+        manager.createTask(task);
+        URI url = URI.create("http://localhost:8080/tasks/" + task.getId());
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        JsonObject taskJson = gson.fromJson(response.body(), JsonObject.class);
+        assertEquals("17.07.24 12:30", taskJson.get("startTime").getAsString());
+        assertEquals(45, taskJson.get("duration").getAsInt());
+        assertEquals("NEW", taskJson.get("status").getAsString());
+    }
+
     static class TaskListTypeToken extends TypeToken<List<Task>> {
     }
 }
\ No newline at end of file
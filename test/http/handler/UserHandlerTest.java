@@ -3,11 +3,14 @@ package http.handler;
 import http.HttpTaskServerTest;
 import model.Task;
 import org.junit.jupiter.api.Test;
+import com.google.gson.JsonObject;
 import com.google.gson.reflect.TypeToken;
 import java.io.IOException;
 import java.net.URI;
+import java.net.URLEncoder;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.Month;
@@ -57,4 +60,32 @@ class UserHandlerTest extends HttpTaskServerTest {
 
     static class TaskListTypeToken extends TypeToken<List<Task>> {
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testGetPrioritizedPage() throws IOException, InterruptedException {
+        for (int i = 0; i < 3; i++) {
+            manager.createTask(new Task("task" + i, "description" + i,
+                    LocalDateTime.of(2024, Month.JULY, 17, 14 - i, 30), Duration.ofMinutes(15)));
+        }
+        URI url = URI.create("http://localhost:8080/prioritized?cursor=&limit=2");
+        HttpRequest request = HttpRequest.newBuilder().uri(url).GET().build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        JsonObject page = gson.fromJson(response.body(), JsonObject.class);
+        assertEquals(200, response.statusCode());
+        assertEquals("task2", page.getAsJsonArray("items").get(0).getAsJsonObject().get("title").getAsString());
+        assertEquals(2, page.getAsJsonArray("items").size());
+
+        url = URI.create("http://localhost:8080/prioritized?limit=2&cursor="
+                + URLEncoder.encode(page.get("nextCursor").getAsString(), StandardCharsets.UTF_8));
+        request = HttpRequest.newBuilder().uri(url).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        page = gson.fromJson(response.body(), JsonObject.class);
+        assertEquals("task0", page.getAsJsonArray("items").get(0).getAsJsonObject().get("title").getAsString());
+        assertFalse(page.has("nextCursor"));
+
+        url = URI.create("http://localhost:8080/prioritized?limit=-1");
+        request = HttpRequest.newBuilder().uri(url).GET().build();
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        assertEquals(400, response.statusCode());
+    }
+}
@@ -0,0 +1,69 @@
+package manager;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarTaskManagerTest extends TaskManagerTest<ColumnarTaskManager> {
+
+    @Override
+    protected ColumnarTaskManager createTaskManager() {
+        return new ColumnarTaskManager();
+    }
+
+    @Test
+    void shouldCountTasksByStatusFromColumns() {
+        Task task1 = new Task("Task1", "Task1_Description", null, null);
+        taskManager.createTask(task1);
+        Task task2 = new Task("Task2", "Task2_Description", null, null);
+        taskManager.createTask(task2);
+        Epic epic = new Epic("Epic1", "Epic1_Description");
+        taskManager.createEpic(epic);
+        Subtask subtask = new Subtask("Subtask1", "Subtask1_Description", null, null, epic.getId());
+        taskManager.createSubtask(subtask);
+        task2.setTaskStatus(TaskStatus.DONE);
+        taskManager.updateTask(task2);
+        subtask.setTaskStatus(TaskStatus.IN_PROGRESS);
+        taskManager.updateSubtask(subtask);
+
+        assertEquals(1, taskManager.countByStatus(TaskType.TASK, TaskStatus.NEW));
+        assertEquals(1, taskManager.countByStatus(TaskType.TASK, TaskStatus.DONE));
+        assertEquals(1, taskManager.countByStatus(TaskType.EPIC, TaskStatus.IN_PROGRESS));
+        taskManager.removeTaskById(task2.getId());
+        assertEquals(0, taskManager.countByStatus(TaskType.TASK, TaskStatus.DONE));
+    }
+
+    @Test
+    void shouldFindTasksStartingInRange() {
+        Task task = new Task("Task1", "Task1_Description",
+                LocalDateTime.of(2024, Month.JULY, 16, 10, 0), Duration.ofMinutes(30));
+        taskManager.createTask(task);
+        Epic epic = new Epic("Epic1", "Epic1_Description");
+        taskManager.createEpic(epic);
+        Subtask subtask1 = new Subtask("Subtask1", "Subtask1_Description",
+                LocalDateTime.of(2024, Month.JULY, 16, 11, 0), Duration.ofMinutes(30), epic.getId());
+        taskManager.createSubtask(subtask1);
+        Subtask subtask2 = new Subtask("Subtask2", "Subtask2_Description",
+                LocalDateTime.of(2024, Month.JULY, 16, 15, 0), Duration.ofMinutes(30), epic.getId());
+        taskManager.createSubtask(subtask2);
+
+        List<Task> found = taskManager.getTasksStartingBetween(LocalDateTime.of(2024, Month.JULY, 16, 10, 0),
+                LocalDateTime.of(2024, Month.JULY, 16, 12, 0));
+        assertEquals(List.of(task, subtask1), found);
+    }
+
+    @Test
+    void shouldReturnSameInstanceWhileItIsHeld() {
+        Task task = new Task("Task1", "Task1_Description", null, null);
+        taskManager.createTask(task);
+        assertTrue(task == taskManager.getTaskById(task.getId()));
+    }
+}
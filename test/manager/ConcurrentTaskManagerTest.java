@@ -0,0 +1,231 @@
+package manager;
+
+import exceptions.TimeConflictException;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+import org.junit.jupiter.api.Test;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentTaskManagerTest extends TaskManagerTest<ConcurrentTaskManager> {
+
+    private static final int THREADS = 8;
+    private static final LocalDateTime START_TIME = LocalDateTime.of(2024, Month.JULY, 16, 0, 0);
+
+    @Override
+    protected ConcurrentTaskManager createTaskManager() {
+        return new ConcurrentTaskManager();
+    }
+
+    @Test
+    void concurrentWritersShouldGetUniqueIdsAndConsistentIndex() throws Exception {
+        Epic epic = new Epic("Epic1", "Epic1_Description");
+        taskManager.createEpic(epic);
+        int perThread = 200;
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<List<Integer>>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                List<Integer> ids = new ArrayList<>();
+                for (int i = 0; i < perThread; i++) {
+                    LocalDateTime startTime = START_TIME.plusMinutes((thread * perThread + i) * 10L);
+                    if (i % 2 == 0) {
+                        ids.add(taskManager.createTask(new Task("Task", "Описание задачи", startTime,
+                                Duration.ofMinutes(5))));
+                    } else {
+                        ids.add(taskManager.createSubtask(new Subtask("Subtask", "Описание подзадачи", startTime,
+                                Duration.ofMinutes(5), epic.getId())));
+                    }
+                    taskManager.getPrioritizedTasks();
+                    taskManager.getTaskById(ids.getFirst());
+                }
+                return ids;
+            }));
+        }
+        HashSet<Integer> ids = new HashSet<>();
+        for (Future<List<Integer>> future : futures) {
+            ids.addAll(future.get());
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        assertEquals(THREADS * perThread, ids.size());
+        assertEquals(THREADS * perThread / 2, taskManager.getAllTasks().size());
+        assertEquals(THREADS * perThread / 2, epic.getSubtaskId().size());
+        assertEquals(THREADS * perThread / 2 * 5, epic.getDuration().toMinutes());
+        assertEquals(START_TIME.plusMinutes(10), epic.getStartTime());
+        List<Task> prioritizedTasks = taskManager.getPrioritizedTasks();
+        assertEquals(THREADS * perThread, prioritizedTasks.size());
+        for (int i = 1; i < prioritizedTasks.size(); i++) {
+            assertTrue(prioritizedTasks.get(i - 1).getStartTime().isBefore(prioritizedTasks.get(i).getStartTime()));
+        }
+    }
+
+    @Test
+    void onlyOneOfConflictingTasksShouldBeCreated() throws Exception {
+        AtomicInteger conflicts = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            int thread = t;
+            futures.add(executor.submit(() -> {
+                try {
+                    taskManager.createTask(new Task("Task" + thread, "Описание задачи",
+                            START_TIME.plusMinutes(thread), Duration.ofMinutes(30)));
+                } catch (TimeConflictException e) {
+                    conflicts.incrementAndGet();
+                }
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        executor.shutdown();
+        assertEquals(1, taskManager.getAllTasks().size());
+        assertEquals(THREADS - 1, conflicts.get());
+    }
+
+    @Test
+    void inPlaceUpdateShouldMoveTaskInPrioritizedTasks() {
+        Epic epic = new Epic("Epic1", "Epic1_Description");
+        taskManager.createEpic(epic);
+        Task task = new Task("Task1", "Описание задачи", START_TIME, Duration.ofMinutes(5));
+        taskManager.createTask(task);
+        Subtask subtask = new Subtask("Subtask1", "Описание подзадачи", START_TIME.plusHours(1),
+                Duration.ofMinutes(5), epic.getId());
+        taskManager.createSubtask(subtask);
+        assertEquals(List.of(task, subtask), taskManager.getPrioritizedTasks());
+
+        task.setStartTime(START_TIME.plusHours(2));
+        taskManager.updateTask(task);
+        assertEquals(List.of(subtask, task), taskManager.getPrioritizedTasks());
+        subtask.setTaskStatus(TaskStatus.DONE);
+        subtask.setStartTime(START_TIME.plusHours(3));
+        taskManager.updateSubtask(subtask);
+        assertEquals(List.of(task, subtask), taskManager.getPrioritizedTasks());
+        assertEquals(TaskStatus.DONE, epic.getTaskStatus());
+        assertEquals(START_TIME.plusHours(3), epic.getStartTime());
+        taskManager.removeEpicById(epic.getId());
+        assertEquals(List.of(task), taskManager.getPrioritizedTasks());
+    }
+
+    @Test
+    void readersShouldIterateEpicSubtasksWhileTheyChange() throws Exception {
+        Epic epic = new Epic("Epic1", "Epic1_Description");
+        taskManager.createEpic(epic);
+        int subtasksCount = 2000;
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        Future<?> writer = executor.submit(() -> {
+            for (int i = 0; i < subtasksCount; i++) {
+                int id = taskManager.createSubtask(new Subtask("Subtask", "Описание подзадачи", null, null,
+                        epic.getId()));
+                if (i % 3 == 0) {
+                    taskManager.removeSubtaskById(id);
+                }
+            }
+        });
+        List<Future<?>> readers = new ArrayList<>();
+        for (int t = 1; t < THREADS; t++) {
+            readers.add(executor.submit(() -> {
+                while (!writer.isDone()) {
+                    TaskQuery query = new TaskQuery();
+                    query.setEpicId(epic.getId());
+                    for (Task subtask : taskManager.findTasks(query)) {
+                        assertEquals(epic.getId(), ((Subtask) subtask).getEpicId());
+                    }
+                    int count = 0;
+                    for (Integer ignored : taskManager.getEpicById(epic.getId()).getSubtaskId()) {
+                        count++;
+                    }
+                    assertTrue(count <= subtasksCount);
+                }
+            }));
+        }
+        writer.get();
+        for (Future<?> reader : readers) {
+            reader.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        assertEquals(subtasksCount - (subtasksCount + 2) / 3, epic.getSubtaskId().size());
+        assertEquals(epic.getSubtaskId().size(), taskManager.getAllSubtasks().size());
+    }
+
+    @Test
+    void filterByStatusShouldMatchEpicsAfterConcurrentChanges() throws Exception {
+        int writers = THREADS / 2;
+        List<Subtask> subtasks = new ArrayList<>();
+        for (int t = 0; t < writers; t++) {
+            Epic epic = new Epic("Epic" + t, "Описание эпика");
+            taskManager.createEpic(epic);
+            Subtask subtask = new Subtask("Subtask" + t, "Описание подзадачи", null, null, epic.getId());
+            taskManager.createSubtask(subtask);
+            subtasks.add(subtask);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> writerFutures = new ArrayList<>();
+        for (Subtask subtask : subtasks) {
+            writerFutures.add(executor.submit(() -> {
+                for (int i = 0; i < 500; i++) {
+                    Subtask changed = new Subtask(subtask.getTitle(), subtask.getDescription(), null, null,
+                            subtask.getEpicId());
+                    changed.setId(subtask.getId());
+                    changed.setTaskStatus(TaskStatus.values()[i % TaskStatus.values().length]);
+                    taskManager.updateSubtask(changed);
+                    taskManager.createEpic(new Epic("Epic", "Описание эпика"));
+                }
+            }));
+        }
+        List<Future<?>> readers = new ArrayList<>();
+        for (int t = writers; t < THREADS; t++) {
+            readers.add(executor.submit(() -> {
+                while (writerFutures.stream().anyMatch(future -> !future.isDone())) {
+                    for (TaskStatus status : TaskStatus.values()) {
+                        TaskQuery query = new TaskQuery();
+                        query.setType(TaskType.EPIC);
+                        query.setStatus(status);
+                        List<Task> found = taskManager.findTasks(query);
+                        assertEquals(found.size(), new HashSet<>(found).size());
+                        assertTrue(found.stream().allMatch(task -> task instanceof Epic));
+                    }
+                }
+            }));
+        }
+        for (Future<?> writer : writerFutures) {
+            writer.get();
+        }
+        for (Future<?> reader : readers) {
+            reader.get();
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+
+        for (TaskStatus status : TaskStatus.values()) {
+            TaskQuery query = new TaskQuery();
+            query.setType(TaskType.EPIC);
+            query.setStatus(status);
+            List<Integer> expected = taskManager.getAllEpics().stream()
+                    .filter(epic -> epic.getTaskStatus() == status)
+                    .map(Task::getId)
+                    .sorted()
+                    .toList();
+            assertEquals(expected, taskManager.findTasks(query).stream().map(Task::getId).toList());
+        }
+        assertEquals(writers * 501, taskManager.getAllEpics().size());
+    }
+}
@@ -0,0 +1,73 @@
+package manager;
+
+import model.Epic;
+import model.Subtask;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+import util.EpochMinutes;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EpicAggregateTest {
+
+    private static final LocalDateTime START_TIME = LocalDateTime.of(2024, Month.JULY, 16, 0, 0);
+
+    @Test
+    void aggregatesShouldMatchRecomputation() {
+        Random random = new Random(7);
+        EpicAggregate aggregate = new EpicAggregate();
+        Map<Integer, Subtask> subtasks = new HashMap<>();
+        for (int step = 0; step < 3000; step++) {
+            int id = random.nextInt(200) + 1;
+            if (random.nextInt(4) == 0) {
+                aggregate.remove(id);
+                subtasks.remove(id);
+            } else {
+                Subtask subtask = new Subtask("Subtask" + id, "Описание подзадачи",
+                        START_TIME.plusMinutes(random.nextInt(100)), Duration.ofMinutes(random.nextInt(60)), 1);
+                subtask.setId(id);
+                subtask.setTaskStatus(TaskStatus.values()[random.nextInt(TaskStatus.values().length)]);
+                aggregate.add(subtask);
+                subtasks.put(id, subtask);
+            }
+
+            assertEquals(subtasks.size(), aggregate.size());
+            assertEquals(subtasks.values().stream().map(Subtask::getStartTime).min(LocalDateTime::compareTo)
+                    .orElse(null), EpochMinutes.toDateTime(aggregate.getStartMinute()));
+            assertEquals(subtasks.values().stream().map(Subtask::getEndTime).max(LocalDateTime::compareTo)
+                    .orElse(null), EpochMinutes.toDateTime(aggregate.getEndMinute()));
+            assertEquals(subtasks.values().stream().map(Subtask::getDuration).reduce(Duration.ZERO, Duration::plus),
+                    Duration.ofMinutes(aggregate.getDurationMinutes()));
+            TaskStatus status = TaskStatus.IN_PROGRESS;
+            if (subtasks.values().stream().allMatch(subtask -> subtask.getTaskStatus() == TaskStatus.NEW)) {
+                status = TaskStatus.NEW;
+            } else if (subtasks.values().stream().allMatch(subtask -> subtask.getTaskStatus() == TaskStatus.DONE)) {
+                status = TaskStatus.DONE;
+            }
+            assertEquals(status, aggregate.getStatus());
+        }
+    }
+
+    @Test
+    void shouldRemovePreviousContributionOfSubtaskChangedInPlace() {
+        EpicAggregate aggregate = new EpicAggregate();
+        Subtask subtask = new Subtask("Subtask", "Описание подзадачи", START_TIME, Duration.ofMinutes(30), 1);
+        subtask.setId(2);
+        aggregate.add(subtask);
+        subtask.setStartTime(START_TIME.plusHours(1));
+        subtask.setTaskStatus(TaskStatus.DONE);
+        aggregate.add(subtask);
+
+        Epic epic = new Epic("Epic", "Описание эпика");
+        aggregate.applyTo(epic);
+        assertEquals(START_TIME.plusHours(1), epic.getStartTime());
+        assertEquals(START_TIME.plusMinutes(90), epic.getEndTime());
+        assertEquals(Duration.ofMinutes(30), epic.getDuration());
+        assertEquals(TaskStatus.DONE, epic.getTaskStatus());
+    }
+}
@@ -1,14 +1,25 @@
 package manager;
 
+import exceptions.WriteQueueFullException;
 import model.Epic;
 import model.Subtask;
 import model.Task;
+import model.TaskStatus;
+import model.TaskType;
 import org.junit.jupiter.api.Test;
+import storage.BlockCompression;
+import storage.JournalReader;
+import storage.TaskJournal;
 import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.Month;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -98,4 +109,457 @@ public class FileBackedTaskManagerTest extends TaskManagerTest<FileBackedTaskMan
             throw new RuntimeException();
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    void journalModeShouldAppendRecordsWithoutRewritingSnapshot() throws IOException {
+        File tmpFile = File.createTempFile("test", "csv");
+        File journalFile = new File(tmpFile.getPath() + ".journal");
+        StorageSettings settings = new StorageSettings();
+        settings.setPersistenceMode(PersistenceMode.JOURNAL);
+        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(tmpFile, settings);
+        Task task = new Task("Task1", "Task1_Description",
+                LocalDateTime.of(2024, Month.JULY, 16, 13, 30), Duration.ofMinutes(2));
+        fileBackedTaskManager.createTask(task);
+        Epic epic = new Epic("Epic1", "Epic1_Description");
+        fileBackedTaskManager.createEpic(epic);
+        fileBackedTaskManager.removeTaskById(task.getId());
+        fileBackedTaskManager.close();
+        String[] snapshot = Files.readString(tmpFile.toPath()).split("\n");
+        String[] journal;
+        try (JournalReader journalReader = new JournalReader(journalFile)) {
+            journal = new String(journalReader.readAllBytes(), StandardCharsets.UTF_8).split("\n");
+        }
+        assertEquals(1, snapshot.length);
+        assertEquals(3, journal.length);
+        assertEquals("PUT,1,TASK,Task1,NEW,Task1_Description,16.07.24 13:30,2", journal[0]);
+        assertEquals("REMOVE,1", journal[2]);
+        tmpFile.deleteOnExit();
+        journalFile.deleteOnExit();
+    }
+
+    @Test
+    void journalModeShouldRestoreSnapshotAndJournalWithPersistedIds() throws IOException {
+        File tmpFile = File.createTempFile("test", "csv");
+        File journalFile = new File(tmpFile.getPath() + ".journal");
+        StorageSettings settings = new StorageSettings();
+        settings.setPersistenceMode(PersistenceMode.JOURNAL);
+        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(tmpFile, settings);
+        Task task = new Task("Task1", "Task1_Description",
+                LocalDateTime.of(2024, Month.JULY, 16, 13, 30), Duration.ofMinutes(2));
+        fileBackedTaskManager.createTask(task);
+        Epic epic = new Epic("Epic1", "Epic1_Description");
+        fileBackedTaskManager.createEpic(epic);
+        Subtask subtask = new Subtask("Subtask1", "Subtask1_Description",
+                LocalDateTime.of(2024, Month.JULY, 16, 14, 10), Duration.ofMinutes(1), epic.getId());
+        fileBackedTaskManager.createSubtask(subtask);
+        fileBackedTaskManager.removeTaskById(task.getId());
+        fileBackedTaskManager.close();
+        FileBackedTaskManager restoredManager = FileBackedTaskManager.loadFromFile(tmpFile, settings);
+        assertEquals(0, restoredManager.getAllTasks().size());
+        assertEquals(epic.getId(), restoredManager.getAllEpics().getFirst().getId());
+        assertEquals(subtask.getId(), restoredManager.getAllSubtasks().getFirst().getId());
+        assertEquals(subtask.getStartTime(), restoredManager.getEpicById(epic.getId()).getStartTime());
+        Task newTask = new Task("Task2", "Task2_Description",
+                LocalDateTime.of(2024, Month.JULY, 16, 16, 0), Duration.ofMinutes(2));
+        assertEquals(subtask.getId() + 1, restoredManager.createTask(newTask));
+        restoredManager.close();
+        tmpFile.deleteOnExit();
+        journalFile.deleteOnExit();
+    }
+
+    @Test
+    void journalModeShouldFindEpicsByRestoredStatus() throws IOException {
+        File tmpFile = File.createTempFile("test", "csv");
+        File journalFile = new File(tmpFile.getPath() + ".journal");
+        StorageSettings settings = new StorageSettings();
+        settings.setPersistenceMode(PersistenceMode.JOURNAL);
+        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(tmpFile, settings);
+        Epic epic = new Epic("Epic1", "Epic1_Description");
+        fileBackedTaskManager.createEpic(epic);
+        Subtask subtask = new Subtask("Subtask1", "Subtask1_Description", null, null, epic.getId());
+        fileBackedTaskManager.createSubtask(subtask);
+        subtask.setTaskStatus(TaskStatus.DONE);
+        fileBackedTaskManager.updateSubtask(subtask);
+        fileBackedTaskManager.close();
+        FileBackedTaskManager restoredManager = FileBackedTaskManager.loadFromFile(tmpFile, settings);
+        TaskQuery query = new TaskQuery();
+        query.setType(TaskType.EPIC);
+        query.setStatus(TaskStatus.DONE);
+        assertEquals(List.of(epic.getId()), restoredManager.findTasks(query).stream().map(Task::getId).toList());
+        query.setStatus(TaskStatus.NEW);
+        assertTrue(restoredManager.findTasks(query).isEmpty());
+        restoredManager.close();
+        tmpFile.deleteOnExit();
+        journalFile.deleteOnExit();
+    }
+
+    @Test
+    void journalModeShouldRestoreBatchChanges() throws IOException {
+        File tmpFile = File.createTempFile("test", "csv");
+        File journalFile = new File(tmpFile.getPath() + ".journal");
+        StorageSettings settings = new StorageSettings();
+        settings.setPersistenceMode(PersistenceMode.JOURNAL);
+        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(tmpFile, settings);
+        Epic epic = new Epic("Epic1", "Epic1_Description");
+        fileBackedTaskManager.createEpic(epic);
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            tasks.add(new Task("Task" + i, "Description" + i,
+                    LocalDateTime.of(2024, Month.JULY, 16, 10, i * 5), Duration.ofMinutes(2)));
+        }
+        fileBackedTaskManager.createTasks(tasks);
+        Subtask subtask1 = new Subtask("Subtask1", "Subtask1_Description", null, null, epic.getId());
+        Subtask subtask2 = new Subtask("Subtask2", "Subtask2_Description", null, null, epic.getId());
+        fileBackedTaskManager.createSubtasks(List.of(subtask1, subtask2));
+        subtask1.setTaskStatus(TaskStatus.DONE);
+        fileBackedTaskManager.updateSubtasks(List.of(subtask1));
+        fileBackedTaskManager.removeByIds(tasks.get(0).getId(), subtask2.getId());
+        fileBackedTaskManager.close();
+
+        FileBackedTaskManager restoredManager = FileBackedTaskManager.loadFromFile(tmpFile, settings);
+        assertEquals(9, restoredManager.getAllTasks().size());
+        assertEquals(9, restoredManager.getPrioritizedTasks().size());
+        assertEquals(List.of(subtask1.getId()), restoredManager.getEpicById(epic.getId()).getSubtaskId());
+        assertEquals(TaskStatus.DONE, restoredManager.getEpicById(epic.getId()).getTaskStatus());
+        restoredManager.close();
+        tmpFile.deleteOnExit();
+        journalFile.deleteOnExit();
+    }
+
+    @Test
+    void deferredFlushShouldPersistOnlyOnExplicitFlush() throws IOException {
+        File tmpFile = File.createTempFile("test", "csv");
+        StorageSettings settings = new StorageSettings();
+        settings.setFlushIntervalMillis(60_000);
+        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(tmpFile, settings);
+        Task task = new Task("Task1", "Task1_Description",
+                LocalDateTime.of(2024, Month.JULY, 16, 13, 30), Duration.ofMinutes(2));
+        fileBackedTaskManager.createTask(task);
+        assertTrue(fileBackedTaskManager.isDirty());
+        assertEquals(1, Files.readString(tmpFile.toPath()).split("\n").length);
+        fileBackedTaskManager.getTaskById(task.getId());
+        fileBackedTaskManager.getAllTasks();
+        assertEquals(1, Files.readString(tmpFile.toPath()).split("\n").length);
+        fileBackedTaskManager.flush();
+        assertFalse(fileBackedTaskManager.isDirty());
+        assertEquals(2, Files.readString(tmpFile.toPath()).split("\n").length);
+        fileBackedTaskManager.close();
+        tmpFile.deleteOnExit();
+    }
+
+    @Test
+    void everyCommitPolicyShouldAcknowledgeConcurrentWritersAfterSharedSync() throws Exception {
+        File tmpFile = File.createTempFile("test", "csv");
+        File journalFile = new File(tmpFile.getPath() + ".journal");
+        StorageSettings settings = new StorageSettings();
+        settings.setPersistenceMode(PersistenceMode.JOURNAL);
+        settings.setDurabilityPolicy(DurabilityPolicy.EVERY_COMMIT);
+        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(tmpFile, settings);
+        List<Thread> writers = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            int writerNumber = i;
+            Thread writer = new Thread(() -> {
+                for (int j = 0; j < 25; j++) {
+                    fileBackedTaskManager.createTask(new Task("Task", "Description",
+                            LocalDateTime.of(2024, Month.JULY, 1 + writerNumber, 0, 0).plusMinutes(j * 10L),
+                            Duration.ofMinutes(5)));
+                }
+            });
+            writers.add(writer);
+            writer.start();
+        }
+        for (Thread writer : writers) {
+            writer.join();
+        }
+        assertFalse(fileBackedTaskManager.isDirty());
+        try (JournalReader journalReader = new JournalReader(journalFile)) {
+            assertEquals(100, new String(journalReader.readAllBytes(), StandardCharsets.UTF_8).split("\n").length);
+        }
+        fileBackedTaskManager.close();
+        FileBackedTaskManager restoredManager = FileBackedTaskManager.loadFromFile(tmpFile, settings);
+        assertEquals(100, restoredManager.getAllTasks().size());
+        restoredManager.close();
+        tmpFile.deleteOnExit();
+        journalFile.deleteOnExit();
+    }
+
+    @Test
+    void compactionShouldFoldJournalIntoSnapshot() throws Exception {
+        File tmpFile = File.createTempFile("test", "csv");
+        File journalFile = new File(tmpFile.getPath() + ".journal");
+        StorageSettings settings = new StorageSettings();
+        settings.setPersistenceMode(PersistenceMode.JOURNAL);
+        settings.setCompactionThresholdBytes(1);
+        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(tmpFile, settings);
+        Task task = new Task("Task1", "Task1_Description",
+                LocalDateTime.of(2024, Month.JULY, 16, 13, 30), Duration.ofMinutes(2));
+        fileBackedTaskManager.createTask(task);
+        fileBackedTaskManager.close();
+        assertEquals(0, journalFile.length());
+        assertFalse(new File(tmpFile.getPath() + ".journal.compacting").exists());
+        String[] snapshot = Files.readString(tmpFile.toPath()).split("\n");
+        assertEquals(2, snapshot.length);
+        assertEquals("1,TASK,Task1,NEW,Task1_Description,16.07.24 13:30,2", snapshot[1]);
+        tmpFile.deleteOnExit();
+        journalFile.deleteOnExit();
+    }
+
+    @Test
+    void loadingShouldIgnoreUnfinishedSnapshotAndReplayCompactingSegment() throws IOException {
+        File tmpFile = File.createTempFile("test", "csv");
+        File compactingFile = new File(tmpFile.getPath() + ".journal.compacting");
+        File unfinishedSnapshot = new File(tmpFile.getPath() + ".tmp");
+        try (Writer fileWriter = new FileWriter(tmpFile)) {
+            fileWriter.write("id,type,title,status,description,startTime,duration,epic\n");
+            fileWriter.write("1,TASK,Task1,NEW,Task1_Description,16.07.24 13:30,2\n");
+        }
+        try (Writer fileWriter = new FileWriter(compactingFile)) {
+            fileWriter.write("PUT,2,TASK,Task2,NEW,Task2_Description,16.07.24 15:30,2\n");
+        }
+        try (Writer fileWriter = new FileWriter(unfinishedSnapshot)) {
+            fileWriter.write("id,type,title,status,description,start");
+        }
+        StorageSettings settings = new StorageSettings();
+        settings.setPersistenceMode(PersistenceMode.JOURNAL);
+        FileBackedTaskManager fileBackedTaskManager = FileBackedTaskManager.loadFromFile(tmpFile, settings);
+        assertEquals(2, fileBackedTaskManager.getAllTasks().size());
+        assertFalse(compactingFile.exists());
+        assertFalse(unfinishedSnapshot.exists());
+        fileBackedTaskManager.close();
+        tmpFile.deleteOnExit();
+        new File(tmpFile.getPath() + ".journal").deleteOnExit();
+    }
+
+    @Test
+    void loadingShouldKeepPersistedIdsAndRebuildIndexesOnce() throws IOException {
+        File tmpFile = File.createTempFile("test", "csv");
+        try (Writer fileWriter = new FileWriter(tmpFile)) {
+            fileWriter.write("id,type,title,status,description,startTime,duration,epic\n");
+            fileWriter.write("5,TASK,Task1,NEW,Task1_Description,16.07.24 13:30,2\n");
+            fileWriter.write("7,EPIC,Epic1,NEW,Epic1_Description,,0\n");
+            fileWriter.write("9,SUBTASK,Subtask1,DONE,Subtask1_Description,16.07.24 12:10,10,7\n");
+            fileWriter.write("12,SUBTASK,Subtask2,NEW,Subtask2_Description,16.07.24 14:30,5,7\n");
+        }
+        FileBackedTaskManager fileBackedTaskManager = FileBackedTaskManager.loadFromFile(tmpFile);
+        Epic epic = fileBackedTaskManager.getEpicById(7);
+        assertNotNull(fileBackedTaskManager.getTaskById(5));
+        assertEquals(List.of(9, 12), epic.getSubtaskId());
+        assertEquals(TaskStatus.IN_PROGRESS, epic.getTaskStatus());
+        assertEquals(LocalDateTime.of(2024, Month.JULY, 16, 12, 10), epic.getStartTime());
+        assertEquals(LocalDateTime.of(2024, Month.JULY, 16, 14, 35), epic.getEndTime());
+        assertEquals(Duration.ofMinutes(15), epic.getDuration());
+        assertEquals(List.of(9, 5, 12), fileBackedTaskManager.getPrioritizedTasks().stream().map(Task::getId).toList());
+        assertEquals(13, fileBackedTaskManager.createEpic(new Epic("Epic2", "Epic2_Description")));
+        tmpFile.deleteOnExit();
+    }
+
+    @Test
+    void binarySnapshotShouldBeRestoredWithoutChangingFormatSetting() throws IOException {
+        File tmpFile = File.createTempFile("test", "bin");
+        StorageSettings settings = new StorageSettings();
+        settings.setSnapshotFormat(SnapshotFormat.BINARY);
+        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(tmpFile, settings);
+        Epic epic = new Epic("Epic1", "Epic1_Description");
+        fileBackedTaskManager.createEpic(epic);
+        Subtask subtask = new Subtask("Subtask1", "Subtask1_Description",
+                LocalDateTime.of(2024, Month.JULY, 16, 14, 10), Duration.ofMinutes(1), epic.getId());
+        fileBackedTaskManager.createSubtask(subtask);
+        FileBackedTaskManager restoredManager = FileBackedTaskManager.loadFromFile(tmpFile);
+        assertEquals(1, restoredManager.getAllEpics().size());
+        assertEquals(subtask.getStartTime(), restoredManager.getAllSubtasks().getFirst().getStartTime());
+        assertEquals(subtask.getStartTime(), restoredManager.getEpicById(epic.getId()).getStartTime());
+        assertTrue(Files.readString(tmpFile.toPath()).startsWith("id,type"));
+        tmpFile.deleteOnExit();
+    }
+
+    @Test
+    void asyncWriterShouldPersistAllQueuedChanges() throws IOException {
+        File tmpFile = File.createTempFile("test", "csv");
+        StorageSettings settings = new StorageSettings();
+        settings.setPersistenceMode(PersistenceMode.JOURNAL);
+        settings.setWriteQueueCapacity(4);
+        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(tmpFile, settings);
+        LocalDateTime startTime = LocalDateTime.of(2024, Month.JULY, 16, 0, 0);
+        for (int i = 0; i < 50; i++) {
+            fileBackedTaskManager.createTask(new Task("Task" + i, "Описание задачи",
+                    startTime.plusMinutes(i * 10L), Duration.ofMinutes(5)));
+        }
+        fileBackedTaskManager.flush();
+        assertEquals(0, fileBackedTaskManager.getWriteQueueDepth());
+        assertEquals(0, fileBackedTaskManager.getWriteLagMillis());
+        assertFalse(fileBackedTaskManager.isDirty());
+        fileBackedTaskManager.close();
+        assertEquals(50, FileBackedTaskManager.loadFromFile(tmpFile, settings).getAllTasks().size());
+        tmpFile.deleteOnExit();
+        new File(tmpFile.getPath() + ".journal").deleteOnExit();
+    }
+
+    @Test
+    void fullWriteQueueShouldRejectOrCoalesceChanges() throws Exception {
+        File tmpFile = File.createTempFile("test", "csv");
+        StorageSettings settings = new StorageSettings();
+        settings.setPersistenceMode(PersistenceMode.JOURNAL);
+        settings.setWriteQueueCapacity(2);
+        settings.setBackpressurePolicy(BackpressurePolicy.FAIL_FAST);
+        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(tmpFile, settings);
+        LocalDateTime startTime = LocalDateTime.of(2024, Month.JULY, 16, 0, 0);
+        int createdTasks = 0;
+
+        // Пока тест держит монитор менеджера, поток записи не может перенести изменения в журнал
+        synchronized (fileBackedTaskManager) {
+            for (int i = 0; i < 5; i++) {
+                try {
+                    fileBackedTaskManager.createTask(new Task("Task" + i, "Описание задачи",
+                            startTime.plusMinutes(i * 10L), Duration.ofMinutes(5)));
+                    createdTasks++;
+                } catch (WriteQueueFullException e) {
+                    assertEquals(createdTasks, fileBackedTaskManager.getAllTasks().size());
+                }
+            }
+            Thread.sleep(20);
+            assertTrue(fileBackedTaskManager.getWriteLagMillis() > 0);
+        }
+        assertTrue(createdTasks < 5);
+        assertEquals(5 - createdTasks, fileBackedTaskManager.getRejectedChanges());
+        fileBackedTaskManager.close();
+        assertEquals(createdTasks, FileBackedTaskManager.loadFromFile(tmpFile, settings).getAllTasks().size());
+
+        settings.setBackpressurePolicy(BackpressurePolicy.COALESCE);
+        settings.setWriteQueueCapacity(1);
+        fileBackedTaskManager = FileBackedTaskManager.loadFromFile(tmpFile, settings);
+        Task task = fileBackedTaskManager.getTaskById(1);
+        synchronized (fileBackedTaskManager) {
+            for (int i = 0; i < 10; i++) {
+                task.setTitle("Task1_" + i);
+                fileBackedTaskManager.updateTask(task);
+            }
+        }
+        assertTrue(fileBackedTaskManager.getCoalescedChanges() >= 8);
+        fileBackedTaskManager.close();
+        assertEquals("Task1_9", FileBackedTaskManager.loadFromFile(tmpFile, settings).getTaskById(1).getTitle());
+        tmpFile.deleteOnExit();
+        new File(tmpFile.getPath() + ".journal").deleteOnExit();
+    }
+
+    @Test
+    void tornJournalRecordsShouldBeDroppedOnLoad() throws IOException {
+        File tmpFile = File.createTempFile("test", "csv");
+        File journalFile = new File(tmpFile.getPath() + ".journal");
+        StorageSettings settings = new StorageSettings();
+        settings.setPersistenceMode(PersistenceMode.JOURNAL);
+        settings.setCompactionThresholdBytes(0);
+        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(tmpFile, settings);
+        LocalDateTime startTime = LocalDateTime.of(2024, Month.JULY, 16, 0, 0);
+        for (int i = 0; i < 4; i++) {
+            fileBackedTaskManager.createTask(new Task("Task" + i, "Описание задачи",
+                    startTime.plusMinutes(i * 10L), Duration.ofMinutes(5)));
+        }
+        fileBackedTaskManager.close();
+        byte[] journal = Files.readAllBytes(journalFile.toPath());
+        int recordSize = (journal.length - Integer.BYTES) / 4;
+
+        // Обрыв посреди последней записи
+        Files.write(journalFile.toPath(), Arrays.copyOf(journal, journal.length - 5));
+        FileBackedTaskManager restoredManager = FileBackedTaskManager.loadFromFile(tmpFile, settings);
+        assertEquals(3, restoredManager.getAllTasks().size());
+        assertEquals(1, restoredManager.getDroppedJournalRecords());
+        restoredManager.close();
+
+        // Испорченный байт во второй записи: она и все записи после неё отбрасываются
+        Files.write(tmpFile.toPath(), List.of("id,type,title,status,description,startTime,duration,epic"));
+        journal[Integer.BYTES + recordSize + recordSize / 2] ^= 1;
+        Files.write(journalFile.toPath(), journal);
+        restoredManager = FileBackedTaskManager.loadFromFile(tmpFile, settings);
+        assertEquals(1, restoredManager.getAllTasks().size());
+        assertEquals(3, restoredManager.getDroppedJournalRecords());
+        restoredManager.close();
+        tmpFile.deleteOnExit();
+        journalFile.deleteOnExit();
+    }
+
+    @Test
+    void compressedSnapshotAndJournalShouldBeRestored() throws IOException {
+        File tmpFile = File.createTempFile("test", "csv");
+        File journalFile = new File(tmpFile.getPath() + ".journal");
+        Files.write(tmpFile.toPath(), List.of("id,type,title,status,description,startTime,duration,epic",
+                "1,TASK,Task1,NEW,Task1_Description,16.07.24 13:30,2"));
+        StorageSettings settings = new StorageSettings();
+        settings.setCompression(Compression.DEFLATE);
+
+        // Несжатый снимок читается и после включения сжатия, а следующая запись уже сжимается
+        FileBackedTaskManager fileBackedTaskManager = FileBackedTaskManager.loadFromFile(tmpFile, settings);
+        assertEquals("Task1", fileBackedTaskManager.getTaskById(1).getTitle());
+        Epic epic = new Epic("Epic1", "Epic1_Description");
+        fileBackedTaskManager.createEpic(epic);
+        assertTrue(BlockCompression.isCompressed(tmpFile));
+        FileBackedTaskManager restoredManager = FileBackedTaskManager.loadFromFile(tmpFile);
+        assertEquals(1, restoredManager.getAllTasks().size());
+        assertEquals(1, restoredManager.getAllEpics().size());
+
+        settings.setPersistenceMode(PersistenceMode.JOURNAL);
+        settings.setCompactionThresholdBytes(0);
+        fileBackedTaskManager = FileBackedTaskManager.loadFromFile(tmpFile, settings);
+        LocalDateTime startTime = LocalDateTime.of(2024, Month.JULY, 16, 0, 0);
+        for (int i = 0; i < 20; i++) {
+            fileBackedTaskManager.createSubtask(new Subtask("Subtask" + i, "Описание подзадачи",
+                    startTime.plusMinutes(i * 10L), Duration.ofMinutes(5), epic.getId()));
+        }
+        fileBackedTaskManager.close();
+        try (DataInputStream inputStream = new DataInputStream(new FileInputStream(journalFile))) {
+            assertEquals(TaskJournal.COMPRESSED_MAGIC, inputStream.readInt());
+        }
+        restoredManager = FileBackedTaskManager.loadFromFile(tmpFile, settings);
+        assertEquals(20, restoredManager.getAllSubtasks().size());
+        assertEquals(startTime, restoredManager.getEpicById(epic.getId()).getStartTime());
+        restoredManager.close();
+        tmpFile.deleteOnExit();
+        journalFile.deleteOnExit();
+    }
+
+    @Test
+    void historyAndPrioritizedOrderShouldSurviveRestart() throws IOException {
+        File tmpFile = File.createTempFile("test", "csv");
+        File stateFile = new File(tmpFile.getPath() + ".state");
+        StorageSettings settings = new StorageSettings();
+        settings.setPersistenceMode(PersistenceMode.JOURNAL);
+        FileBackedTaskManager fileBackedTaskManager = new FileBackedTaskManager(tmpFile, settings);
+        Epic epic = new Epic("Epic1", "Epic1_Description");
+        fileBackedTaskManager.createEpic(epic);
+        LocalDateTime startTime = LocalDateTime.of(2024, Month.JULY, 16, 0, 0);
+        for (int i = 5; i > 0; i--) {
+            fileBackedTaskManager.createTask(new Task("Task" + i, "Описание задачи",
+                    startTime.plusHours(i), Duration.ofMinutes(5)));
+            fileBackedTaskManager.createSubtask(new Subtask("Subtask" + i, "Описание подзадачи",
+                    startTime.plusHours(i).plusMinutes(30), Duration.ofMinutes(5), epic.getId()));
+        }
+        fileBackedTaskManager.getTaskById(4);
+        fileBackedTaskManager.getEpicById(epic.getId());
+        fileBackedTaskManager.getSubtaskById(3);
+        fileBackedTaskManager.getTaskById(4);
+        List<Integer> history = fileBackedTaskManager.getHistory().stream().map(Task::getId).toList();
+        List<Integer> prioritized = fileBackedTaskManager.getPrioritizedTasks().stream().map(Task::getId).toList();
+        fileBackedTaskManager.close();
+
+        FileBackedTaskManager restoredManager = FileBackedTaskManager.loadFromFile(tmpFile, settings);
+        assertEquals(List.of(1, 3, 4), history);
+        assertEquals(history, restoredManager.getHistory().stream().map(Task::getId).toList());
+        assertEquals(prioritized, restoredManager.getPrioritizedTasks().stream().map(Task::getId).toList());
+
+        // Изменения после записи состояния: индекс строится заново, а удалённая задача пропадает из истории
+        restoredManager.removeTaskById(4);
+        restoredManager.createTask(new Task("Task6", "Описание задачи", startTime, Duration.ofMinutes(5)));
+        List<Integer> changedOrder = restoredManager.getPrioritizedTasks().stream().map(Task::getId).toList();
+        restoredManager.flush();
+        Files.copy(stateFile.toPath(), tmpFile.toPath().resolveSibling(stateFile.getName() + ".old"));
+        restoredManager.close();
+        Files.move(tmpFile.toPath().resolveSibling(stateFile.getName() + ".old"), stateFile.toPath(),
+                StandardCopyOption.REPLACE_EXISTING);
+        restoredManager = FileBackedTaskManager.loadFromFile(tmpFile, settings);
+        assertEquals(changedOrder, restoredManager.getPrioritizedTasks().stream().map(Task::getId).toList());
+        assertEquals(List.of(1, 3), restoredManager.getHistory().stream().map(Task::getId).toList());
+        restoredManager.close();
+        tmpFile.deleteOnExit();
+        stateFile.deleteOnExit();
+        new File(tmpFile.getPath() + ".journal").deleteOnExit();
+    }
+}
@@ -11,6 +11,7 @@ import org.junit.jupiter.api.Test;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.time.Month;
+import java.util.List;
 import static org.junit.jupiter.api.Assertions.*;
 
 class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
@@ -124,4 +125,51 @@ class InMemoryTaskManagerTest extends TaskManagerTest<InMemoryTaskManager> {
             taskManager.createTask(task2);
         });
     }
-}
\ No newline at end of file
+
+    @Test
+    public void prioritizedTasksShouldKeepTasksWithEqualStartTimeOrderedById() {
+        Task task1 = new Task("task1", "description1",
+                LocalDateTime.of(2024, Month.JULY, 17, 12, 30), Duration.ofMinutes(15));
+        taskManager.createTask(task1);
+        Task task2 = new Task("task2", "description2",
+                LocalDateTime.of(2024, Month.JULY, 17, 14, 0), Duration.ofMinutes(15));
+        taskManager.createTask(task2);
+        Task task3 = new Task("task3", "description3",
+                LocalDateTime.of(2024, Month.JULY, 17, 16, 0), Duration.ofMinutes(15));
+        taskManager.createTask(task3);
+
+        // Задачи изменены на месте: старые записи индекса находятся по ключу, с которым были добавлены
+        task3.setStartTime(task1.getStartTime());
+        taskManager.updateTask(task3);
+        task1.setStartTime(LocalDateTime.of(2024, Month.JULY, 17, 18, 0));
+        taskManager.updateTask(task1);
+        task2.setStartTime(task1.getStartTime());
+        taskManager.updateTask(task2);
+        assertEquals(List.of(task3, task1, task2), taskManager.getPrioritizedTasks());
+        taskManager.removeTaskById(task1.getId());
+        assertEquals(List.of(task3, task2), taskManager.getPrioritizedTasks());
+    }
+
+    @Test
+    public void shouldKeepIndexesConsistentForClientChosenIds() {
+        Task task = new Task("task", "description", null, null);
+        taskManager.createTask(task);
+        Task farTask = new Task("farTask", "description", null, null);
+        farTask.setId(2_000_000_000);
+        farTask.setTaskStatus(TaskStatus.DONE);
+        taskManager.updateTask(farTask);
+        Task negativeTask = new Task("negativeTask", "description", null, null);
+        negativeTask.setId(-3);
+        assertThrows(IllegalStateException.class, () -> taskManager.updateTask(negativeTask));
+
+        assertNull(taskManager.getTaskById(-3));
+        assertEquals(List.of(task, farTask), taskManager.getTasksPage(null, 10).getItems());
+        assertEquals(List.of(farTask), taskManager.getTasksPage(String.valueOf(task.getId()), 10).getItems());
+        TaskQuery query = new TaskQuery();
+        query.setStatus(TaskStatus.DONE);
+        assertEquals(List.of(farTask), taskManager.findTasks(query));
+        taskManager.removeTaskById(farTask.getId());
+        assertEquals(List.of(task), taskManager.getTasksPage(null, 10).getItems());
+        assertTrue(taskManager.findTasks(query).isEmpty());
+    }
+}
@@ -0,0 +1,51 @@
+package manager;
+
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+class IndexedTaskMapTest {
+
+    private final Map<Integer, Task> store = new HashMap<>();
+    private final IndexedTaskMap<Task> tasks = new IndexedTaskMap<>(store);
+
+    @Test
+    void shouldIndexStatusesOfSparseIds() {
+        tasks.put(1, task(1, TaskStatus.NEW));
+        tasks.put(2_000_000_000, task(2_000_000_000, TaskStatus.DONE));
+        Task changed = task(Integer.MAX_VALUE, TaskStatus.NEW);
+        tasks.put(Integer.MAX_VALUE, changed);
+        changed.setTaskStatus(TaskStatus.DONE);
+        tasks.put(Integer.MAX_VALUE, changed);
+
+        assertEquals(1, tasks.countWithStatus(TaskStatus.NEW));
+        assertEquals(2, tasks.countWithStatus(TaskStatus.DONE));
+        assertEquals(2_000_000_000, tasks.nextId(1, TaskStatus.DONE));
+        assertEquals(Integer.MAX_VALUE, tasks.nextId(2_000_000_000, TaskStatus.DONE));
+        assertEquals(-1, tasks.nextId(1, TaskStatus.NEW));
+        tasks.remove(2_000_000_000);
+        assertEquals(Integer.MAX_VALUE, tasks.nextId(-1, TaskStatus.DONE));
+    }
+
+    @Test
+    void shouldRejectNegativeIdBeforeChangingStoreOrIndexes() {
+        tasks.put(1, task(1, TaskStatus.NEW));
+
+        assertThrows(IllegalStateException.class, () -> tasks.put(-3, task(-3, TaskStatus.DONE)));
+        assertEquals(List.of(1), List.copyOf(store.keySet()));
+        assertEquals(0, tasks.countWithStatus(TaskStatus.DONE));
+        assertEquals(1, tasks.nextId(-1));
+        assertEquals(-1, tasks.nextId(1));
+    }
+
+    private static Task task(int id, TaskStatus status) {
+        Task task = new Task("Task" + id, "Описание задачи", null, null);
+        task.setId(id);
+        task.setTaskStatus(status);
+        return task;
+    }
+}
@@ -11,6 +11,24 @@ class ManagersTest {
         assertNotNull(taskManager);
     }
 
+    @Test
+    void shouldReturnConcurrentTaskManager() {
+        TaskManager taskManager = Managers.getConcurrent();
+        assertTrue(taskManager instanceof ConcurrentTaskManager);
+    }
+
+    @Test
+    void shouldReturnColumnarTaskManager() {
+        TaskManager taskManager = Managers.getColumnar();
+        assertTrue(taskManager instanceof ColumnarTaskManager);
+    }
+
+    @Test
+    void shouldReturnOffHeapTaskManager() {
+        TaskManager taskManager = Managers.getOffHeap();
+        assertTrue(taskManager instanceof OffHeapTaskManager);
+    }
+
     @Test
     void shouldNotBeNullHistoryManager() {
         HistoryManager historyManager = Managers.getDefaultHistory();
@@ -0,0 +1,31 @@
+package manager;
+
+import model.Task;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapTaskManagerTest extends TaskManagerTest<OffHeapTaskManager> {
+
+    @Override
+    protected OffHeapTaskManager createTaskManager() {
+        return new OffHeapTaskManager();
+    }
+
+    @Test
+    void shouldNotGrowOffHeapMemoryWhenTasksAreReplaced() {
+        for (int i = 0; i < 1000; i++) {
+            Task task = new Task("Task" + i, "Description" + i, null, null);
+            taskManager.createTask(task);
+            taskManager.removeTaskById(task.getId());
+        }
+        long allocated = taskManager.getOffHeapBytes();
+        for (int i = 0; i < 1000; i++) {
+            Task task = new Task("Task" + i, "Description" + i, null, null);
+            taskManager.createTask(task);
+            taskManager.removeTaskById(task.getId());
+        }
+
+        assertEquals(allocated, taskManager.getOffHeapBytes());
+        assertTrue(taskManager.getAllTasks().isEmpty());
+    }
+}
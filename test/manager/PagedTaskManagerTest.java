@@ -0,0 +1,176 @@
+package manager;
+
+import exceptions.TimeConflictException;
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class PagedTaskManagerTest extends TaskManagerTest<PagedTaskManager> {
+
+    private File file;
+
+    @Override
+    protected PagedTaskManager createTaskManager() {
+        try {
+            file = File.createTempFile("test", "pages");
+            file.delete();
+            return PagedTaskManager.open(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @AfterEach
+    void closeManager() {
+        taskManager.close();
+        file.delete();
+    }
+
+    @Test
+    void shouldRestoreTasksAndEpicStateAfterReopen() {
+        Task task = new Task("Task1", "Task1_Description",
+                LocalDateTime.of(2024, Month.JULY, 16, 13, 30), Duration.ofMinutes(2));
+        taskManager.createTask(task);
+        Epic epic = new Epic("Epic1", "Epic1_Description");
+        taskManager.createEpic(epic);
+        Subtask subtask1 = new Subtask("Subtask1", "Subtask1_Description",
+                LocalDateTime.of(2024, Month.JULY, 16, 14, 10), Duration.ofMinutes(1), epic.getId());
+        taskManager.createSubtask(subtask1);
+        Subtask subtask2 = new Subtask("Subtask2", "Subtask2_Description",
+                LocalDateTime.of(2024, Month.JULY, 16, 14, 30), Duration.ofMinutes(5), epic.getId());
+        taskManager.createSubtask(subtask2);
+        subtask1.setTaskStatus(TaskStatus.DONE);
+        taskManager.updateSubtask(subtask1);
+        taskManager.close();
+
+        taskManager = PagedTaskManager.open(file);
+        assertEquals(1, taskManager.getAllTasks().size());
+        assertEquals("Task1_Description", taskManager.getTaskById(task.getId()).getDescription());
+        Epic restoredEpic = taskManager.getEpicById(epic.getId());
+        assertEquals(epic.getSubtaskId(), restoredEpic.getSubtaskId());
+        assertEquals(TaskStatus.IN_PROGRESS, restoredEpic.getTaskStatus());
+        assertEquals(subtask1.getStartTime(), restoredEpic.getStartTime());
+        assertEquals(subtask2.getEndTime(), restoredEpic.getEndTime());
+        assertEquals(Duration.ofMinutes(6), restoredEpic.getDuration());
+        assertEquals(3, taskManager.getPrioritizedTasks().size());
+        Task newTask = new Task("Task2", "Task2_Description",
+                LocalDateTime.of(2024, Month.JULY, 17, 13, 30), Duration.ofMinutes(2));
+        assertEquals(subtask2.getId() + 1, taskManager.createTask(newTask));
+    }
+
+    @Test
+    void shouldUpdateEpicOfReopenedStoreIncrementally() {
+        Epic epic = new Epic("Epic1", "Epic1_Description");
+        taskManager.createEpic(epic);
+        Subtask subtask1 = new Subtask("Subtask1", "Subtask1_Description",
+                LocalDateTime.of(2024, Month.JULY, 16, 14, 10), Duration.ofMinutes(1), epic.getId());
+        taskManager.createSubtask(subtask1);
+        Subtask subtask2 = new Subtask("Subtask2", "Subtask2_Description",
+                LocalDateTime.of(2024, Month.JULY, 16, 14, 30), Duration.ofMinutes(5), epic.getId());
+        taskManager.createSubtask(subtask2);
+        taskManager.close();
+
+        taskManager = PagedTaskManager.open(file);
+        Subtask restoredSubtask = taskManager.getSubtaskById(subtask1.getId());
+        restoredSubtask.setTaskStatus(TaskStatus.DONE);
+        taskManager.updateSubtask(restoredSubtask);
+        Epic restoredEpic = taskManager.getEpicById(epic.getId());
+        assertEquals(TaskStatus.IN_PROGRESS, restoredEpic.getTaskStatus());
+        assertEquals(Duration.ofMinutes(6), restoredEpic.getDuration());
+
+        taskManager.removeSubtaskById(subtask2.getId());
+        restoredEpic = taskManager.getEpicById(epic.getId());
+        assertEquals(TaskStatus.DONE, restoredEpic.getTaskStatus());
+        assertEquals(subtask1.getEndTime(), restoredEpic.getEndTime());
+        assertEquals(Duration.ofMinutes(1), restoredEpic.getDuration());
+    }
+
+    @Test
+    void shouldKeepBoardLargerThanPageCache() {
+        taskManager.close();
+        StorageSettings settings = new StorageSettings();
+        settings.setPageCacheSize(4);
+        taskManager = PagedTaskManager.open(file, settings);
+        Epic epic = new Epic("Epic", "Описание эпика");
+        taskManager.createEpic(epic);
+        LocalDateTime startTime = LocalDateTime.of(2024, Month.JULY, 1, 0, 0);
+        for (int i = 0; i < 2000; i++) {
+            Subtask subtask = new Subtask("Subtask" + i, "Описание подзадачи " + "x".repeat(i % 300),
+                    startTime.plusMinutes(i * 10L), Duration.ofMinutes(5), epic.getId());
+            taskManager.createSubtask(subtask);
+        }
+        taskManager.removeSubtaskById(epic.getSubtaskId().getFirst());
+        taskManager.close();
+
+        taskManager = PagedTaskManager.open(file, settings);
+        assertEquals(1999, taskManager.getAllSubtasks().size());
+        assertEquals(1999, taskManager.getEpicById(epic.getId()).getSubtaskId().size());
+        assertEquals("Описание подзадачи " + "x".repeat(1999 % 300),
+                taskManager.getSubtaskById(2001).getDescription());
+        assertNull(taskManager.getSubtaskById(2));
+    }
+
+    @Test
+    void shouldRollbackFailedChange() {
+        Task task = new Task("Task1", "Task1_Description",
+                LocalDateTime.of(2024, Month.JULY, 16, 13, 30), Duration.ofMinutes(20));
+        taskManager.createTask(task);
+        Task conflictingTask = new Task("Task2", "Task2_Description",
+                LocalDateTime.of(2024, Month.JULY, 16, 13, 40), Duration.ofMinutes(20));
+        assertThrows(TimeConflictException.class, () -> taskManager.createTask(conflictingTask));
+        taskManager.close();
+
+        taskManager = PagedTaskManager.open(file);
+        assertEquals(1, taskManager.getAllTasks().size());
+        assertEquals(1, taskManager.getPrioritizedTasks().size());
+    }
+
+    @Test
+    void shouldRebuildEpicAggregatesAfterRollback() {
+        Epic epic = new Epic("Epic1", "Epic1_Description");
+        taskManager.createEpic(epic);
+        Subtask subtask1 = new Subtask("Subtask1", "Subtask1_Description", null, null, epic.getId());
+        taskManager.createSubtask(subtask1);
+        Subtask subtask2 = new Subtask("Subtask2", "Subtask2_Description", null, null, epic.getId());
+        taskManager.createSubtask(subtask2);
+        subtask1.setTaskStatus(TaskStatus.DONE);
+        Subtask invalidSubtask = new Subtask("Subtask3", "Subtask3_Description", null, null, epic.getId());
+        invalidSubtask.setId(-1);
+        assertThrows(IllegalStateException.class,
+                () -> taskManager.updateSubtasks(List.of(subtask1, invalidSubtask)));
+
+        Subtask restoredSubtask = taskManager.getSubtaskById(subtask2.getId());
+        restoredSubtask.setTaskStatus(TaskStatus.DONE);
+        taskManager.updateSubtask(restoredSubtask);
+        assertEquals(TaskStatus.NEW, taskManager.getSubtaskById(subtask1.getId()).getTaskStatus());
+        assertEquals(TaskStatus.IN_PROGRESS, taskManager.getEpicById(epic.getId()).getTaskStatus());
+    }
+
+    @Test
+    void shouldKeepHistoryAfterRollback() {
+        Epic epic = new Epic("Epic1", "Epic1_Description");
+        taskManager.createEpic(epic);
+        Subtask subtask = new Subtask("Subtask1", "Subtask1_Description", null, null, epic.getId());
+        taskManager.createSubtask(subtask);
+        Subtask orphanSubtask = new Subtask("Subtask1", "Subtask1_Description", null, null, epic.getId() + 100);
+        orphanSubtask.setId(subtask.getId());
+        taskManager.updateSubtask(orphanSubtask);
+        taskManager.getSubtaskById(subtask.getId());
+
+        assertThrows(NullPointerException.class, () -> taskManager.removeSubtaskById(subtask.getId()));
+        assertEquals(1, taskManager.getHistory().size());
+        assertEquals(subtask.getId(), taskManager.getHistory().getFirst().getId());
+        assertNotNull(taskManager.getSubtaskById(subtask.getId()));
+    }
+}
@@ -0,0 +1,95 @@
+package manager;
+
+import model.Task;
+import org.junit.jupiter.api.Test;
+import util.EpochMinutes;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Month;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SlotSchedulerTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2024, Month.JULY, 17, 0, 0);
+    private final TaskIntervalTree occupied = new TaskIntervalTree(id -> null);
+    private int nextId = 1;
+
+    @Test
+    void shouldKeepSlotOccupiedWhileAnyTaskCoversIt() {
+        SlotScheduler scheduler = new SlotScheduler(Duration.ofMinutes(15), Duration.ofDays(1));
+        int first = occupy(minute(START), minute(START.plusMinutes(30)));
+        int second = occupy(minute(START.plusMinutes(30)), minute(START.plusMinutes(45)));
+        occupied.remove(first);
+
+        assertTrue(scheduler.isFree(occupied, START));
+        assertTrue(scheduler.isFree(occupied, START.plusMinutes(15)));
+        assertFalse(scheduler.isFree(occupied, START.plusMinutes(30)));
+        assertFalse(scheduler.isFree(occupied, START.plusMinutes(45)));
+        occupied.remove(second);
+        assertTrue(scheduler.isFree(occupied, START.plusMinutes(30)));
+    }
+
+    @Test
+    void shouldFindEarliestWindowBetweenShortTasks() {
+        SlotScheduler scheduler = new SlotScheduler(Duration.ofMinutes(1), Duration.ofDays(30));
+        LocalDateTime busyEnd = START.plusMinutes(10_000);
+        occupy(minute(START), minute(busyEnd));
+        for (int minute = 10_002; minute < 10_200; minute += 3) {
+            occupy(minute(START) + minute, minute(START) + minute);
+        }
+
+        assertEquals(START.plusMinutes(10_198), scheduler.findFreeSlot(occupied, Duration.ofMinutes(5), START));
+        assertEquals(busyEnd.plusMinutes(1), scheduler.findFreeSlot(occupied, Duration.ZERO, START));
+        assertEquals(START.plusMinutes(10_003), scheduler.findFreeSlot(occupied, Duration.ofMinutes(1), START));
+        assertEquals(START.plusMinutes(10_003),
+                scheduler.findFreeSlot(occupied, Duration.ZERO, busyEnd.plusMinutes(3)));
+    }
+
+    @Test
+    void shouldRoundStartUpToSlotBoundary() {
+        SlotScheduler scheduler = new SlotScheduler(Duration.ofMinutes(15), Duration.ofDays(1));
+        assertEquals(START.plusMinutes(15),
+                scheduler.findFreeSlot(occupied, Duration.ofMinutes(10), START.plusMinutes(1)));
+        assertEquals(START, scheduler.findFreeSlot(occupied, Duration.ofMinutes(10), START));
+    }
+
+    @Test
+    void shouldReturnNullWhenNothingFitsInHorizon() {
+        SlotScheduler scheduler = new SlotScheduler(Duration.ofMinutes(15), Duration.ofHours(2));
+        occupy(minute(START.plusMinutes(60)), minute(START.plusMinutes(60)));
+
+        assertNull(scheduler.findFreeSlot(occupied, Duration.ofHours(1), START));
+        assertEquals(START.plusMinutes(75),
+                scheduler.findFreeSlot(occupied, Duration.ofMinutes(30), START.plusMinutes(60)));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SlotScheduler(Duration.ofMinutes(15), Duration.ofMinutes(5)));
+    }
+
+    @Test
+    void shouldSkipLongTaskInOneStep() {
+        SlotScheduler scheduler = new SlotScheduler(Duration.ofMinutes(1), Duration.ofDays(365));
+        LocalDateTime busyEnd = START.plusDays(200);
+        int longTask = occupy(minute(START), minute(busyEnd));
+        occupy(minute(START.plusDays(10)), minute(START.plusDays(10).plusMinutes(30)));
+
+        assertFalse(scheduler.isFree(occupied, START.plusDays(100)));
+        assertEquals(busyEnd.plusMinutes(1), scheduler.findFreeSlot(occupied, Duration.ofHours(1), START));
+        occupied.remove(longTask);
+        assertEquals(START, scheduler.findFreeSlot(occupied, Duration.ofHours(1), START));
+        assertEquals(START.plusDays(10).plusMinutes(31),
+                scheduler.findFreeSlot(occupied, Duration.ofHours(1), START.plusDays(10)));
+    }
+
+    private int occupy(long startMinute, long endMinute) {
+        Task task = new Task("Task", "Описание задачи", null, null);
+        task.setId(nextId++);
+        task.setStartMinute(startMinute);
+        task.setDurationMinutes((int) (endMinute - startMinute));
+        occupied.insert(task);
+        return task.getId();
+    }
+
+    private static long minute(LocalDateTime time) {
+        return EpochMinutes.of(time);
+    }
+}
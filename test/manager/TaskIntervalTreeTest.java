@@ -0,0 +1,129 @@
+package manager;
+
+import model.Task;
+import org.junit.jupiter.api.Test;
+import util.EpochMinutes;
+import util.IntList;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskIntervalTreeTest {
+
+    private static final LocalDateTime START_TIME = LocalDateTime.of(2024, Month.JULY, 16, 0, 0);
+    private final Map<Integer, Task> tasksById = new HashMap<>();
+
+    @Test
+    void overlapQueriesShouldMatchLinearScan() {
+        Random random = new Random(42);
+        TaskIntervalTree tree = new TaskIntervalTree(tasksById::get);
+        List<Task> indexed = new ArrayList<>();
+        for (int id = 1; id <= 3000; id++) {
+            Task task = new Task("Task" + id, "Описание задачи", START_TIME.plusMinutes(random.nextInt(20_000)),
+                    Duration.ofMinutes(random.nextInt(60)));
+            task.setId(id);
+            tasksById.put(task.getId(), task);
+            tree.insert(task);
+            indexed.add(task);
+            if (random.nextInt(3) == 0) {
+                Task removed = indexed.remove(random.nextInt(indexed.size()));
+                tree.remove(removed.getId());
+            }
+        }
+        indexed.sort(Comparator.comparing(Task::getStartTime).thenComparingInt(Task::getId));
+        assertEquals(indexed.size(), tree.size());
+        assertEquals(indexed, tree.toList());
+
+        for (int i = 0; i < 2000; i++) {
+            LocalDateTime startTime = START_TIME.plusMinutes(random.nextInt(20_100) - 50);
+            LocalDateTime endTime = startTime.plusMinutes(random.nextInt(30));
+            List<Task> expected = indexed.stream()
+                    .filter(task -> !task.getEndTime().isBefore(startTime) && !endTime.isBefore(task.getStartTime()))
+                    .toList();
+            assertEquals(expected, tree.findOverlapping(EpochMinutes.of(startTime), EpochMinutes.of(endTime), -1));
+            assertEquals(!expected.isEmpty(), tree.hasOverlap(EpochMinutes.of(startTime), EpochMinutes.of(endTime)));
+            assertEquals(expected.stream().map(Task::getId).toList(),
+                    tree.findOverlappingIds(EpochMinutes.of(startTime), EpochMinutes.of(endTime), Integer.MAX_VALUE - 1));
+        }
+    }
+
+    @Test
+    void builtTreeShouldSupportFurtherChanges() {
+        List<Task> ordered = new ArrayList<>();
+        for (int id = 1; id <= 100; id++) {
+            Task task = new Task("Task" + id, "Описание задачи", START_TIME.plusMinutes(id * 10L),
+                    Duration.ofMinutes(5));
+            task.setId(id);
+            tasksById.put(task.getId(), task);
+            ordered.add(task);
+        }
+        TaskIntervalTree tree = new TaskIntervalTree(tasksById::get);
+        tree.build(ordered);
+        assertTrue(tree.hasOverlap(minute(505), minute(506)));
+        assertFalse(tree.hasOverlap(minute(506), minute(509)));
+
+        assertTrue(tree.remove(50));
+        assertFalse(tree.remove(50));
+        assertFalse(tree.hasOverlap(minute(505), minute(506)));
+        Task longTask = new Task("Long", "Описание задачи", START_TIME, Duration.ofDays(1));
+        longTask.setId(101);
+        tasksById.put(longTask.getId(), longTask);
+        tree.insert(longTask);
+        assertEquals(List.of(longTask), tree.findOverlapping(minute(506), minute(509), -1));
+        assertEquals(100, tree.size());
+    }
+
+    @Test
+    void insertShouldReplaceEntryOfTaskChangedInPlace() {
+        TaskIntervalTree tree = new TaskIntervalTree(tasksById::get);
+        Task task = new Task("Task", "Описание задачи", START_TIME, Duration.ofMinutes(5));
+        task.setId(1);
+        tasksById.put(task.getId(), task);
+        tree.insert(task);
+        task.setStartTime(START_TIME.plusMinutes(30));
+        tree.insert(task);
+
+        assertEquals(1, tree.size());
+        assertFalse(tree.hasOverlap(minute(0), minute(10)));
+        assertTrue(tree.hasOverlap(minute(32), minute(33)));
+        assertEquals(minute(35), tree.getEndMinute(1));
+    }
+
+    private static long minute(long offset) {
+        return EpochMinutes.of(START_TIME) + offset;
+    }
+
+    @Test
+    void idsAfterShouldContinueInPriorityOrder() {
+        TaskIntervalTree tree = new TaskIntervalTree(tasksById::get);
+        Random random = new Random(7);
+        List<Task> ordered = new ArrayList<>();
+        for (int id = 1; id <= 500; id++) {
+            Task task = new Task("Task" + id, "Описание задачи", START_TIME.plusMinutes(random.nextInt(100)),
+                    Duration.ofMinutes(1));
+            task.setId(id);
+            tasksById.put(task.getId(), task);
+            tree.insert(task);
+            ordered.add(task);
+        }
+        ordered.sort(Comparator.comparing(Task::getStartTime).thenComparingInt(Task::getId));
+
+        List<Integer> paged = new ArrayList<>();
+        long startMinute = Long.MIN_VALUE;
+        int id = Integer.MIN_VALUE;
+        IntList page;
+        while (!(page = tree.idsAfter(startMinute, id, 64)).isEmpty()) {
+            paged.addAll(page);
+            id = page.getInt(page.size() - 1);
+            startMinute = tree.getStartMinute(id);
+        }
+        assertEquals(ordered.stream().map(Task::getId).toList(), paged);
+    }
+}
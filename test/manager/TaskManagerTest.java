@@ -1,9 +1,12 @@
 package manager;
 
+import exceptions.NoEpicException;
+import exceptions.TimeConflictException;
 import model.Epic;
 import model.Subtask;
 import model.Task;
 import model.TaskStatus;
+import model.TaskType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import java.time.Duration;
@@ -410,4 +413,243 @@ public abstract class TaskManagerTest<T extends TaskManager> {
         assertEquals(firstListOfTasks.size(), 0);
         assertEquals(secondListOfTasks.size(), 0);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldReturnConflictingTasks() {
+        Task task1 = new Task("task1", "description1",
+                LocalDateTime.of(2024, Month.JULY, 17, 12, 30), Duration.ofMinutes(15));
+        taskManager.createTask(task1);
+        Epic epic = new Epic("epic", "description");
+        taskManager.createEpic(epic);
+        Subtask subtask = new Subtask("subtask", "description",
+                LocalDateTime.of(2024, Month.JULY, 17, 13, 0), Duration.ofMinutes(30), epic.getId());
+        taskManager.createSubtask(subtask);
+        Task task2 = new Task("task2", "description2",
+                LocalDateTime.of(2024, Month.JULY, 17, 14, 0), Duration.ofMinutes(15));
+        taskManager.createTask(task2);
+
+        Task newTask = new Task("task3", "description3",
+                LocalDateTime.of(2024, Month.JULY, 17, 12, 40), Duration.ofMinutes(30));
+        assertEquals(List.of(task1, subtask), taskManager.getConflictingTasks(newTask));
+        newTask.setStartTime(LocalDateTime.of(2024, Month.JULY, 17, 14, 20));
+        assertEquals(List.of(), taskManager.getConflictingTasks(newTask));
+        assertEquals(List.of(), taskManager.getConflictingTasks(task2));
+    }
+
+    @Test
+    public void shouldFindFreeSlotWithoutConflicts() {
+        Task task1 = new Task("task1", "description1",
+                LocalDateTime.of(2024, Month.JULY, 17, 12, 30), Duration.ofMinutes(15));
+        taskManager.createTask(task1);
+        Epic epic = new Epic("epic", "description");
+        taskManager.createEpic(epic);
+        Subtask subtask = new Subtask("subtask", "description",
+                LocalDateTime.of(2024, Month.JULY, 17, 13, 0), Duration.ofMinutes(30), epic.getId());
+        taskManager.createSubtask(subtask);
+        Task task2 = new Task("task2", "description2",
+                LocalDateTime.of(2024, Month.JULY, 17, 14, 0), Duration.ofMinutes(15));
+        taskManager.createTask(task2);
+
+        LocalDateTime after = LocalDateTime.of(2024, Month.JULY, 17, 12, 30);
+        LocalDateTime startTime = taskManager.findFreeSlot(Duration.ofMinutes(15), after);
+        assertEquals(LocalDateTime.of(2024, Month.JULY, 17, 14, 30), startTime);
+        Task newTask = new Task("task3", "description3", startTime, Duration.ofMinutes(15));
+        assertEquals(List.of(), taskManager.getConflictingTasks(newTask));
+
+        taskManager.removeTaskById(task2.getId());
+        assertEquals(LocalDateTime.of(2024, Month.JULY, 17, 13, 45),
+                taskManager.findFreeSlot(Duration.ofMinutes(15), after));
+        subtask.setStartTime(LocalDateTime.of(2024, Month.JULY, 17, 15, 0));
+        taskManager.updateSubtask(subtask);
+        assertEquals(LocalDateTime.of(2024, Month.JULY, 17, 13, 0),
+                taskManager.findFreeSlot(Duration.ofMinutes(15), after));
+    }
+
+    @Test
+    public void shouldFindFreeSlotAroundLongTask() {
+        LocalDateTime start = LocalDateTime.of(2024, Month.JULY, 17, 0, 0);
+        Task longTask = new Task("long", "description", start, Duration.ofDays(200));
+        taskManager.createTask(longTask);
+
+        assertEquals(longTask.getEndTime().plusMinutes(15), taskManager.findFreeSlot(Duration.ofHours(1), start));
+        longTask.setDuration(Duration.ofDays(1));
+        taskManager.updateTask(longTask);
+        assertEquals(start.plusDays(1).plusMinutes(15), taskManager.findFreeSlot(Duration.ofHours(1), start));
+        taskManager.removeTaskById(longTask.getId());
+        assertEquals(start, taskManager.findFreeSlot(Duration.ofHours(1), start));
+    }
+
+    @Test
+    public void shouldCreateTasksInBatch() {
+        List<Task> batch = List.of(
+                new Task("task1", "description1", LocalDateTime.of(2024, Month.JULY, 17, 12, 0), Duration.ofMinutes(30)),
+                new Task("task2", "description2", null, null),
+                new Task("task3", "description3", LocalDateTime.of(2024, Month.JULY, 17, 11, 0), Duration.ofMinutes(30)));
+        List<Integer> ids = taskManager.createTasks(batch);
+
+        assertEquals(List.of(batch.get(0).getId(), batch.get(1).getId(), batch.get(2).getId()), ids);
+        assertEquals(3, taskManager.getAllTasks().size());
+        assertEquals(List.of(batch.get(2), batch.get(0)), taskManager.getPrioritizedTasks());
+    }
+
+    @Test
+    public void shouldRejectWholeBatchWithConflicts() {
+        Task task = new Task("task", "description",
+                LocalDateTime.of(2024, Month.JULY, 17, 10, 0), Duration.ofMinutes(30));
+        taskManager.createTask(task);
+
+        List<Task> conflictingInside = List.of(
+                new Task("task1", "description1", LocalDateTime.of(2024, Month.JULY, 17, 12, 0), Duration.ofMinutes(30)),
+                new Task("task2", "description2", LocalDateTime.of(2024, Month.JULY, 17, 12, 15), Duration.ofMinutes(30)));
+        assertThrows(TimeConflictException.class, () -> taskManager.createTasks(conflictingInside));
+        List<Task> conflictingExisting = List.of(
+                new Task("task3", "description3", LocalDateTime.of(2024, Month.JULY, 17, 14, 0), Duration.ofMinutes(30)),
+                new Task("task4", "description4", LocalDateTime.of(2024, Month.JULY, 17, 10, 15), Duration.ofMinutes(30)));
+        assertThrows(TimeConflictException.class, () -> taskManager.createTasks(conflictingExisting));
+        Epic epic = new Epic("epic", "description");
+        taskManager.createEpic(epic);
+        List<Subtask> withMissingEpic = List.of(
+                new Subtask("subtask1", "description1", null, null, epic.getId()),
+                new Subtask("subtask2", "description2", null, null, epic.getId() + 100));
+        assertThrows(NoEpicException.class, () -> taskManager.createSubtasks(withMissingEpic));
+
+        assertEquals(List.of(task), taskManager.getAllTasks());
+        assertTrue(taskManager.getAllSubtasks().isEmpty());
+        assertEquals(List.of(task), taskManager.getPrioritizedTasks());
+    }
+
+    @Test
+    public void shouldCreateAndUpdateSubtasksInBatch() {
+        Epic epic = new Epic("epic", "description");
+        taskManager.createEpic(epic);
+        Subtask subtask1 = new Subtask("subtask1", "description1",
+                LocalDateTime.of(2024, Month.JULY, 17, 12, 0), Duration.ofMinutes(30), epic.getId());
+        Subtask subtask2 = new Subtask("subtask2", "description2",
+                LocalDateTime.of(2024, Month.JULY, 17, 13, 0), Duration.ofMinutes(60), epic.getId());
+        taskManager.createSubtasks(List.of(subtask1, subtask2));
+
+        Epic createdEpic = taskManager.getEpicById(epic.getId());
+        assertEquals(List.of(subtask1.getId(), subtask2.getId()), createdEpic.getSubtaskId());
+        assertEquals(LocalDateTime.of(2024, Month.JULY, 17, 12, 0), createdEpic.getStartTime());
+        assertEquals(Duration.ofMinutes(90), createdEpic.getDuration());
+
+        // Подзадачи меняются временем: по одной каждая пересекалась бы с другой, а пакетом — нет
+        subtask1.setStartTime(LocalDateTime.of(2024, Month.JULY, 17, 13, 0));
+        subtask1.setTaskStatus(TaskStatus.DONE);
+        subtask2.setStartTime(LocalDateTime.of(2024, Month.JULY, 17, 11, 0));
+        subtask2.setTaskStatus(TaskStatus.DONE);
+        taskManager.updateSubtasks(List.of(subtask1, subtask2));
+
+        Epic updatedEpic = taskManager.getEpicById(epic.getId());
+        assertEquals(TaskStatus.DONE, updatedEpic.getTaskStatus());
+        assertEquals(LocalDateTime.of(2024, Month.JULY, 17, 13, 30), updatedEpic.getEndTime());
+        assertEquals(List.of(subtask2, subtask1), taskManager.getPrioritizedTasks());
+    }
+
+    @Test
+    public void shouldRemoveTasksSubtasksAndEpicsByIds() {
+        Task task = new Task("task", "description",
+                LocalDateTime.of(2024, Month.JULY, 17, 10, 0), Duration.ofMinutes(30));
+        taskManager.createTask(task);
+        Epic epic1 = new Epic("epic1", "description1");
+        taskManager.createEpic(epic1);
+        Epic epic2 = new Epic("epic2", "description2");
+        taskManager.createEpic(epic2);
+        Subtask subtask1 = new Subtask("subtask1", "description1",
+                LocalDateTime.of(2024, Month.JULY, 17, 12, 0), Duration.ofMinutes(30), epic1.getId());
+        Subtask subtask2 = new Subtask("subtask2", "description2",
+                LocalDateTime.of(2024, Month.JULY, 17, 13, 0), Duration.ofMinutes(30), epic1.getId());
+        Subtask subtask3 = new Subtask("subtask3", "description3", null, null, epic2.getId());
+        taskManager.createSubtasks(List.of(subtask1, subtask2, subtask3));
+
+        taskManager.removeByIds(task.getId(), subtask1.getId(), epic2.getId(), 1000);
+
+        assertTrue(taskManager.getAllTasks().isEmpty());
+        assertEquals(List.of(epic1.getId()), taskManager.getAllEpics().stream().map(Epic::getId).toList());
+        assertEquals(List.of(subtask2.getId()), taskManager.getAllSubtasks().stream().map(Subtask::getId).toList());
+        Epic remainingEpic = taskManager.getEpicById(epic1.getId());
+        assertEquals(List.of(subtask2.getId()), remainingEpic.getSubtaskId());
+        assertEquals(LocalDateTime.of(2024, Month.JULY, 17, 13, 0), remainingEpic.getStartTime());
+        assertEquals(List.of(subtask2), taskManager.getPrioritizedTasks());
+    }
+
+    @Test
+    public void shouldPageTasksByIdAndByPriority() {
+        List<Task> created = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            Task task = new Task("task" + i, "description" + i,
+                    LocalDateTime.of(2024, Month.JULY, 17, 20 - i, 0), Duration.ofMinutes(15));
+            taskManager.createTask(task);
+            created.add(task);
+        }
+        taskManager.removeTaskById(created.get(2).getId());
+        created.remove(2);
+
+        List<Task> pagedById = new ArrayList<>();
+        TaskPage<Task> page = taskManager.getTasksPage(null, 3);
+        pagedById.addAll(page.getItems());
+        while (page.getNextCursor() != null) {
+            page = taskManager.getTasksPage(page.getNextCursor(), 3);
+            pagedById.addAll(page.getItems());
+        }
+        assertEquals(created, pagedById);
+
+        TaskPage<Task> firstByPriority = taskManager.getPrioritizedTasksPage(null, 4);
+        assertEquals(taskManager.getPrioritizedTasks().subList(0, 4), firstByPriority.getItems());
+        TaskPage<Task> lastByPriority = taskManager.getPrioritizedTasksPage(firstByPriority.getNextCursor(), 4);
+        assertEquals(taskManager.getPrioritizedTasks().subList(4, 6), lastByPriority.getItems());
+        assertNull(lastByPriority.getNextCursor());
+        assertThrows(IllegalArgumentException.class, () -> taskManager.getTasksPage("abc", 3));
+        assertThrows(IllegalArgumentException.class, () -> taskManager.getEpicsPage(null, 0));
+    }
+
+    @Test
+    public void shouldFindTasksByCombinedConditions() {
+        Task task = new Task("task", "description",
+                LocalDateTime.of(2024, Month.JULY, 16, 9, 0), Duration.ofMinutes(30));
+        taskManager.createTask(task);
+        Epic epic1 = new Epic("epic1", "description1");
+        taskManager.createEpic(epic1);
+        Epic epic2 = new Epic("epic2", "description2");
+        taskManager.createEpic(epic2);
+        Subtask thisWeek = new Subtask("subtask1", "description1",
+                LocalDateTime.of(2024, Month.JULY, 17, 10, 0), Duration.ofMinutes(30), epic1.getId());
+        Subtask nextWeek = new Subtask("subtask2", "description2",
+                LocalDateTime.of(2024, Month.JULY, 24, 10, 0), Duration.ofMinutes(30), epic1.getId());
+        Subtask otherEpic = new Subtask("subtask3", "description3",
+                LocalDateTime.of(2024, Month.JULY, 18, 10, 0), Duration.ofMinutes(30), epic2.getId());
+        Subtask untimed = new Subtask("subtask4", "description4", null, null, epic1.getId());
+        taskManager.createSubtasks(List.of(thisWeek, nextWeek, otherEpic, untimed));
+        for (Subtask subtask : List.of(thisWeek, nextWeek, otherEpic, untimed)) {
+            subtask.setTaskStatus(TaskStatus.IN_PROGRESS);
+        }
+        taskManager.updateSubtasks(List.of(thisWeek, nextWeek, otherEpic, untimed));
+
+        TaskQuery query = new TaskQuery();
+        query.setType(TaskType.SUBTASK);
+        query.setStatus(TaskStatus.IN_PROGRESS);
+        query.setFrom(LocalDateTime.of(2024, Month.JULY, 15, 0, 0));
+        query.setTo(LocalDateTime.of(2024, Month.JULY, 21, 23, 59));
+        assertEquals(List.of(thisWeek, otherEpic), taskManager.findTasks(query));
+        query.setEpicId(epic1.getId());
+        assertEquals(List.of(thisWeek), taskManager.findTasks(query));
+        query.setFrom(null);
+        query.setTo(null);
+        assertEquals(List.of(thisWeek, nextWeek, untimed), taskManager.findTasks(query));
+
+        TaskQuery inProgress = new TaskQuery();
+        inProgress.setStatus(TaskStatus.IN_PROGRESS);
+        assertEquals(List.of(epic1.getId(), epic2.getId(), thisWeek.getId(), nextWeek.getId(), otherEpic.getId(),
+                untimed.getId()), taskManager.findTasks(inProgress).stream().map(Task::getId).toList());
+        TaskQuery inJuly16 = new TaskQuery();
+        inJuly16.setFrom(LocalDateTime.of(2024, Month.JULY, 16, 0, 0));
+        inJuly16.setTo(LocalDateTime.of(2024, Month.JULY, 16, 23, 59));
+        assertEquals(List.of(task), taskManager.findTasks(inJuly16));
+
+        taskManager.removeByIds(thisWeek.getId());
+        task.setTaskStatus(TaskStatus.IN_PROGRESS);
+        taskManager.updateTask(task);
+        assertEquals(List.of(task), taskManager.findTasks(inJuly16));
+        assertEquals(List.of(nextWeek, untimed), taskManager.findTasks(query));
+    }
+}
@@ -4,8 +4,9 @@ import org.junit.jupiter.api.Test;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
+import java.time.Month;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 
 class TaskTest {
 
@@ -17,4 +18,27 @@ class TaskTest {
         task2.setId(1);
         assertEquals(task1, task2);
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldKeepTimeInEpochMinutes() {
+        Task task = new Task("task", "description", LocalDateTime.of(2024, Month.JULY, 17, 12, 30, 45),
+                Duration.ofMinutes(20));
+        assertEquals(LocalDateTime.of(2024, Month.JULY, 17, 12, 30), task.getStartTime());
+        assertEquals(LocalDateTime.of(2024, Month.JULY, 17, 12, 50), task.getEndTime());
+        assertEquals(task.getStartMinute() + 20, task.getEndMinute());
+
+        task.setStartTime(null);
+        assertFalse(task.hasStartTime());
+        assertNull(task.getStartTime());
+        assertNull(task.getEndTime());
+    }
+
+    @Test
+    void shouldRejectDurationLongerThanIntMinutes() {
+        Duration tooLong = Duration.ofMinutes(Integer.MAX_VALUE + 1L);
+        assertThrows(IllegalArgumentException.class, () -> new Task("task", "description", null, tooLong));
+        Task task = new Task("task", "description", null, Duration.ofMinutes(Integer.MAX_VALUE));
+        assertEquals(Integer.MAX_VALUE, task.getDurationMinutes());
+        assertThrows(IllegalArgumentException.class, () -> task.setDuration(tooLong));
+    }
+}
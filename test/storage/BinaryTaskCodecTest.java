@@ -0,0 +1,81 @@
+package storage;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinaryTaskCodecTest {
+
+    @Test
+    void shouldRestoreTasksWrittenInBinaryFormat() throws IOException {
+        File tmpFile = File.createTempFile("test", "bin");
+        Task task = new Task("Task1", "Описание задачи", LocalDateTime.of(1969, Month.DECEMBER, 31, 23, 0),
+                Duration.ofMinutes(90));
+        task.setId(1);
+        Epic epic = new Epic("Epic1", null);
+        epic.setId(300);
+        Subtask subtask = new Subtask("Subtask1", "Subtask1_Description",
+                LocalDateTime.of(2024, Month.JULY, 16, 14, 10), Duration.ofMinutes(1), epic.getId());
+        subtask.setId(70_000);
+        subtask.setTaskStatus(TaskStatus.DONE);
+        try (OutputStream outputStream = new FileOutputStream(tmpFile)) {
+            BinaryTaskCodec.write(outputStream, List.of(task, epic, subtask));
+        }
+        List<Task> restored = new ArrayList<>();
+        assertTrue(BinaryTaskCodec.isBinary(tmpFile));
+        BinaryTaskCodec.read(tmpFile, restored::add);
+        assertEquals(3, restored.size());
+        assertEquals(task.getStartTime(), restored.get(0).getStartTime());
+        assertEquals(task.getDuration(), restored.get(0).getDuration());
+        assertEquals("Описание задачи", restored.get(0).getDescription());
+        assertTrue(restored.get(1) instanceof Epic);
+        assertNull(restored.get(1).getDescription());
+        Subtask restoredSubtask = (Subtask) restored.get(2);
+        assertEquals(70_000, restoredSubtask.getId());
+        assertEquals(300, restoredSubtask.getEpicId());
+        assertEquals(TaskStatus.DONE, restoredSubtask.getTaskStatus());
+        tmpFile.deleteOnExit();
+    }
+
+    @Test
+    void shouldRejectUnknownVersion() throws IOException {
+        File tmpFile = File.createTempFile("test", "bin");
+        Files.write(tmpFile.toPath(), ByteBuffer.allocate(12).putInt(BinaryTaskCodec.MAGIC).putShort((short) 99)
+                .array());
+        assertThrows(IOException.class, () -> BinaryTaskCodec.read(tmpFile, task -> {
+        }));
+        tmpFile.deleteOnExit();
+    }
+
+    @Test
+    void shouldConvertBetweenCsvAndBinarySnapshots() throws IOException {
+        File csvFile = File.createTempFile("test", "csv");
+        File binaryFile = File.createTempFile("test", "bin");
+        File convertedFile = File.createTempFile("test", "csv");
+        String csv = "id,type,title,status,description,startTime,duration,epic\n"
+                + "1,TASK,\"Task, first\",NEW,Task1_Description,16.07.24 13:30,2\n"
+                + "2,EPIC,Epic1,NEW,Epic1_Description,16.07.24 14:10,1\n"
+                + "3,SUBTASK,Subtask1,NEW,Subtask1_Description,16.07.24 14:10,1,2";
+        Files.writeString(csvFile.toPath(), csv);
+        SnapshotConverter.csvToBinary(csvFile, binaryFile);
+        SnapshotConverter.binaryToCsv(binaryFile, convertedFile);
+        assertEquals(csv.replace("16.07.24 14:10,1\n", ",0\n"), Files.readString(convertedFile.toPath()));
+        csvFile.deleteOnExit();
+        binaryFile.deleteOnExit();
+        convertedFile.deleteOnExit();
+    }
+}
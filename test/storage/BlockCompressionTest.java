@@ -0,0 +1,45 @@
+package storage;
+
+import org.junit.jupiter.api.Test;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockCompressionTest {
+
+    @Test
+    void shouldRestoreDataSplitIntoSeveralBlocks() throws IOException {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; builder.length() < 3 * 1024 * 1024; i++) {
+            builder.append(i).append(",TASK,Task").append(i).append(",NEW,Описание задачи,null,0\n");
+        }
+        byte[] raw = builder.toString().getBytes(StandardCharsets.UTF_8);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        BlockCompression.BlockOutputStream compressedStream = BlockCompression.compress(outputStream);
+        compressedStream.write(raw, 0, 100);
+        compressedStream.write(raw, 100, raw.length - 100);
+        compressedStream.finish();
+        ByteBuffer compressed = ByteBuffer.wrap(outputStream.toByteArray());
+
+        assertTrue(BlockCompression.isCompressed(compressed));
+        assertTrue(compressed.remaining() < raw.length / 4);
+        ByteBuffer restored = BlockCompression.decompress(compressed, ForkJoinPool.commonPool());
+        assertArrayEquals(raw, Arrays.copyOf(restored.array(), restored.remaining()));
+    }
+
+    @Test
+    void shouldRejectTruncatedBlock() throws IOException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        BlockCompression.BlockOutputStream compressedStream = BlockCompression.compress(outputStream);
+        compressedStream.write("1,TASK,Task1,NEW,Описание задачи,null,0\n".getBytes(StandardCharsets.UTF_8));
+        compressedStream.finish();
+        byte[] compressed = outputStream.toByteArray();
+
+        assertThrows(IOException.class, () -> BlockCompression.decompress(
+                ByteBuffer.wrap(Arrays.copyOf(compressed, compressed.length - 3)), ForkJoinPool.commonPool()));
+    }
+}
@@ -0,0 +1,115 @@
+package storage;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+import org.junit.jupiter.api.Test;
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ColumnarTaskStoreTest {
+
+    private final ColumnarTaskStore store = new ColumnarTaskStore();
+
+    @Test
+    void shouldRebuildTasksFromColumns() {
+        Map<Integer, Subtask> subtasks = store.view(TaskType.SUBTASK, Subtask.class);
+        Map<Integer, Epic> epics = store.view(TaskType.EPIC, Epic.class);
+        Epic epic = new Epic("Эпик", "Описание эпика");
+        epic.setId(1);
+        epic.addSubtaskId(2);
+        epic.setTaskStatus(TaskStatus.IN_PROGRESS);
+        epics.put(1, epic);
+        Subtask subtask = new Subtask("Подзадача", null, LocalDateTime.of(2024, Month.JULY, 16, 13, 30),
+                Duration.ofMinutes(45), 1);
+        subtask.setId(2);
+        subtask.setTaskStatus(TaskStatus.DONE);
+        subtasks.put(2, subtask);
+        // Без ссылок на исходные объекты задачи собираются заново из колонок
+        WeakReference<Subtask> original = new WeakReference<>(subtask);
+        epic = null;
+        subtask = null;
+        for (int i = 0; i < 10 && original.get() != null; i++) {
+            System.gc();
+        }
+
+        Subtask restoredSubtask = subtasks.get(2);
+        assertEquals("Подзадача", restoredSubtask.getTitle());
+        assertNull(restoredSubtask.getDescription());
+        assertEquals(TaskStatus.DONE, restoredSubtask.getTaskStatus());
+        assertEquals(LocalDateTime.of(2024, Month.JULY, 16, 13, 30), restoredSubtask.getStartTime());
+        assertEquals(45, restoredSubtask.getDurationMinutes());
+        assertEquals(1, restoredSubtask.getEpicId());
+        Epic restoredEpic = epics.get(1);
+        assertEquals("Описание эпика", restoredEpic.getDescription());
+        assertEquals(List.of(2), restoredEpic.getSubtaskId());
+        assertEquals(TaskStatus.IN_PROGRESS, restoredEpic.getTaskStatus());
+        assertNull(store.view(TaskType.TASK, Task.class).get(1));
+    }
+
+    @Test
+    void shouldIterateByIdAndKeepCountsPerType() {
+        IdOrderedMap<Task> tasks = store.view(TaskType.TASK, Task.class);
+        for (int id = 3; id >= 1; id--) {
+            Task task = new Task("Task" + id, "Description", null, null);
+            task.setId(id);
+            tasks.put(id, task);
+        }
+        tasks.remove(2);
+
+        assertEquals(List.of(1, 3), List.copyOf(tasks.keySet()));
+        assertEquals(2, store.size(TaskType.TASK));
+        assertEquals(2, store.countByStatus(TaskType.TASK, TaskStatus.NEW));
+        assertFalse(tasks.containsKey(2));
+        assertEquals(3, tasks.nextId(1));
+        assertEquals(-1, tasks.nextId(3));
+    }
+
+    @Test
+    void shouldFindNextIdWithStatusFromColumns() {
+        IdOrderedMap<Task> tasks = store.view(TaskType.TASK, Task.class);
+        for (int id = 1; id <= 4; id++) {
+            Task task = new Task("Task" + id, "Description", null, null);
+            task.setId(id);
+            task.setTaskStatus(id % 2 == 0 ? TaskStatus.DONE : TaskStatus.NEW);
+            tasks.put(id, task);
+        }
+        store.view(TaskType.SUBTASK, Subtask.class).put(5, doneSubtask(5));
+
+        assertEquals(2, tasks.nextId(-1, TaskStatus.DONE));
+        assertEquals(4, tasks.nextId(2, TaskStatus.DONE));
+        assertEquals(-1, tasks.nextId(4, TaskStatus.DONE));
+        assertEquals(-1, tasks.nextId(-1, TaskStatus.IN_PROGRESS));
+    }
+
+    @Test
+    void shouldCompactStringArenaAfterRewrites() {
+        Map<Integer, Task> tasks = store.view(TaskType.TASK, Task.class);
+        String description = "x".repeat(1024);
+        Task task = new Task("Task", description, null, null);
+        task.setId(1);
+        for (int i = 0; i < 200; i++) {
+            task.setTitle("Task" + i);
+            task.setDescription(description + i);
+            tasks.put(1, task);
+        }
+
+        assertTrue(store.getStringBytes() < 64 * 1024 * 3);
+        assertEquals("Task199", tasks.get(1).getTitle());
+        assertEquals(description + 199, tasks.get(1).getDescription());
+    }
+
+    private static Subtask doneSubtask(int id) {
+        Subtask subtask = new Subtask("Подзадача", null, null, null, 1);
+        subtask.setId(id);
+        subtask.setTaskStatus(TaskStatus.DONE);
+        return subtask;
+    }
+}
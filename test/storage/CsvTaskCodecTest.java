@@ -0,0 +1,64 @@
+package storage;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+import java.io.IOException;
+import java.io.StringReader;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Month;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvTaskCodecTest {
+
+    @Test
+    void shouldWriteTaskInSnapshotFormat() throws IOException {
+        Task task = new Task("Task1", "Task1_Description",
+                LocalDateTime.of(2024, Month.JULY, 16, 13, 30), Duration.ofMinutes(2));
+        task.setId(1);
+        StringBuilder builder = new StringBuilder();
+        CsvTaskCodec.write(builder, task);
+        assertEquals("1,TASK,Task1,NEW,Task1_Description,16.07.24 13:30,2", builder.toString());
+    }
+
+    @Test
+    void shouldQuoteFieldsWithSeparatorsAndReadThemBack() throws IOException {
+        Subtask subtask = new Subtask("Title, with \"quotes\"", "First line\nSecond line",
+                LocalDateTime.of(2024, Month.JULY, 5, 9, 5), Duration.ofMinutes(125), 3);
+        subtask.setId(12);
+        subtask.setTaskStatus(TaskStatus.IN_PROGRESS);
+        StringBuilder builder = new StringBuilder();
+        CsvTaskCodec.write(builder, subtask);
+        assertEquals("12,SUBTASK,\"Title, with \"\"quotes\"\"\",IN_PROGRESS,\"First line\nSecond line\","
+                + "05.07.24 09:05,125,3", builder.toString());
+
+        try (CsvRecordReader reader = new CsvRecordReader(new StringReader(builder + "\n"))) {
+            assertTrue(reader.next());
+            Subtask restored = (Subtask) CsvTaskCodec.read(reader, 0);
+            assertEquals(12, restored.getId());
+            assertEquals(subtask.getTitle(), restored.getTitle());
+            assertEquals(subtask.getDescription(), restored.getDescription());
+            assertEquals(TaskStatus.IN_PROGRESS, restored.getTaskStatus());
+            assertEquals(subtask.getStartTime(), restored.getStartTime());
+            assertEquals(subtask.getDuration(), restored.getDuration());
+            assertEquals(3, restored.getEpicId());
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    void shouldSkipBlankLinesAndReadEpicWithoutStartTime() throws IOException {
+        String csv = "\n7,EPIC,Epic1,DONE,Epic1_Description,,0\r\n\n";
+        try (CsvRecordReader reader = new CsvRecordReader(new StringReader(csv))) {
+            assertTrue(reader.next());
+            Task epic = CsvTaskCodec.read(reader, 0);
+            assertTrue(epic instanceof Epic);
+            assertEquals(7, epic.getId());
+            assertNull(epic.getStartTime());
+            assertFalse(reader.next());
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package storage;
+
+import org.junit.jupiter.api.Test;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ManagerStateTest {
+
+    @Test
+    void shouldRestoreStateWithStampOfSnapshot() throws IOException {
+        File snapshot = File.createTempFile("test", "csv");
+        File stateFile = new File(snapshot.getPath() + ".state");
+        Files.write(snapshot.toPath(), List.of("id,type,title,status,description,startTime,duration,epic"));
+        ManagerState.write(stateFile, new ManagerState(new int[]{3, 1, 2}, new int[]{2, 3}), snapshot, 40, false);
+
+        ManagerState state = ManagerState.read(stateFile);
+        assertArrayEquals(new int[]{3, 1, 2}, state.getHistoryIds());
+        assertArrayEquals(new int[]{2, 3}, state.getPrioritizedIds());
+        assertTrue(state.isStampOf(snapshot, 40));
+        assertFalse(state.isStampOf(snapshot, 0));
+        Files.write(snapshot.toPath(), List.of("id,type,title,status,description,startTime,duration,epic", ""));
+        assertFalse(state.isStampOf(snapshot, 40));
+        snapshot.deleteOnExit();
+        stateFile.deleteOnExit();
+    }
+
+    @Test
+    void damagedStateShouldBeIgnored() throws IOException {
+        File snapshot = File.createTempFile("test", "csv");
+        File stateFile = new File(snapshot.getPath() + ".state");
+        assertNull(ManagerState.read(stateFile));
+        ManagerState.write(stateFile, new ManagerState(new int[]{1}, new int[]{1}), snapshot, 0, false);
+        byte[] bytes = Files.readAllBytes(stateFile.toPath());
+
+        bytes[bytes.length - 6] ^= 1;
+        Files.write(stateFile.toPath(), bytes);
+        assertNull(ManagerState.read(stateFile));
+        Files.write(stateFile.toPath(), Arrays.copyOf(bytes, bytes.length / 2));
+        assertNull(ManagerState.read(stateFile));
+        snapshot.deleteOnExit();
+        stateFile.deleteOnExit();
+    }
+}
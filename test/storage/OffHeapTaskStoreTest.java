@@ -0,0 +1,96 @@
+package storage;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import model.TaskType;
+import org.junit.jupiter.api.Test;
+import java.lang.ref.WeakReference;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.List;
+import java.util.Map;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapTaskStoreTest {
+
+    private final OffHeapTaskStore store = new OffHeapTaskStore();
+
+    @Test
+    void shouldRebuildTasksFromRecords() {
+        Map<Integer, Subtask> subtasks = store.view(TaskType.SUBTASK, Subtask.class);
+        Map<Integer, Epic> epics = store.view(TaskType.EPIC, Epic.class);
+        Epic epic = new Epic("Эпик", "Описание эпика");
+        epic.setId(1);
+        epic.addSubtaskId(2);
+        epic.setTaskStatus(TaskStatus.IN_PROGRESS);
+        epics.put(1, epic);
+        Subtask subtask = new Subtask("Подзадача", null, LocalDateTime.of(2024, Month.JULY, 16, 13, 30),
+                Duration.ofMinutes(45), 1);
+        subtask.setId(2);
+        subtask.setTaskStatus(TaskStatus.DONE);
+        subtasks.put(2, subtask);
+        // Без ссылок на исходные объекты задачи собираются заново из записей
+        WeakReference<Subtask> original = new WeakReference<>(subtask);
+        epic = null;
+        subtask = null;
+        for (int i = 0; i < 10 && original.get() != null; i++) {
+            System.gc();
+        }
+
+        Subtask restoredSubtask = subtasks.get(2);
+        assertEquals("Подзадача", restoredSubtask.getTitle());
+        assertNull(restoredSubtask.getDescription());
+        assertEquals(TaskStatus.DONE, restoredSubtask.getTaskStatus());
+        assertEquals(LocalDateTime.of(2024, Month.JULY, 16, 13, 30), restoredSubtask.getStartTime());
+        assertEquals(45, restoredSubtask.getDurationMinutes());
+        assertEquals(1, restoredSubtask.getEpicId());
+        Epic restoredEpic = epics.get(1);
+        assertEquals("Описание эпика", restoredEpic.getDescription());
+        assertEquals(List.of(2), restoredEpic.getSubtaskId());
+        assertEquals(TaskStatus.IN_PROGRESS, restoredEpic.getTaskStatus());
+        assertNull(store.view(TaskType.TASK, Task.class).get(1));
+    }
+
+    @Test
+    void shouldReuseRecordsOfRemovedTasks() {
+        Map<Integer, Task> tasks = store.view(TaskType.TASK, Task.class);
+        for (int id = 1; id <= 3; id++) {
+            Task task = new Task("Task" + id, "Description", null, null);
+            task.setId(id);
+            tasks.put(id, task);
+        }
+        tasks.remove(2);
+        Task task = new Task("Task4", "Description", null, null);
+        task.setId(4);
+        tasks.put(4, task);
+
+        assertEquals(3, store.getRecordSlots());
+        assertEquals(List.of(1, 3, 4), List.copyOf(tasks.keySet()));
+        assertEquals(3, store.size(TaskType.TASK));
+        assertFalse(tasks.containsKey(2));
+    }
+
+    @Test
+    void shouldMoveGrownEpicToLargerBlock() {
+        Map<Integer, Epic> epics = store.view(TaskType.EPIC, Epic.class);
+        Epic epic = new Epic("Epic", "Description");
+        epic.setId(1);
+        for (int i = 0; i < 10_000; i++) {
+            epic.addSubtaskId(i + 2);
+            epics.put(1, epic);
+        }
+        Task task = new Task("Task", "x".repeat(100_000), null, null);
+        task.setId(20_000);
+        store.view(TaskType.TASK, Task.class).put(20_000, task);
+        epic = null;
+        task = null;
+        System.gc();
+
+        assertEquals(10_000, epics.get(1).getSubtaskId().size());
+        assertEquals(10_001, epics.get(1).getSubtaskId().get(9_999));
+        assertEquals(100_000, store.view(TaskType.TASK, Task.class).get(20_000).getDescription().length());
+    }
+}
@@ -0,0 +1,76 @@
+package storage;
+
+import model.Task;
+import org.junit.jupiter.api.Test;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelSnapshotLoaderTest {
+
+    private static final int TASKS_COUNT = 100_000;
+
+    private List<Task> createTasks() {
+        List<Task> tasks = new ArrayList<>();
+        LocalDateTime startTime = LocalDateTime.of(2024, Month.JULY, 16, 13, 30);
+        for (int i = 1; i <= TASKS_COUNT; i++) {
+            Task task = new Task("Task" + i, i % 1000 == 0 ? "Описание,\nв две строки" : "Описание задачи",
+                    startTime.plusMinutes(i * 10L), Duration.ofMinutes(5));
+            task.setId(i);
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    private void assertSameTasks(List<Task> expected, List<Task> actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i).getId(), actual.get(i).getId());
+            assertEquals(expected.get(i).getDescription(), actual.get(i).getDescription());
+            assertEquals(expected.get(i).getStartTime(), actual.get(i).getStartTime());
+        }
+    }
+
+    @Test
+    void shouldLoadCsvSnapshotSplitIntoSeveralChunks() throws IOException {
+        File tmpFile = File.createTempFile("test", "csv");
+        List<Task> tasks = createTasks();
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(tmpFile, StandardCharsets.UTF_8))) {
+            CsvTaskCodec.write(writer, tasks);
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertSameTasks(tasks, new ParallelSnapshotLoader(pool).load(tmpFile));
+        } finally {
+            pool.shutdown();
+        }
+        tmpFile.deleteOnExit();
+    }
+
+    @Test
+    void shouldLoadBinarySnapshotSplitIntoSeveralChunks() throws IOException {
+        File tmpFile = File.createTempFile("test", "bin");
+        List<Task> tasks = createTasks();
+        try (OutputStream outputStream = new FileOutputStream(tmpFile)) {
+            BinaryTaskCodec.write(outputStream, tasks);
+        }
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            assertSameTasks(tasks, new ParallelSnapshotLoader(pool).load(tmpFile));
+        } finally {
+            pool.shutdown();
+        }
+        tmpFile.deleteOnExit();
+    }
+}
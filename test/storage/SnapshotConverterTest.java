@@ -0,0 +1,79 @@
+package storage;
+
+import model.Epic;
+import model.Subtask;
+import model.Task;
+import model.TaskStatus;
+import org.junit.jupiter.api.Test;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotConverterTest {
+
+    private List<Task> createTasks() {
+        List<Task> tasks = new ArrayList<>();
+        LocalDateTime startTime = LocalDateTime.of(2024, Month.JULY, 16, 13, 30);
+        Epic epic = new Epic("Epic", "Описание эпика");
+        epic.setId(1);
+        tasks.add(epic);
+        for (int i = 2; i <= 1000; i++) {
+            Task task = i % 2 == 0
+                    ? new Task("Task" + i, "Описание,\nв две строки", startTime.plusMinutes(i * 10L),
+                            Duration.ofMinutes(5))
+                    : new Subtask("Subtask" + i, "Описание подзадачи", null, null, epic.getId());
+            task.setId(i);
+            task.setTaskStatus(i % 3 == 0 ? TaskStatus.DONE : TaskStatus.NEW);
+            tasks.add(task);
+        }
+        return tasks;
+    }
+
+    @Test
+    void shouldConvertCompressedSnapshotsBothWays() throws IOException {
+        List<Task> tasks = createTasks();
+        File compressedBinary = File.createTempFile("test", "bin");
+        try (OutputStream outputStream = new FileOutputStream(compressedBinary)) {
+            BlockCompression.BlockOutputStream compressedStream = BlockCompression.compress(outputStream);
+            BinaryTaskCodec.write(compressedStream, tasks);
+            compressedStream.finish();
+        }
+        assertTrue(BlockCompression.isCompressed(compressedBinary));
+        File csv = File.createTempFile("test", "csv");
+        SnapshotConverter.binaryToCsv(compressedBinary, csv);
+
+        File compressedCsv = File.createTempFile("test", "csv");
+        try (OutputStream outputStream = new FileOutputStream(compressedCsv)) {
+            BlockCompression.BlockOutputStream compressedStream = BlockCompression.compress(outputStream);
+            compressedStream.write(Files.readAllBytes(csv.toPath()));
+            compressedStream.finish();
+        }
+        File binary = File.createTempFile("test", "bin");
+        SnapshotConverter.csvToBinary(compressedCsv, binary);
+
+        List<Task> restored = new ParallelSnapshotLoader(ForkJoinPool.commonPool()).load(binary);
+        assertEquals(tasks.size(), restored.size());
+        for (int i = 0; i < tasks.size(); i++) {
+            Task expected = tasks.get(i);
+            Task actual = restored.get(i);
+            assertEquals(expected.getClass(), actual.getClass());
+            assertEquals(expected.getId(), actual.getId());
+            assertEquals(expected.getDescription(), actual.getDescription());
+            assertEquals(expected.getTaskStatus(), actual.getTaskStatus());
+            assertEquals(expected.getStartTime(), actual.getStartTime());
+        }
+        compressedBinary.deleteOnExit();
+        csv.deleteOnExit();
+        compressedCsv.deleteOnExit();
+        binary.deleteOnExit();
+    }
+}
@@ -0,0 +1,43 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+import java.util.Iterator;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentIntListTest {
+
+    @Test
+    void shouldWorkAsListOfIntegers() {
+        ConcurrentIntList list = new ConcurrentIntList();
+        for (int i = 1; i <= 10; i++) {
+            list.addInt(i * 10);
+        }
+        assertTrue(list.removeInt(30));
+        assertFalse(list.removeInt(35));
+        assertTrue(list.remove(Integer.valueOf(100)));
+        assertEquals(List.of(10, 20, 40, 50, 60, 70, 80, 90), list);
+        assertEquals(2, list.indexOf(40));
+        assertArrayEquals(new int[]{10, 20, 40, 50, 60, 70, 80, 90}, list.toIntArray());
+        assertThrows(IndexOutOfBoundsException.class, () -> list.getInt(8));
+        list.clear();
+        assertTrue(list.isEmpty());
+    }
+
+    @Test
+    void iteratorShouldSeeListAsOfItsStart() {
+        ConcurrentIntList list = new ConcurrentIntList();
+        list.addInt(1);
+        list.addInt(2);
+        list.addInt(3);
+        Iterator<Integer> iterator = list.iterator();
+        assertEquals(1, iterator.next());
+        list.removeInt(2);
+        list.addInt(4);
+        list.addInt(5);
+        assertEquals(2, iterator.next());
+        assertEquals(3, iterator.next());
+        assertFalse(iterator.hasNext());
+        assertEquals(List.of(1, 3, 4, 5), list);
+    }
+}
@@ -0,0 +1,62 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntBitSetTest {
+
+    @Test
+    void shouldIterateValuesInAscendingOrder() {
+        IntBitSet set = new IntBitSet();
+        assertTrue(set.add(5000));
+        assertTrue(set.add(3));
+        assertTrue(set.add(64));
+        assertFalse(set.add(64));
+        assertEquals(3, set.size());
+
+        assertEquals(3, set.nextAfter(-1));
+        assertEquals(64, set.nextAfter(3));
+        assertEquals(5000, set.nextAfter(64));
+        assertEquals(-1, set.nextAfter(5000));
+        assertEquals(-1, set.nextAfter(100_000));
+    }
+
+    @Test
+    void shouldRemoveAndClearValues() {
+        IntBitSet set = new IntBitSet();
+        set.add(10);
+        set.add(11);
+        assertTrue(set.remove(10));
+        assertFalse(set.remove(10));
+        assertFalse(set.remove(1_000_000));
+        assertFalse(set.contains(10));
+        assertTrue(set.contains(11));
+        assertEquals(11, set.nextAfter(-1));
+        set.clear();
+        assertEquals(0, set.size());
+        assertEquals(-1, set.nextAfter(-1));
+        assertThrows(IllegalArgumentException.class, () -> set.add(-1));
+    }
+
+    @Test
+    void shouldStoreOnlyOccupiedWordsOfSparseValues() {
+        IntBitSet set = new IntBitSet();
+        set.add(2_000_000_000);
+        set.add(Integer.MAX_VALUE);
+        set.add(7);
+        set.add(1_000_000);
+
+        assertEquals(7, set.nextAfter(-1));
+        assertEquals(1_000_000, set.nextAfter(7));
+        assertEquals(2_000_000_000, set.nextAfter(1_000_000));
+        assertEquals(Integer.MAX_VALUE, set.nextAfter(2_000_000_000));
+        assertEquals(-1, set.nextAfter(Integer.MAX_VALUE));
+        assertTrue(set.remove(1_000_000));
+        assertEquals(2_000_000_000, set.nextAfter(7));
+        assertTrue(set.add(1_000_001));
+        assertEquals(1_000_001, set.nextAfter(7));
+        assertTrue(set.contains(Integer.MAX_VALUE));
+        assertFalse(set.contains(1_000_000));
+        assertEquals(4, set.size());
+    }
+}
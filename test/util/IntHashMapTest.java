@@ -0,0 +1,52 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntHashMapTest {
+
+    @Test
+    void shouldBehaveLikeHashMap() {
+        Random random = new Random(11);
+        IntHashMap<String> map = new IntHashMap<>();
+        Map<Integer, String> expected = new HashMap<>();
+        for (int step = 0; step < 50_000; step++) {
+            // Ключи с одинаковыми младшими битами дают длинные цепочки пробирования
+            int key = random.nextInt(3) == 0 ? random.nextInt(64) << 16 : random.nextInt(5000) - 100;
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                String value = "value" + step;
+                assertEquals(expected.put(key, value), map.put(key, value));
+            }
+            assertEquals(expected.size(), map.size());
+        }
+        for (int key = -100; key < 5000; key++) {
+            assertEquals(expected.get(key), map.get(key));
+            assertEquals(expected.containsKey(key), map.containsKey(key));
+        }
+        assertEquals(expected, map);
+        assertEquals(new TreeMap<>(expected), new TreeMap<>(map));
+    }
+
+    @Test
+    void shouldIterateSequentialIdsInAscendingOrder() {
+        IntHashMap<String> map = new IntHashMap<>();
+        for (int id = 200; id >= 1; id--) {
+            map.put(id, "task" + id);
+        }
+        int previous = 0;
+        for (Integer id : map.keySet()) {
+            assertEquals(previous + 1, id);
+            previous = id;
+        }
+        map.clear();
+        assertTrue(map.isEmpty());
+        assertNull(map.get(1));
+        assertThrows(NullPointerException.class, () -> map.put(1, null));
+    }
+}
@@ -0,0 +1,26 @@
+package util;
+
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class IntListTest {
+
+    @Test
+    void shouldWorkAsListOfIntegers() {
+        IntList list = new IntList(2);
+        for (int i = 1; i <= 10; i++) {
+            list.addInt(i * 10);
+        }
+        assertTrue(list.removeInt(30));
+        assertFalse(list.removeInt(35));
+        assertTrue(list.remove(Integer.valueOf(100)));
+        assertEquals(List.of(10, 20, 40, 50, 60, 70, 80, 90), list);
+        assertEquals(2, list.indexOf(40));
+        assertEquals(20, list.remove(1));
+        list.add(0, 5);
+        assertEquals(List.of(5, 10, 40, 50, 60, 70, 80, 90), list);
+        assertArrayEquals(new int[]{5, 10, 40, 50, 60, 70, 80, 90}, list.toIntArray());
+        assertThrows(IndexOutOfBoundsException.class, () -> list.getInt(8));
+    }
+}